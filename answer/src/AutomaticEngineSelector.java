@@ -0,0 +1,141 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * What --engine=auto runs: the engine EngineCostModel predicts to be the fastest on the triangle at hand.
+ *
+ * The model is measured the first time, then kept in ~/.minTrianglePath. Candidates that can't handle
+ * the triangle are left out: the bucket frontier needs non-negative node values (and is only worth it
+ * while it has fewer buckets than nodes), Dijkstra and A* number nodes with an int. So are candidates
+ * no better than another one on this host (see EngineCostModel.isCandidateUseful).
+ * There is nothing to choose for an empty triangle: dp solves it, without a model.
+ * A triangle file whose nodes wouldn't fit in memory is solved by CheckpointedTriangleSolver instead.
+ *
+ * Every choice is explained on the log (the standard error): the triangle, then the predicted time of each candidate.
+ */
+
+final class AutomaticEngineSelector {
+
+	/*package*/ final static String COMMAND_LINE_NAME = "auto";
+
+	private final static String MODEL_FILE_NAME = ".minTrianglePath";
+	private final static String LOG_PREFIX = "engine auto: ";
+	private final static long NANOS_PER_MICRO = 1000;
+	private final static int EMPTY_TRIANGLE_CANDIDATE_INDEX = 0;
+
+	private AutomaticEngineSelector() {
+		// static methods only
+	}
+
+	/**
+	 * @return true if the input file has more nodes than the memory can hold, at a byte per node:
+	 * it is then solved by CheckpointedTriangleSolver. Always false for the standard input, which can't be measured beforehand.
+	 */
+
+	/*package*/ static boolean isLowMemoryNeeded(MinTrianglePathOptions anOptions, PrintStream aLog) {
+		final Path inputPath = anOptions.getInputPath();
+		if(null == inputPath) {
+			return false;
+		}
+		final long maximumByteCount = Runtime.getRuntime().maxMemory();
+		try {
+			// a node takes at least a byte in the file too: counting rows is only worth it for a file larger than the memory
+			if(Files.size(inputPath) <= maximumByteCount) {
+				return false;
+			}
+			final long nodeCount = Triangle.getNodeCount(new TriangleInputProcessor(inputPath).countRows());
+			if(nodeCount <= maximumByteCount) {
+				return false;
+			}
+			aLog.println(new StringBuilder(LOG_PREFIX).append("--low-memory, ").append(nodeCount).append(" nodes don't fit in ")
+					.append(maximumByteCount).append(" bytes of memory. prints node numbers like --stream").toString());
+			return true;
+		} catch (IOException ioex) {
+			// TriangleInputException included. the regular solve reports it.
+			return false;
+		}
+	}
+
+	/**
+	 * Picks the candidate of EngineCostModel with the smallest predicted time for aTriangle, calibrating the model first if needed
+	 *
+	 * @param anOptions the settings the candidates are made with
+	 * @param aLog where the choice is explained
+	 * @return the index of the candidate (see EngineCostModel.makeSolver)
+	 */
+
+	/*package*/ static int selectCandidate(Triangle aTriangle, MinTrianglePathOptions anOptions, PrintStream aLog) {
+		final long nodeCount = aTriangle.getNodeCount();
+		if(0 == nodeCount) {
+			aLog.println(new StringBuilder(LOG_PREFIX).append(EngineCostModel.getCandidateName(EMPTY_TRIANGLE_CANDIDATE_INDEX))
+					.append(", the triangle is empty").toString());
+			return EMPTY_TRIANGLE_CANDIDATE_INDEX;
+		}
+		final EngineCostModel model = getModel(anOptions, aLog);
+		final int minimumNodeValue = aTriangle.getMinimumNodeValue();
+		final int maximumNodeValue = aTriangle.getMaximumNodeValue();
+		final StringBuilder predictionText = new StringBuilder();
+		int result = -1;
+		long resultNanos = Long.MAX_VALUE;
+		for(int ii = 0 ; ii < EngineCostModel.getCandidateCount() ; ++ii) {
+			predictionText.append(", ").append(EngineCostModel.getCandidateName(ii)).append(' ');
+			if(isCandidateAble(ii, nodeCount, minimumNodeValue, maximumNodeValue)) {
+				final long nanos = model.predictNanos(ii, nodeCount, minimumNodeValue, maximumNodeValue);
+				predictionText.append(nanos / NANOS_PER_MICRO).append("us");
+				if(nanos < resultNanos) {
+					result = ii;
+					resultNanos = nanos;
+				}
+			} else if(EngineCostModel.isCandidateUseful(ii)) {
+				predictionText.append("unable");
+			} else {
+				predictionText.append("useless here");
+			}
+		}
+		aLog.println(new StringBuilder(LOG_PREFIX).append(EngineCostModel.getCandidateName(result)).append(", fastest for ")
+				.append(aTriangle.getRowCount()).append(" rows (").append(nodeCount).append(" nodes), node values from ")
+				.append(minimumNodeValue).append(" to ").append(maximumNodeValue).append(", ")
+				.append(Runtime.getRuntime().availableProcessors()).append(" processors. predicted").append(predictionText).toString());
+		return result;
+	}
+
+	private static boolean isCandidateAble(int aCandidateIndex, long aNodeCount, int aMinimumNodeValue, int aMaximumNodeValue) {
+		if(!EngineCostModel.isCandidateUseful(aCandidateIndex)) {
+			return false;
+		}
+		final DijkstraFrontierType frontierType = EngineCostModel.getCandidateFrontierType(aCandidateIndex);
+		if(null == frontierType) {
+			return true;
+		}
+		if(NodeValueStore.MAXIMUM_HEAP_NODE_COUNT < aNodeCount) {
+			return false;
+		}
+		if(DijkstraFrontierType.BUCKET_QUEUE == frontierType) {
+			return (0 <= aMinimumNodeValue) && (aMaximumNodeValue <= Math.min(BucketQueueFrontier.MAXIMUM_NODE_VALUE, aNodeCount));
+		}
+		return true;
+	}
+
+	/**
+	 * @return the model kept in the home directory, or a newly calibrated one (kept there for next time)
+	 */
+
+	private static EngineCostModel getModel(MinTrianglePathOptions anOptions, PrintStream aLog) {
+		final Path modelPath = Paths.get(System.getProperty("user.home"), MODEL_FILE_NAME);
+		EngineCostModel result = EngineCostModel.load(modelPath, anOptions);
+		if(null == result) {
+			aLog.println(new StringBuilder(LOG_PREFIX).append("measuring the engines on this host, once").toString());
+			result = EngineCostModel.calibrate(anOptions);
+			try {
+				result.store(modelPath, anOptions);
+			} catch (IOException ioex) {
+				aLog.println(new StringBuilder(LOG_PREFIX).append("can't keep the measures in ").append(modelPath).toString());
+			}
+		}
+		return result;
+	}
+
+}
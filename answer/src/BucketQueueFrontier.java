@@ -0,0 +1,136 @@
+import java.util.Arrays;
+
+/**
+ * see http://en.wikipedia.org/wiki/Dijkstra%27s_algorithm#Specialized_variants (Dial's algorithm)
+ *
+ * When the algorithm pops a node with path value d, every node in the frontier has a
+ * path value between d and d + (largest node value). So does every A* estimate (see DijkstraAlgorithm):
+ * a child's estimate exceeds its parent's by its node value minus the smallest of its row. Neither ever goes below the path
+ * value popped last, so popBest never has to look back. With small, non-negative node values
+ * we can keep one bucket per possible path value in that window, reused in a circular way,
+ * and never compare path values at all: insert and decreasePathValue are O(1) and popBest
+ * only has to walk forward to the next non-empty bucket.
+ *
+ * Each bucket is a doubly linked list threaded through int arrays indexed by node number
+ * (see Triangle.getNodeIndex), so nothing gets allocated while the algorithm runs.
+ */
+
+final class BucketQueueFrontier implements DijkstraFrontier {
+
+	/**
+	 * Node values above this make the bucket array too large to be worth it.
+	 */
+
+	/*package*/ final static int MAXIMUM_NODE_VALUE = (1 << 24) - 1;
+
+	private final static int NO_NODE = -1;
+	private final static int NO_PATH_VALUE = -1;
+
+	private final int[] iNextNodeIndexIntArray;
+	private final int[] iPreviousNodeIndexIntArray;
+	private final int[] iPathValueIntArray;
+	private int[] iBucketHeadIntArray = new int[0];
+	private int iBucketCount;
+	private int iCurrentPathValue;
+	private int iNodeCount;
+
+	/*package*/ BucketQueueFrontier(int aNodeCount) {
+		iNextNodeIndexIntArray = new int[aNodeCount];
+		iPreviousNodeIndexIntArray = new int[aNodeCount];
+		iPathValueIntArray = new int[aNodeCount];
+	}
+
+	/**
+	 * @throws IllegalArgumentException if aTriangle has a negative node value
+	 * or a node value larger than MAXIMUM_NODE_VALUE
+	 */
+
+	public void reset(Triangle aTriangle) {
+		if(0 > aTriangle.getMinimumNodeValue()) {
+			throw new IllegalArgumentException("bucket frontier can't handle negative node values");
+		}
+		final int maximumNodeValue = aTriangle.getMaximumNodeValue();
+		if(MAXIMUM_NODE_VALUE < maximumNodeValue) {
+			throw new IllegalArgumentException("bucket frontier can't handle node values above " + MAXIMUM_NODE_VALUE);
+		}
+		iBucketCount = Math.max(maximumNodeValue, 0) + 1;
+		if(iBucketHeadIntArray.length < iBucketCount) {
+			iBucketHeadIntArray = new int[iBucketCount];
+		}
+		Arrays.fill(iBucketHeadIntArray, 0, iBucketCount, NO_NODE);
+		iCurrentPathValue = NO_PATH_VALUE;
+		iNodeCount = 0;
+	}
+
+	public boolean isEmpty() {
+		return 0 == iNodeCount;
+	}
+
+	public void insert(int aNodeIndex, int aPathValue) {
+		if(NO_PATH_VALUE == iCurrentPathValue) {
+			// first node since reset: the first popBest can start right here.
+			// later on, the path value popped last stays the floor, even when the frontier is empty.
+			iCurrentPathValue = aPathValue;
+		}
+		link(aNodeIndex, aPathValue);
+		++iNodeCount;
+	}
+
+	public void decreasePathValue(int aNodeIndex, int anOldPathValue, int aNewPathValue) {
+		unlink(aNodeIndex);
+		link(aNodeIndex, aNewPathValue);
+	}
+
+	public int popBest() {
+		int bucketIndex = iCurrentPathValue % iBucketCount;
+		while(NO_NODE == iBucketHeadIntArray[bucketIndex]) {
+			++iCurrentPathValue;
+			if(++bucketIndex == iBucketCount) {
+				bucketIndex = 0;
+			}
+		}
+		final int result = iBucketHeadIntArray[bucketIndex];
+		unlink(result);
+		--iNodeCount;
+		return result;
+	}
+
+	public long getMovedByteCount() {
+		// nodes are linked and unlinked, never moved
+		return 0;
+	}
+
+	/**
+	 * adds aNodeIndex at the head of the bucket for aPathValue
+	 */
+
+	private void link(int aNodeIndex, int aPathValue) {
+		final int bucketIndex = aPathValue % iBucketCount;
+		final int headNodeIndex = iBucketHeadIntArray[bucketIndex];
+		iPathValueIntArray[aNodeIndex] = aPathValue;
+		iPreviousNodeIndexIntArray[aNodeIndex] = NO_NODE;
+		iNextNodeIndexIntArray[aNodeIndex] = headNodeIndex;
+		if(NO_NODE != headNodeIndex) {
+			iPreviousNodeIndexIntArray[headNodeIndex] = aNodeIndex;
+		}
+		iBucketHeadIntArray[bucketIndex] = aNodeIndex;
+	}
+
+	/**
+	 * removes aNodeIndex from the bucket for its current path value
+	 */
+
+	private void unlink(int aNodeIndex) {
+		final int previousNodeIndex = iPreviousNodeIndexIntArray[aNodeIndex];
+		final int nextNodeIndex = iNextNodeIndexIntArray[aNodeIndex];
+		if(NO_NODE == previousNodeIndex) {
+			iBucketHeadIntArray[iPathValueIntArray[aNodeIndex] % iBucketCount] = nextNodeIndex;
+		} else {
+			iNextNodeIndexIntArray[previousNodeIndex] = nextNodeIndex;
+		}
+		if(NO_NODE != nextNodeIndex) {
+			iPreviousNodeIndexIntArray[nextNodeIndex] = previousNodeIndex;
+		}
+	}
+
+}
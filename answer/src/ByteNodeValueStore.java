@@ -0,0 +1,82 @@
+import java.nio.ByteBuffer;
+
+/**
+ * NodeValueStore for node values from Byte.MIN_VALUE to Byte.MAX_VALUE: 1 byte per node.
+ */
+
+final class ByteNodeValueStore extends NodeValueStore {
+
+	private final byte[] iNodeValueByteArray;
+
+	/*package*/ ByteNodeValueStore(int aNodeCount) {
+		iNodeValueByteArray = new byte[aNodeCount];
+	}
+
+	/*package*/ int getValueByteCount() {
+		return Byte.BYTES;
+	}
+
+	/*package*/ long getNodeCount() {
+		return iNodeValueByteArray.length;
+	}
+
+	/*package*/ int get(long aNodeIndex) {
+		return iNodeValueByteArray[(int)aNodeIndex];
+	}
+
+	/*package*/ void set(long aNodeIndex, int aValue) {
+		iNodeValueByteArray[(int)aNodeIndex] = (byte)aValue;
+	}
+
+	/*package*/ boolean canHold(int aValue) {
+		return (Byte.MIN_VALUE <= aValue) && (Byte.MAX_VALUE >= aValue);
+	}
+
+	/*package*/ int getMinimumValue(long aNodeCount) {
+		final int nodeCount = (int)aNodeCount;
+		int result = Integer.MAX_VALUE;
+		for(int ii = 0 ; ii < nodeCount ; ++ii) {
+			if(result > iNodeValueByteArray[ii]) {
+				result = iNodeValueByteArray[ii];
+			}
+		}
+		return result;
+	}
+
+	/*package*/ int getMaximumValue(long aNodeCount) {
+		final int nodeCount = (int)aNodeCount;
+		int result = Integer.MIN_VALUE;
+		for(int ii = 0 ; ii < nodeCount ; ++ii) {
+			if(result < iNodeValueByteArray[ii]) {
+				result = iNodeValueByteArray[ii];
+			}
+		}
+		return result;
+	}
+
+	/*package*/ void getValues(long aFirstNodeIndex, int[] anIntArray, int aCount) {
+		final int firstNodeIndex = (int)aFirstNodeIndex;
+		for(int ii = 0 ; ii < aCount ; ++ii) {
+			anIntArray[ii] = iNodeValueByteArray[firstNodeIndex + ii];
+		}
+	}
+
+	/*package*/ int setValues(long aFirstNodeIndex, ByteBuffer aBuffer, int aValueByteCount) {
+		if(Byte.BYTES != aValueByteCount) {
+			return super.setValues(aFirstNodeIndex, aBuffer, aValueByteCount);
+		}
+		final int result = Math.min(aBuffer.remaining() / Byte.BYTES, (int)(iNodeValueByteArray.length - aFirstNodeIndex));
+		aBuffer.get(iNodeValueByteArray, (int)aFirstNodeIndex, result);
+		return result;
+	}
+
+	/*package*/ int getValues(long aFirstNodeIndex, ByteBuffer aBuffer, int aValueByteCount) {
+		if(Byte.BYTES != aValueByteCount) {
+			return super.getValues(aFirstNodeIndex, aBuffer, aValueByteCount);
+		}
+		final int result = Math.min(aBuffer.remaining() / Byte.BYTES, (int)(iNodeValueByteArray.length - aFirstNodeIndex));
+		aBuffer.put(iNodeValueByteArray, (int)aFirstNodeIndex, result);
+		return result;
+	}
+
+}
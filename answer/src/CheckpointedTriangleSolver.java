@@ -0,0 +1,149 @@
+import java.util.Arrays;
+
+/**
+ * Top-down dynamic programming like StreamingTriangleSolver, for triangles too large
+ * to keep even one bit per node.
+ *
+ * The input file (mapped, text or binary) is read twice:
+ * - the first pass only keeps the minimal path values of every k-th row (the checkpoints)
+ * and where the row after each checkpoint starts in the file.
+ * - the second pass goes through the segments between checkpoints, from the last one up to the first:
+ * each segment is read again from its checkpoint, keeping one bit per node of the segment this time
+ * (which parent the minimal path comes from), then the path is followed back up the segment
+ * to the node of the checkpoint row the segment above has to end on.
+ *
+ * With k = 4 * sqrt(n) for n rows, the checkpoints hold n*n/2k = n*sqrt(n)/8 ints and a segment k*n bits:
+ * both about n*sqrt(n)/2 bytes (n*sqrt(n), 350MB altogether for 500000 rows, whose node values alone
+ * take 125GB as bytes). Every row is parsed and folded twice, whatever k.
+ *
+ * Ties are broken like StreamingTriangleSolver does, so the path is the same, and it comes back
+ * the same way: node numbers and a path value.
+ */
+
+final class CheckpointedTriangleSolver {
+
+	/**
+	 * k = CHECKPOINT_INTERVAL_FACTOR * sqrt(n) makes the checkpoints and the segment bits about the same size
+	 */
+
+	private final static int CHECKPOINT_INTERVAL_FACTOR = 4;
+
+	private int iPathValue;
+	private long iStorageByteSize;
+
+	/**
+	 * Consumes all the rows of anInputProcessor, twice.
+	 *
+	 * @param anInputProcessor must read an input file, not the standard input
+	 * @return the node numbers of a minimal path, one per row, starting with the root.
+	 * empty if there was no row to read.
+	 * @throws <code>TriangleInputException</code> if a row doesn't belong to a valid <code>Triangle</code>
+	 */
+
+	/*package*/ int[] solve(TriangleInputProcessor anInputProcessor) throws TriangleInputException {
+		final int rowCount = anInputProcessor.countRows();
+		if(0 == rowCount) {
+			iPathValue = 0;
+			iStorageByteSize = 0;
+			return new int[0];
+		}
+		final int checkpointInterval = getCheckpointInterval(rowCount);
+		final int segmentCount = (rowCount + checkpointInterval - 1) / checkpointInterval;
+		// the checkpoint of a segment is the row just above it. none for the first segment.
+		final int[][] checkpointRowSumIntArrayArray = new int[segmentCount][];
+		final long[] segmentRowMarkLongArray = new long[segmentCount];
+		final int[] nodeValueIntArray = new int[rowCount];
+		int[] previousRowSumIntArray = new int[rowCount];
+		int[] currentRowSumIntArray = new int[rowCount];
+		iStorageByteSize = 3L * rowCount * Integer.BYTES;
+		for(int segment = 0 ; segment < segmentCount ; ++segment) {
+			final int firstRow = segment * checkpointInterval + 1;
+			final int lastRow = Math.min(firstRow + checkpointInterval - 1, rowCount);
+			segmentRowMarkLongArray[segment] = anInputProcessor.getRowMark();
+			if(0 < segment) {
+				checkpointRowSumIntArrayArray[segment] = Arrays.copyOf(previousRowSumIntArray, firstRow - 1);
+				iStorageByteSize += (long)(firstRow - 1) * Integer.BYTES;
+			}
+			for(int row = firstRow ; row <= lastRow ; ++row) {
+				readNextRow(anInputProcessor, row, nodeValueIntArray);
+				StreamingTriangleSolver.foldRow(row, nodeValueIntArray, previousRowSumIntArray, currentRowSumIntArray, null, 0);
+				final int[] swapIntArray = previousRowSumIntArray;
+				previousRowSumIntArray = currentRowSumIntArray;
+				currentRowSumIntArray = swapIntArray;
+			}
+		}
+		// best leaf. previousRowSumIntArray holds the last row once it has been folded
+		int nodeCoordinate = 1;
+		for(int ii = 1 ; ii < rowCount ; ++ii) {
+			if(previousRowSumIntArray[ii] < previousRowSumIntArray[nodeCoordinate - 1]) {
+				nodeCoordinate = ii + 1;
+			}
+		}
+		iPathValue = previousRowSumIntArray[nodeCoordinate - 1];
+		// one bit per node of a segment, reused from one segment to the next
+		final PackedBitSet isFromLeftParentBitSet = new PackedBitSet((long)checkpointInterval * rowCount);
+		iStorageByteSize += isFromLeftParentBitSet.getByteSize();
+		final int[] result = new int[rowCount];
+		for(int segment = segmentCount - 1 ; segment >= 0 ; --segment) {
+			final int firstRow = segment * checkpointInterval + 1;
+			final int lastRow = Math.min(firstRow + checkpointInterval - 1, rowCount);
+			final long segmentBitIndex = Triangle.getNodeCount(firstRow - 1);
+			anInputProcessor.seekRow(segmentRowMarkLongArray[segment], firstRow - 1);
+			if(0 < segment) {
+				System.arraycopy(checkpointRowSumIntArrayArray[segment], 0, previousRowSumIntArray, 0, firstRow - 1);
+				checkpointRowSumIntArrayArray[segment] = null;
+			}
+			for(int row = firstRow ; row <= lastRow ; ++row) {
+				readNextRow(anInputProcessor, row, nodeValueIntArray);
+				StreamingTriangleSolver.foldRow(row, nodeValueIntArray, previousRowSumIntArray, currentRowSumIntArray,
+						isFromLeftParentBitSet, Triangle.getNodeCount(row - 1) - segmentBitIndex);
+				final int[] swapIntArray = previousRowSumIntArray;
+				previousRowSumIntArray = currentRowSumIntArray;
+				currentRowSumIntArray = swapIntArray;
+			}
+			// up the segment. the bit of its first row gives the node the segment above ends on
+			for(int row = lastRow ; row >= firstRow ; --row) {
+				result[row - 1] = nodeCoordinate;
+				if((1 < row) && isFromLeftParentBitSet.get(Triangle.getNodeCount(row - 1) - segmentBitIndex + nodeCoordinate - 1)) {
+					--nodeCoordinate;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the value of the path returned by the last call to solve
+	 */
+
+	/*package*/ int getPathValue() {
+		return iPathValue;
+	}
+
+	/**
+	 * @return bytes used by the row buffers, the checkpoints and the segment bits during the last call to solve
+	 */
+
+	/*package*/ long getStorageByteSize() {
+		return iStorageByteSize;
+	}
+
+	/**
+	 * @return number of rows between 2 checkpoints for a triangle of aRowCount rows
+	 */
+
+	/*package*/ static int getCheckpointInterval(int aRowCount) {
+		return Math.max(1, Math.min(aRowCount, (int)Math.ceil(CHECKPOINT_INTERVAL_FACTOR * Math.sqrt(aRowCount))));
+	}
+
+	/**
+	 * @throws <code>TriangleInputException</code> if the input ends before aRowCount, which countRows said was there
+	 */
+
+	private static void readNextRow(TriangleInputProcessor anInputProcessor, int aRowCount, int[] aNodeValueIntArray) throws TriangleInputException {
+		if(!anInputProcessor.readNextRow(aNodeValueIntArray)) {
+			throw new TriangleInputException(TriangleInputException.BAD_LINE, aRowCount);
+		}
+	}
+
+}
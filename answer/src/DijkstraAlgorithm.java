@@ -8,195 +8,277 @@
  * another step afterwards to reverse-engineer the minimal path from that information
  * (find a leaf with a minimal path and travel back up the triangle to the root)
  * 
+ * see http://en.wikipedia.org/wiki/A*_search_algorithm for the goal-directed mode:
+ * - the frontier is ordered by path value + node value + a lower bound of what the rows below add:
+ * the sum of their minimal node values. A leaf is ordered by its exact path value.
+ * - the bound never overestimates and goes down by at most a node value from one row to the next,
+ * so the first leaf to become final has a minimal path and the search stops right there.
+ * - the less the cheap nodes are spread over the triangle (i.e. skewed node values), the fewer nodes get finalized.
+ *
+ * Negative node values:
+ * - a path can get cheaper further down, so ordering by path value alone would finalize some nodes
+ * before their minimal path reaches them.
+ * - the A* estimate of a child exceeds the one of its parent by its node value minus the smallest of its row,
+ * never less than 0, which is all Dijkstra needs. So a triangle with a negative node value is ordered by the estimate
+ * in both modes, the plain one still going on until every leaf is final.
  */
 
 
-final class DijkstraAlgorithm {
+final class DijkstraAlgorithm implements TriangleSolver {
+
+	private final static int ROOT_NODE_INDEX = 0;
 
 	/**
-	 * Neighbour nodes are stored in arrays large enough to contain all the nodes in the triangle.
-	 * 
-	 * This clearly wastes memory but the hope is that, on a modern CPU with a decent amount of cache,
-	 * using System.arraycopy to keep the arrays sorted will be faster (or at least fast enough for up to 500 rows)
-	 * than manipulating a Fibonacci heap (the usually preferred way of keeping track of neighbouring nodes)
-	 * and the many cache-miss we expect it involves.
-	 * 
+	 * The neighbour nodes (nodes reached but not final yet) are kept in a DijkstraFrontier.
+	 * see SortedArrayFrontier for the original, contiguous memory experiment.
+	 */
+
+	private final DijkstraFrontier iFrontier;
+
+	/**
+	 * finds the row of a popped node without the square root of Triangle.getRowCoordinate:
+	 * iBlockRowIntArray[i] is the row of node index i * ROW_BLOCK_NODE_COUNT, and the row of a node is found by stepping
+	 * down from the row of its block with iRowStartIndexIntArray[r], the node index of the first node of row r
+	 * (row numbers from 1, see Triangle.getNodeIndex). From row ROW_BLOCK_NODE_COUNT on, that is at most a step.
+	 * Together they take an int per ROW_BLOCK_NODE_COUNT nodes, plus an int per row.
+	 */
+
+	private final static int ROW_BLOCK_SHIFT = 8;
+	private final static int ROW_BLOCK_NODE_COUNT = 1 << ROW_BLOCK_SHIFT;
+
+	private final int[] iBlockRowIntArray;
+	private final int[] iRowStartIndexIntArray;
+
+	/**
+	 * where travelBackFromMinimalLeafToRoot stores the path, filled from the leaf up.
+	 */
+
+	private final int[] iPathNodeValueIntArray;
+
+	/**
+	 * iBelowRowBoundIntArray[r] is the sum of the minimal node values of the rows below row r (row numbers from 1).
+	 * iRowNodeValueIntArray is where the node values of a row go while looking for the minimal one.
+	 * isEstimateOrdered tells whether the last runAlgorithm ordered the frontier by the A* estimate:
+	 * in goal-directed mode, and for triangles with a negative node value.
+	 */
+
+	private final int[] iBelowRowBoundIntArray;
+	private final int[] iRowNodeValueIntArray;
+	private final boolean isGoalDirected;
+	private boolean isEstimateOrdered;
+
+	/**
+	 * what the last runAlgorithm did, for reportStatistics.
+	 * the frontier size is the number of nodes inserted but not finalized yet.
 	 */
 
-	private final int[] iNeighbourRowCoordinateIntArray;
-	private final int[] iNeighbourNodeCoordinateIntArray;
-	private int iNeighbourNodeCount;
+	private long iFinalizedNodeCount;
+	private long iInsertCount;
+	private long iDecreaseCount;
+	private long iFrontierPeakSize;
+	private long iTraceBackNanos;
+
+	/**
+	 * node numbers of the path the last runAlgorithm returned, for getNodeNumberPath
+	 */
+
+	private int[] iNodeNumberPath = new int[0];
 
 	/*package*/ DijkstraAlgorithm(int aRowCount) {
-		final int nodeCount = aRowCount * (aRowCount + 1) / 2 ;
-		iNeighbourRowCoordinateIntArray = new int[nodeCount];
-		iNeighbourNodeCoordinateIntArray = new int[nodeCount];
+		this(aRowCount, DijkstraFrontierType.SORTED_ARRAY);
+	}
+
+	/**
+	 * @throws IllegalArgumentException if aRowCount is too large for the frontiers, which number nodes with an int
+	 */
+
+	/*package*/ DijkstraAlgorithm(int aRowCount, DijkstraFrontierType aFrontierType) {
+		this(aRowCount, aFrontierType, false);
 	}
 
 	/**
-	 * Overwrites the content of iNeighbourNodeCoordinateIntArray
+	 * @param aIsGoalDirected true for the A* mode, which stops at the first final leaf
+	 * @throws IllegalArgumentException if aRowCount is too large for the frontiers, which number nodes with an int
+	 */
+
+	/*package*/ DijkstraAlgorithm(int aRowCount, DijkstraFrontierType aFrontierType, boolean aIsGoalDirected) {
+		final long nodeCount = Triangle.getNodeCount(aRowCount);
+		if(NodeValueStore.MAXIMUM_HEAP_NODE_COUNT < nodeCount) {
+			throw new IllegalArgumentException("Too many rows for the Dijkstra engine: " + aRowCount + ". use --engine=dp");
+		}
+		iFrontier = aFrontierType.makeFrontier((int)nodeCount);
+		iRowStartIndexIntArray = new int[aRowCount + 2];
+		for(int row = 1 ; row <= aRowCount + 1 ; ++row) {
+			iRowStartIndexIntArray[row] = (int)Triangle.getNodeCount(row - 1);
+		}
+		iBlockRowIntArray = new int[(int)((nodeCount + ROW_BLOCK_NODE_COUNT - 1) >>> ROW_BLOCK_SHIFT)];
+		int row = 1;
+		for(int ii = 0 ; ii < iBlockRowIntArray.length ; ++ii) {
+			while((long)ii * ROW_BLOCK_NODE_COUNT >= iRowStartIndexIntArray[row + 1]) {
+				++row;
+			}
+			iBlockRowIntArray[ii] = row;
+		}
+		iPathNodeValueIntArray = new int[aRowCount];
+		iBelowRowBoundIntArray = new int[aRowCount + 1];
+		iRowNodeValueIntArray = new int[aRowCount];
+		isGoalDirected = aIsGoalDirected;
+	}
+
+	/**
+	 * Resets the frontier
 	 * 
 	 * @return an int[] containing the node values of a minimal path to a leaf in aTriangle 
 	 */
 
-	/*package*/ int[] runAlgorithm(Triangle aTriangle) {
+	public int[] runAlgorithm(Triangle aTriangle) {
 		// initialize the triangle root
-		iNeighbourRowCoordinateIntArray[0]=1;
-		iNeighbourNodeCoordinateIntArray[0]=1;
-		iNeighbourNodeCount = 1;
+		iFrontier.reset(aTriangle);
+		final int minimumNodeValue = computeBelowRowBounds(aTriangle);
+		isEstimateOrdered = isGoalDirected || (0 > minimumNodeValue);
+		iFrontier.insert(ROOT_NODE_INDEX, getFrontierValue(aTriangle, ROOT_NODE_INDEX, 1, 0));
+		iFinalizedNodeCount = 0;
+		iInsertCount = 1;
+		iDecreaseCount = 0;
+		iFrontierPeakSize = 1;
 		int visitedTargetCount = 0; // we stop when we have a minimal path for all the leafs.
-		aTriangle.setNodePathValue(1, 1, 0);
-		// 2 coordinates per node
-		final int[] neighbourCoordinateIntArray = new int[2 * aTriangle.getAdjacentNodeArrayMaximumLength()];
-		final int[] coordinateIntArray = new int[2];
+		aTriangle.setNodePathValue(ROOT_NODE_INDEX, 0);
+		final int rowCount = aTriangle.getRowCount();
+		final int firstLeafIndex = Triangle.getNodeIndex(rowCount, 1);
+		int minimalLeafIndex = -1; // only known before the trace-back in goal-directed mode
 		// Dijkstra loop
-		while((visitedTargetCount < aTriangle.getRowCount()) && (0 < iNeighbourNodeCount)) {
-			popBestNeighbourCoordinates(coordinateIntArray);
+		while((visitedTargetCount < rowCount) && !iFrontier.isEmpty()) {
 			// it was a neighbour. it is now the current node.
-			final int currentPathValue = aTriangle.getNodePathValue(coordinateIntArray[0], coordinateIntArray[1]);
-			final int neighbourCoordinateCount = aTriangle.getAdjacentNodeCoordinates(coordinateIntArray[0], coordinateIntArray[1], false, neighbourCoordinateIntArray);
-			final int currentNodeValue = aTriangle.getNodeValue(coordinateIntArray[0], coordinateIntArray[1]);
-			for(int ii = 0 ; ii < neighbourCoordinateCount * 2 ; ++ii) {
-				final int neighbourRowCoordinate = neighbourCoordinateIntArray[ii];
-				final int neighbourNodeCoordinate = neighbourCoordinateIntArray[++ii];
-				final int neighbourPathValue = aTriangle.getNodePathValue(neighbourRowCoordinate, neighbourNodeCoordinate);
-				final int tentativePathValue = currentPathValue + currentNodeValue;
-				if(tentativePathValue < neighbourPathValue) {
-					if(Integer.MAX_VALUE != neighbourPathValue) { // first time we examine the neighbour
-						removeFromNeighbouringNodes(aTriangle, neighbourRowCoordinate, neighbourNodeCoordinate, neighbourPathValue);
-					}
-					insertIntoNeighbouringNodes(aTriangle, neighbourRowCoordinate, neighbourNodeCoordinate, tentativePathValue);
-					aTriangle.setNodePathValue(neighbourRowCoordinate, neighbourNodeCoordinate, tentativePathValue);
-				}
-			}
-			aTriangle.setNodeIsFinal(coordinateIntArray[0], coordinateIntArray[1]);
-			if(coordinateIntArray[0] == aTriangle.getRowCount()) { // current node is a leaf
+			final int nodeIndex = iFrontier.popBest();
+			if(nodeIndex >= firstLeafIndex) { // current node is a leaf
 				++visitedTargetCount;
-			}
-		}
-		return travelBackFromMinimalLeafToRoot(aTriangle);
-	}
-
-	/**
-	 * Overwrites the content of iNeighbourNodeCoordinateIntArray
-	 */
-	private int[] travelBackFromMinimalLeafToRoot(Triangle aTriangle) {
-		// find path from best leaf to root.
-		// we can store it in iValueOrderedAdjacentNodeArray since we don't need it anymore
-		final int[] adjacentCoordinateArray = new int[2 * aTriangle.getAdjacentNodeArrayMaximumLength()];
-		final int[] currentCoordinate = new int[2];
-		currentCoordinate[0] = aTriangle.getRowCount();
-		currentCoordinate[1] = aTriangle.getMinimalPathValueLeafCoordinate();
-		int pathNodeCount = 0;
-		iNeighbourNodeCoordinateIntArray[pathNodeCount++] = aTriangle.getNodeValue(currentCoordinate[0], currentCoordinate[1]);
-		int pathValue = aTriangle.getNodePathValue(currentCoordinate[0], currentCoordinate[1]);
-		while(0 < pathValue) {
-			final int coordinateCount = aTriangle.getAdjacentNodeCoordinates(currentCoordinate[0], currentCoordinate[1], true, adjacentCoordinateArray);
-			boolean foundPreviousNode = false;
-			for(int ii = 0 ; !foundPreviousNode && (ii < coordinateCount * 2) ; ++ii) {
-				final int adjacentRow = adjacentCoordinateArray[ii];
-				final int adjacentNode = adjacentCoordinateArray[++ii];
-				final int adjacentNodeValue = aTriangle.getNodeValue(adjacentRow, adjacentNode);
-				final int adjacentPathValue = aTriangle.getNodePathValue(adjacentRow, adjacentNode);
-				if(pathValue - adjacentNodeValue == adjacentPathValue) {
-					foundPreviousNode = true;
-					currentCoordinate[0] = adjacentRow;
-					currentCoordinate[1] = adjacentNode;
-					pathValue = adjacentPathValue;
-					iNeighbourNodeCoordinateIntArray[pathNodeCount++] = aTriangle.getNodeValue(adjacentRow, adjacentNode);
+				if(isGoalDirected) {
+					// no other leaf can do better
+					minimalLeafIndex = nodeIndex;
+					visitedTargetCount = rowCount;
+				}
+			} else {
+				final int tentativePathValue = aTriangle.getNodePathValue(nodeIndex) + aTriangle.getNodeValue(nodeIndex);
+				int row = iBlockRowIntArray[nodeIndex >>> ROW_BLOCK_SHIFT];
+				while(nodeIndex >= iRowStartIndexIntArray[row + 1]) {
+					++row;
 				}
+				final int leftChildIndex = Triangle.getLeftChildIndex(nodeIndex, row);
+				relaxNode(aTriangle, leftChildIndex, row + 1, tentativePathValue);
+				relaxNode(aTriangle, leftChildIndex + 1, row + 1, tentativePathValue);
 			}
+			aTriangle.setNodeIsFinal(nodeIndex);
+			++iFinalizedNodeCount;
 		}
-		// reverse path into a new, smaller array
-		final int[] result = new int[pathNodeCount];
-		for(int ii = pathNodeCount ; ii > 0 ; --ii) {
-			result[pathNodeCount - ii] = iNeighbourNodeCoordinateIntArray[ii-1];
+		final long traceBackStartTime = System.nanoTime();
+		if(0 > minimalLeafIndex) {
+			minimalLeafIndex = aTriangle.getMinimalPathValueLeafIndex();
 		}
+		final int[] result = travelBackFromMinimalLeafToRoot(aTriangle, minimalLeafIndex);
+		iTraceBackNanos = System.nanoTime() - traceBackStartTime;
 		return result;
 	}
 
 	/**
-	 * @param aPathValue used to keep the neighbouring nodes sorted.
+	 * gives aTentativePathValue to the child aNodeIndex (on row aRow) of the current node, if it is better than the one it has
 	 */
-	private void removeFromNeighbouringNodes(Triangle aTriangle, int aRowCoordinate, int aNodeCoordinate, int aPathValue) {
-		final int pathValueIndex = findIndex(aTriangle, aPathValue);
-		boolean isFoundNeighbour = false;
-		// look for specific neighbour, by its coordinates, from the index for a node with the correct path value
-		for (int ii = pathValueIndex ; !isFoundNeighbour && (ii < iNeighbourNodeCount) && (aPathValue == aTriangle.getNodePathValue(iNeighbourRowCoordinateIntArray[ii], iNeighbourNodeCoordinateIntArray[ii])) ; ++ii) {
-			if((iNeighbourRowCoordinateIntArray[ii] == aRowCoordinate) && (iNeighbourNodeCoordinateIntArray[ii] == aNodeCoordinate)) {
-				isFoundNeighbour = true;
-				System.arraycopy(iNeighbourRowCoordinateIntArray, ii + 1, iNeighbourRowCoordinateIntArray, ii, iNeighbourNodeCount - ii - 1);
-				System.arraycopy(iNeighbourNodeCoordinateIntArray, ii + 1, iNeighbourNodeCoordinateIntArray, ii, iNeighbourNodeCount - ii - 1);
-				--iNeighbourNodeCount;
-			}
+
+	private void relaxNode(Triangle aTriangle, int aNodeIndex, int aRow, int aTentativePathValue) {
+		if(aTriangle.isNodeFinal(aNodeIndex)) {
+			return;
 		}
-		// if necessary, look before the same index as long as the path value is correct.
-		for (int jj = pathValueIndex - 1 ; !isFoundNeighbour &&(0 <= jj) && (aPathValue == aTriangle.getNodePathValue(iNeighbourRowCoordinateIntArray[jj], iNeighbourNodeCoordinateIntArray[jj])) ; --jj) {
-			if((iNeighbourRowCoordinateIntArray[jj] == aRowCoordinate) && (iNeighbourNodeCoordinateIntArray[jj] == aNodeCoordinate)) {
-				isFoundNeighbour = true;
-				System.arraycopy(iNeighbourRowCoordinateIntArray, jj + 1, iNeighbourRowCoordinateIntArray, jj, iNeighbourNodeCount - jj - 1);
-				System.arraycopy(iNeighbourNodeCoordinateIntArray, jj + 1, iNeighbourNodeCoordinateIntArray, jj, iNeighbourNodeCount - jj - 1);
-				--iNeighbourNodeCount;
+		final int pathValue = aTriangle.getNodePathValue(aNodeIndex);
+		if(aTentativePathValue < pathValue) {
+			if(Integer.MAX_VALUE == pathValue) { // first time we examine the node
+				iFrontier.insert(aNodeIndex, getFrontierValue(aTriangle, aNodeIndex, aRow, aTentativePathValue));
+				if(++iInsertCount - iFinalizedNodeCount > iFrontierPeakSize) {
+					iFrontierPeakSize = iInsertCount - iFinalizedNodeCount;
+				}
+			} else {
+				iFrontier.decreasePathValue(aNodeIndex, getFrontierValue(aTriangle, aNodeIndex, aRow, pathValue),
+						getFrontierValue(aTriangle, aNodeIndex, aRow, aTentativePathValue));
+				++iDecreaseCount;
 			}
+			aTriangle.setNodePathValue(aNodeIndex, aTentativePathValue);
 		}
 	}
 
 	/**
-	 * @param aPathValue used to keep the neighbouring nodes sorted.
+	 * @return what the frontier orders aNodeIndex (on row aRow) by, for a path value of aPathValue:
+	 * the path value itself, or the A* estimate of the whole path in goal-directed mode
 	 */
-	private void insertIntoNeighbouringNodes(Triangle aTriangle, int aRowCoordinate, int aNodeCoordinate, int aPathValue) {
-		final int pathValueIndex = findIndex(aTriangle, aPathValue);
-		System.arraycopy(iNeighbourRowCoordinateIntArray, pathValueIndex, iNeighbourRowCoordinateIntArray, pathValueIndex +1, iNeighbourNodeCount - pathValueIndex);
-		System.arraycopy(iNeighbourNodeCoordinateIntArray, pathValueIndex, iNeighbourNodeCoordinateIntArray, pathValueIndex +1, iNeighbourNodeCount - pathValueIndex);
-		++iNeighbourNodeCount;
-		iNeighbourRowCoordinateIntArray[pathValueIndex] = aRowCoordinate;
-		iNeighbourNodeCoordinateIntArray[pathValueIndex] = aNodeCoordinate;
+
+	private int getFrontierValue(Triangle aTriangle, int aNodeIndex, int aRow, int aPathValue) {
+		if(!isEstimateOrdered) {
+			return aPathValue;
+		}
+		return aPathValue + aTriangle.getNodeValue(aNodeIndex) + iBelowRowBoundIntArray[aRow];
 	}
 
 	/**
-	 * binary search for the coordinates of a neighbouring node with a given path value
-	 * 
-	 * @return an index in iNeighbourRowCoordinateIntArray and iNeighbourNodeCoordinateIntArray where such coordinates are
-	 * or the index where we can insert them if no such coordinate exists.
-	 * 
-	 * */
-
-    private int findIndex(Triangle aTriangle, int aPathValueTarget) {
-		int searchAreaBeginIndex = 0;
-		int searchAreaEndIndex = iNeighbourNodeCount - 1;
-		int result = searchAreaBeginIndex;
-		boolean isFoundValue = false;
-		while (!isFoundValue && searchAreaBeginIndex <= searchAreaEndIndex) {
-			result = searchAreaBeginIndex + (searchAreaEndIndex - searchAreaBeginIndex) / 2;
-			int midVal = aTriangle.getNodePathValue(iNeighbourRowCoordinateIntArray[result], iNeighbourNodeCoordinateIntArray[result]);
-
-			if (midVal < aPathValueTarget)
-				searchAreaBeginIndex = result + 1;
-			else if (midVal > aPathValueTarget)
-				searchAreaEndIndex = result - 1;
-			else
-				isFoundValue = true;
-		}
-		if(!isFoundValue) {
-			result = searchAreaBeginIndex;
+	 * fills iBelowRowBoundIntArray for aTriangle, going up from the leaves
+	 *
+	 * @return the smallest node value of aTriangle. Integer.MAX_VALUE for an empty triangle.
+	 */
+
+	private int computeBelowRowBounds(Triangle aTriangle) {
+		final int rowCount = aTriangle.getRowCount();
+		int result = Integer.MAX_VALUE;
+		iBelowRowBoundIntArray[rowCount] = 0;
+		for(int row = rowCount ; row > 0 ; --row) {
+			aTriangle.getRowNodeValues(row, iRowNodeValueIntArray);
+			int minimalNodeValue = iRowNodeValueIntArray[0];
+			for(int ii = 1 ; ii < row ; ++ii) {
+				minimalNodeValue = Math.min(minimalNodeValue, iRowNodeValueIntArray[ii]);
+			}
+			iBelowRowBoundIntArray[row - 1] = iBelowRowBoundIntArray[row] + minimalNodeValue;
+			result = Math.min(result, minimalNodeValue);
 		}
 		return result;
-    }
+	}
+
+	public int[] getNodeNumberPath() {
+		return iNodeNumberPath;
+	}
+
+	public void reportStatistics(SolveStatistics aStatistics) {
+		aStatistics.addPhaseNanos(SolveStatistics.Phase.TRACE_BACK, iTraceBackNanos);
+		aStatistics.addDijkstraCounts(iFinalizedNodeCount, iInsertCount, iDecreaseCount, iFrontierPeakSize, iFrontier.getMovedByteCount());
+	}
 
 	/**
-	 * 
-	 * Extracts the unvisited neighbour with the minimal tentative path value
-	 * from iNeighbourRowCoordinateIntArray and iNeighbourNodeCoordinateIntArray
-	 * 
-	 * @param aCoordinateIntArray where the neighbour coordinates are stored
+	 * Overwrites the content of iPathNodeValueIntArray, and replaces iNodeNumberPath
+	 *
+	 * Goes up one row at a time, to the final parent the path value of the current node came from.
+	 * Counting rows rather than waiting for a path value of 0 keeps the root when there are
+	 * zero (or negative) node values on the way.
+	 *
+	 * @param aMinimalLeafIndex node index of a leaf with a minimal path
 	 */
-
-    private void popBestNeighbourCoordinates(int[] aCoordinateIntArray) {
-		aCoordinateIntArray[0] = iNeighbourRowCoordinateIntArray[0];
-		aCoordinateIntArray[1] = iNeighbourNodeCoordinateIntArray[0];
-		--iNeighbourNodeCount;
-		System.arraycopy(iNeighbourRowCoordinateIntArray, 1, iNeighbourRowCoordinateIntArray, 0, iNeighbourNodeCount);
-		System.arraycopy(iNeighbourNodeCoordinateIntArray, 1, iNeighbourNodeCoordinateIntArray, 0, iNeighbourNodeCount);
+	private int[] travelBackFromMinimalLeafToRoot(Triangle aTriangle, int aMinimalLeafIndex) {
+		// find path from best leaf to root.
+		final int rowCount = aTriangle.getRowCount();
+		int nodeIndex = aMinimalLeafIndex;
+		iNodeNumberPath = new int[rowCount];
+		for(int row = rowCount ; row > 1 ; --row) {
+			iPathNodeValueIntArray[row - 1] = aTriangle.getNodeValue(nodeIndex);
+			iNodeNumberPath[row - 1] = nodeIndex - Triangle.getNodeIndex(row, 1) + 1;
+			final int pathValue = aTriangle.getNodePathValue(nodeIndex);
+			final int leftParentIndex = Triangle.getLeftParentIndex(nodeIndex, row);
+			// the first node of a row has no parent above, left
+			final boolean hasLeftParent = nodeIndex > Triangle.getNodeIndex(row, 1);
+			if(hasLeftParent && aTriangle.isNodeFinal(leftParentIndex)
+					&& (pathValue == aTriangle.getNodePathValue(leftParentIndex) + aTriangle.getNodeValue(leftParentIndex))) {
+				nodeIndex = leftParentIndex;
+			} else {
+				nodeIndex = leftParentIndex + 1;
+			}
+		}
+		iPathNodeValueIntArray[0] = aTriangle.getNodeValue(nodeIndex);
+		iNodeNumberPath[0] = 1;
+		final int[] result = new int[rowCount];
+		System.arraycopy(iPathNodeValueIntArray, 0, result, 0, rowCount);
+		return result;
 	}
 
 }
@@ -0,0 +1,49 @@
+
+/**
+ * The frontier of the Dijkstra algorithm: the nodes that have been reached
+ * but don't have a final path value yet, ordered by their tentative path value
+ * (or by the A* estimate of the whole path, see DijkstraAlgorithm).
+ *
+ * Nodes are identified by their node index (see Triangle.getNodeIndex): one int per entry.
+ */
+
+interface DijkstraFrontier {
+
+	/**
+	 * Empties the frontier before running the algorithm on aTriangle.
+	 * aTriangle must have at most as many nodes as the frontier was made for.
+	 */
+
+	void reset(Triangle aTriangle);
+
+	boolean isEmpty();
+
+	/**
+	 * Adds a node that wasn't part of the frontier yet.
+	 */
+
+	void insert(int aNodeIndex, int aPathValue);
+
+	/**
+	 * Moves a node already part of the frontier to a smaller tentative path value.
+	 *
+	 * @param anOldPathValue the path value the node was inserted with, or last decreased to.
+	 */
+
+	void decreasePathValue(int aNodeIndex, int anOldPathValue, int aNewPathValue);
+
+	/**
+	 * Extracts the node with the minimal tentative path value from the frontier
+	 *
+	 * @return the node index of that node
+	 */
+
+	int popBest();
+
+	/**
+	 * @return number of bytes moved by System.arraycopy since the last reset. 0 if the frontier never moves entries in bulk.
+	 */
+
+	long getMovedByteCount();
+
+}
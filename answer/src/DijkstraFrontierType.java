@@ -0,0 +1,64 @@
+
+/**
+ * The DijkstraFrontier implementations DijkstraAlgorithm can use,
+ * each with the name used to pick it on the command line.
+ */
+
+enum DijkstraFrontierType {
+
+	SORTED_ARRAY("sorted") {
+		/*package*/ DijkstraFrontier makeFrontier(int aNodeCount) {
+			return new SortedArrayFrontier(aNodeCount);
+		}
+	},
+
+	BINARY_HEAP("heap") {
+		/*package*/ DijkstraFrontier makeFrontier(int aNodeCount) {
+			return new IndexedHeapFrontier(aNodeCount, IndexedHeapFrontier.BINARY_HEAP_ARITY);
+		}
+	},
+
+	QUATERNARY_HEAP("heap4") {
+		/*package*/ DijkstraFrontier makeFrontier(int aNodeCount) {
+			return new IndexedHeapFrontier(aNodeCount, IndexedHeapFrontier.QUATERNARY_HEAP_ARITY);
+		}
+	},
+
+	BUCKET_QUEUE("bucket") {
+		/*package*/ DijkstraFrontier makeFrontier(int aNodeCount) {
+			return new BucketQueueFrontier(aNodeCount);
+		}
+	};
+
+	private final String iCommandLineName;
+
+	private DijkstraFrontierType(String aCommandLineName) {
+		iCommandLineName = aCommandLineName;
+	}
+
+	/*package*/ String getCommandLineName() {
+		return iCommandLineName;
+	}
+
+	/**
+	 * @return a new, empty DijkstraFrontier able to hold up to aNodeCount nodes
+	 */
+
+	/*package*/ abstract DijkstraFrontier makeFrontier(int aNodeCount);
+
+	/**
+	 * @return the DijkstraFrontierType called aCommandLineName, or null if there is no such type
+	 */
+
+	/*package*/ static DijkstraFrontierType fromCommandLineName(String aCommandLineName) {
+		DijkstraFrontierType result = null;
+		final DijkstraFrontierType[] typeArray = values();
+		for(int ii = 0 ; null == result && ii < typeArray.length ; ++ii) {
+			if(typeArray[ii].iCommandLineName.equals(aCommandLineName)) {
+				result = typeArray[ii];
+			}
+		}
+		return result;
+	}
+
+}
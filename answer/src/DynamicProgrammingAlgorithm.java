@@ -0,0 +1,122 @@
+/*
+ * see http://en.wikipedia.org/wiki/Dynamic_programming
+ *
+ * Bottom-up version of the exercise:
+ * - start from the leaf row: the minimal path from a leaf to a leaf is the leaf itself.
+ * - the minimal path from any other node is its node value plus the best of the minimal paths
+ * from its 2 children.
+ * - fold the rows upward, one at a time, into a single row-sized buffer until only the root is left.
+ *
+ * Every node is visited exactly once so the algorithm is O(n) in the number of nodes,
+ * with no sorting of any kind.
+ *
+ * The buffer alone can't tell us which way the minimal path goes, so we also remember,
+ * for each node, which child was picked (1 bit per node). Once the root is reached
+ * we travel back down the triangle following those bits.
+ *
+ */
+
+
+final class DynamicProgrammingAlgorithm implements TriangleSolver {
+
+	/**
+	 * iRowSumIntArray[ii] is the value of the minimal path from node (ii+1) of the row
+	 * being folded down to a leaf.
+	 */
+
+	private final int[] iRowSumIntArray;
+
+	/**
+	 * one bit per node, set when the minimal path from that node goes through its right child.
+	 * bits are indexed like the nodes inside Triangle: row after row, starting at the root.
+	 */
+
+	private final PackedBitSet iIsRightChildBitSet;
+
+	/**
+	 * time the last runAlgorithm spent following iIsRightChildBitSet, for reportStatistics
+	 */
+
+	private long iTraceBackNanos;
+
+	/**
+	 * node numbers of the path the last runAlgorithm returned, for getNodeNumberPath
+	 */
+
+	private int[] iNodeNumberPath = new int[0];
+
+	/*package*/ DynamicProgrammingAlgorithm(int aRowCount) {
+		iRowSumIntArray = new int[aRowCount];
+		iIsRightChildBitSet = new PackedBitSet(((long)aRowCount * (aRowCount + 1)) / 2);
+	}
+
+	/**
+	 * Overwrites the content of iRowSumIntArray and iIsRightChildBitSet
+	 *
+	 * @return an int[] containing the node values of a minimal path to a leaf in aTriangle
+	 */
+
+	public int[] runAlgorithm(Triangle aTriangle) {
+		final int rowCount = aTriangle.getRowCount();
+		if(0 == rowCount) {
+			iNodeNumberPath = new int[0];
+			return new int[0];
+		}
+		// the leaf row is its own minimal path
+		for(int ii = 0 ; ii < rowCount ; ++ii) {
+			iRowSumIntArray[ii] = aTriangle.getNodeValue(rowCount, ii + 1);
+		}
+		// fold every other row into the buffer, from the bottom up.
+		// row r begins at bit index r*(r-1)/2
+		for(int row = rowCount - 1 ; row > 0 ; --row) {
+			final long rowBitIndex = ((long)row * (row - 1)) / 2;
+			for(int ii = 0 ; ii < row ; ++ii) {
+				final int leftSum = iRowSumIntArray[ii];
+				final int rightSum = iRowSumIntArray[ii + 1];
+				final boolean isRightChild = rightSum < leftSum;
+				iIsRightChildBitSet.set(rowBitIndex + ii, isRightChild);
+				iRowSumIntArray[ii] = aTriangle.getNodeValue(row, ii + 1) + (isRightChild ? rightSum : leftSum);
+			}
+		}
+		final long traceBackStartTime = System.nanoTime();
+		iNodeNumberPath = new int[rowCount];
+		final int[] result = travelDownFromRootToLeaf(aTriangle, iIsRightChildBitSet, iNodeNumberPath);
+		iTraceBackNanos = System.nanoTime() - traceBackStartTime;
+		return result;
+	}
+
+	public int[] getNodeNumberPath() {
+		return iNodeNumberPath;
+	}
+
+	public void reportStatistics(SolveStatistics aStatistics) {
+		aStatistics.addPhaseNanos(SolveStatistics.Phase.TRACE_BACK, iTraceBackNanos);
+	}
+
+	/**
+	 * @param anIsRightChildBitSet one bit per node, set when the minimal path from that node goes through its right child
+	 * @param aNodeNumberPath where the second coordinate of each node met goes, one per row. null if not needed.
+	 * @return the node values met while following anIsRightChildBitSet from the root to a leaf
+	 */
+
+	/*package*/ static int[] travelDownFromRootToLeaf(Triangle aTriangle, PackedBitSet anIsRightChildBitSet, int[] aNodeNumberPath) {
+		final int rowCount = aTriangle.getRowCount();
+		final int[] result = new int[rowCount];
+		int nodeCoordinate = 1;
+		result[0] = aTriangle.getNodeValue(1, 1);
+		if(null != aNodeNumberPath) {
+			aNodeNumberPath[0] = nodeCoordinate;
+		}
+		for(int row = 1 ; row < rowCount ; ++row) {
+			if(anIsRightChildBitSet.get(((long)row * (row - 1)) / 2 + nodeCoordinate - 1)) {
+				++nodeCoordinate;
+			}
+			result[row] = aTriangle.getNodeValue(row + 1, nodeCoordinate);
+			if(null != aNodeNumberPath) {
+				aNodeNumberPath[row] = nodeCoordinate;
+			}
+		}
+		return result;
+	}
+
+}
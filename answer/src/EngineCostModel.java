@@ -0,0 +1,308 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+/**
+ * EngineCostModel predicts how long each candidate engine takes to solve a triangle,
+ * as a fixed cost plus a cost per node (solver allocation included). The cost per node changes with the range
+ * of the node values: by so much per bit the range needs, from the 7 bits of the 0 to 99 calibration values.
+ *
+ * The costs are measured once per host by calibrate: every candidate solves generated triangles
+ * of 2 sizes with node values from 0 to 99, and the large one again with skewed values from 0 to 65535
+ * (mostly small ones, as in real inputs with a wide range). The fastest of a few runs is kept,
+ * a line goes through the 2 sizes, and the skewed run gives the cost per bit of range.
+ * MinTrianglePath solves a single triangle per JVM, before the JIT is done with the engine,
+ * so what the very first run of a candidate takes on top of the later ones is added to its fixed cost.
+ * Every candidate solves a tiny triangle before anything is timed, so that the first one measured
+ * doesn't take the loading of the code they all share (Triangle, PackedBitSet...) as its own.
+ * Candidates no better than another one on the host (parallel on a single processor,
+ * vector without the Vector API module) are neither measured nor picked.
+ * The result is kept in a properties file and measured again when the host changes
+ * (number of processors, Java version, Vector API module there or not), or when the parallel engine
+ * is asked for another thread count or grain size than the one it was measured with.
+ */
+
+final class EngineCostModel {
+
+	/**
+	 * the engines (and frontiers, for Dijkstra and A*) the model knows about, in the order they are reported
+	 */
+
+	private final static SolverEngine[] CANDIDATE_ENGINE_ARRAY = { SolverEngine.DYNAMIC_PROGRAMMING, SolverEngine.VECTOR,
+		SolverEngine.PARALLEL_DYNAMIC_PROGRAMMING, SolverEngine.DIJKSTRA, SolverEngine.A_STAR, SolverEngine.A_STAR };
+	private final static DijkstraFrontierType[] CANDIDATE_FRONTIER_TYPE_ARRAY = { null, null,
+		null, DijkstraFrontierType.BUCKET_QUEUE, DijkstraFrontierType.BUCKET_QUEUE, DijkstraFrontierType.BINARY_HEAP };
+
+	/**
+	 * calibration triangles, always the same ones: uniform node values from 0 to CALIBRATION_MAXIMUM_NODE_VALUE,
+	 * and skewed ones (the maximum times the cube of a uniform number from 0 to 1) up to SKEWED_CALIBRATION_MAXIMUM_NODE_VALUE
+	 */
+
+	private final static int WARM_UP_ROW_COUNT = 10;
+	private final static int SMALL_CALIBRATION_ROW_COUNT = 200;
+	private final static int LARGE_CALIBRATION_ROW_COUNT = 1000;
+	private final static int CALIBRATION_MAXIMUM_NODE_VALUE = 99;
+	private final static int SKEWED_CALIBRATION_MAXIMUM_NODE_VALUE = 65535;
+	private final static long CALIBRATION_SEED = 20110101L;
+	private final static int CALIBRATION_WARM_UP_RUN_COUNT = 3;
+	private final static int CALIBRATION_RUN_COUNT = 5;
+
+	/**
+	 * what the properties file holds, besides the costs. a change means another host, or another model.
+	 */
+
+	private final static int MODEL_VERSION = 2;
+	private final static String MODEL_VERSION_KEY = "model.version";
+	private final static String JAVA_VERSION_KEY = "java.version";
+	private final static String PROCESSOR_COUNT_KEY = "processors";
+	private final static String VECTOR_MODULE_KEY = "vector.module";
+	private final static String THREAD_COUNT_KEY = "parallel.threads";
+	private final static String GRAIN_SIZE_KEY = "parallel.grain";
+	private final static String FIXED_NANOS_SUFFIX = ".fixedNanos";
+	private final static String NODE_PICOS_SUFFIX = ".nodePicos";
+	private final static String RANGE_BIT_PICOS_SUFFIX = ".rangeBitPicos";
+	private final static String PROPERTIES_COMMENT = "MinTrianglePath engine cost model, measured on this host. delete to measure again.";
+
+	private final static long PICOS_PER_NANO = 1000;
+
+	/**
+	 * per candidate. the costs per node are in picoseconds so they stay integers.
+	 * the cost per bit of range can be negative: an engine can get faster on skewed values.
+	 */
+
+	private final long[] iFixedNanosLongArray = new long[CANDIDATE_ENGINE_ARRAY.length];
+	private final long[] iNodePicosLongArray = new long[CANDIDATE_ENGINE_ARRAY.length];
+	private final long[] iRangeBitPicosLongArray = new long[CANDIDATE_ENGINE_ARRAY.length];
+
+	private EngineCostModel() {
+		// see load and calibrate
+	}
+
+	/*package*/ static int getCandidateCount() {
+		return CANDIDATE_ENGINE_ARRAY.length;
+	}
+
+	/*package*/ static SolverEngine getCandidateEngine(int aCandidateIndex) {
+		return CANDIDATE_ENGINE_ARRAY[aCandidateIndex];
+	}
+
+	/**
+	 * @return the frontier of the candidate. null when it isn't Dijkstra or A*.
+	 */
+
+	/*package*/ static DijkstraFrontierType getCandidateFrontierType(int aCandidateIndex) {
+		return CANDIDATE_FRONTIER_TYPE_ARRAY[aCandidateIndex];
+	}
+
+	/**
+	 * @return the candidate as the statistics name it, i.e. "dijkstra/bucket"
+	 */
+
+	/*package*/ static String getCandidateName(int aCandidateIndex) {
+		final String engineName = CANDIDATE_ENGINE_ARRAY[aCandidateIndex].getCommandLineName();
+		if(null == CANDIDATE_FRONTIER_TYPE_ARRAY[aCandidateIndex]) {
+			return engineName;
+		}
+		return engineName.concat("/").concat(CANDIDATE_FRONTIER_TYPE_ARRAY[aCandidateIndex].getCommandLineName());
+	}
+
+	/**
+	 * @return false if another candidate does the same on this host, at least as fast:
+	 * parallel on a single processor, vector without the Vector API module (it is then dp)
+	 */
+
+	/*package*/ static boolean isCandidateUseful(int aCandidateIndex) {
+		switch(CANDIDATE_ENGINE_ARRAY[aCandidateIndex]) {
+		case PARALLEL_DYNAMIC_PROGRAMMING:
+			return 1 < Runtime.getRuntime().availableProcessors();
+		case VECTOR:
+			return VectorDynamicProgrammingAlgorithm.isVectorModulePresent();
+		default:
+			return true;
+		}
+	}
+
+	/**
+	 * @return the predicted solve time of the candidate, allocation included, for a triangle of aNodeCount nodes
+	 * whose node values go from aMinimumNodeValue to aMaximumNodeValue
+	 */
+
+	/*package*/ long predictNanos(int aCandidateIndex, long aNodeCount, int aMinimumNodeValue, int aMaximumNodeValue) {
+		final long rangeBitCount = getRangeBitCount(aMinimumNodeValue, aMaximumNodeValue) - getRangeBitCount(0, CALIBRATION_MAXIMUM_NODE_VALUE);
+		final long nodePicos = Math.max(1, iNodePicosLongArray[aCandidateIndex] + iRangeBitPicosLongArray[aCandidateIndex] * rangeBitCount);
+		return iFixedNanosLongArray[aCandidateIndex] + (nodePicos * aNodeCount) / PICOS_PER_NANO;
+	}
+
+	/**
+	 * @return the number of bits the difference between aMaximumNodeValue and aMinimumNodeValue needs
+	 */
+
+	private static int getRangeBitCount(int aMinimumNodeValue, int aMaximumNodeValue) {
+		return Long.SIZE - Long.numberOfLeadingZeros((long)aMaximumNodeValue - aMinimumNodeValue);
+	}
+
+	/**
+	 * @return the model kept in aPath, or null if there is none, if it can't be read, if it was measured on another host
+	 * or with other settings than anOptions
+	 */
+
+	/*package*/ static EngineCostModel load(Path aPath, MinTrianglePathOptions anOptions) {
+		final Properties properties = new Properties();
+		try {
+			final InputStream inputStream = Files.newInputStream(aPath);
+			try {
+				properties.load(inputStream);
+			} finally {
+				inputStream.close();
+			}
+		} catch (IOException ioex) {
+			return null;
+		}
+		final Properties hostProperties = getHostProperties(anOptions);
+		for(String key : hostProperties.stringPropertyNames()) {
+			if(!hostProperties.getProperty(key).equals(properties.getProperty(key))) {
+				return null;
+			}
+		}
+		final EngineCostModel result = new EngineCostModel();
+		try {
+			for(int ii = 0 ; ii < CANDIDATE_ENGINE_ARRAY.length ; ++ii) {
+				result.iFixedNanosLongArray[ii] = Long.parseLong(properties.getProperty(getCandidateName(ii).concat(FIXED_NANOS_SUFFIX)));
+				result.iNodePicosLongArray[ii] = Long.parseLong(properties.getProperty(getCandidateName(ii).concat(NODE_PICOS_SUFFIX)));
+				result.iRangeBitPicosLongArray[ii] = Long.parseLong(properties.getProperty(getCandidateName(ii).concat(RANGE_BIT_PICOS_SUFFIX)));
+			}
+		} catch (NumberFormatException nfex) {
+			// a missing key ends up here too (parseLong(null))
+			return null;
+		}
+		return result;
+	}
+
+	/**
+	 * Keeps the model in aPath, with what identifies the host
+	 *
+	 * @param anOptions the settings the model was calibrated with
+	 * @throws IOException if aPath can't be written
+	 */
+
+	/*package*/ void store(Path aPath, MinTrianglePathOptions anOptions) throws IOException {
+		final Properties properties = getHostProperties(anOptions);
+		for(int ii = 0 ; ii < CANDIDATE_ENGINE_ARRAY.length ; ++ii) {
+			properties.setProperty(getCandidateName(ii).concat(FIXED_NANOS_SUFFIX), Long.toString(iFixedNanosLongArray[ii]));
+			properties.setProperty(getCandidateName(ii).concat(NODE_PICOS_SUFFIX), Long.toString(iNodePicosLongArray[ii]));
+			properties.setProperty(getCandidateName(ii).concat(RANGE_BIT_PICOS_SUFFIX), Long.toString(iRangeBitPicosLongArray[ii]));
+		}
+		final OutputStream outputStream = Files.newOutputStream(aPath);
+		try {
+			properties.store(outputStream, PROPERTIES_COMMENT);
+		} finally {
+			outputStream.close();
+		}
+	}
+
+	/**
+	 * Measures every candidate on this host. Takes a few seconds.
+	 *
+	 * @param anOptions the settings the candidates are made with (i.e. the thread count of the parallel engine)
+	 */
+
+	/*package*/ static EngineCostModel calibrate(MinTrianglePathOptions anOptions) {
+		final EngineCostModel result = new EngineCostModel();
+		final Triangle warmUpTriangle = makeCalibrationTriangle(WARM_UP_ROW_COUNT, CALIBRATION_MAXIMUM_NODE_VALUE, false);
+		final Triangle smallTriangle = makeCalibrationTriangle(SMALL_CALIBRATION_ROW_COUNT, CALIBRATION_MAXIMUM_NODE_VALUE, false);
+		final Triangle largeTriangle = makeCalibrationTriangle(LARGE_CALIBRATION_ROW_COUNT, CALIBRATION_MAXIMUM_NODE_VALUE, false);
+		final Triangle skewedTriangle = makeCalibrationTriangle(LARGE_CALIBRATION_ROW_COUNT, SKEWED_CALIBRATION_MAXIMUM_NODE_VALUE, true);
+		for(int ii = 0 ; ii < CANDIDATE_ENGINE_ARRAY.length ; ++ii) {
+			if(isCandidateUseful(ii)) {
+				measureNanos(ii, warmUpTriangle, anOptions, 0, 1);
+			}
+		}
+		final int rangeBitCountDifference = getRangeBitCount(skewedTriangle.getMinimumNodeValue(), skewedTriangle.getMaximumNodeValue())
+				- getRangeBitCount(largeTriangle.getMinimumNodeValue(), largeTriangle.getMaximumNodeValue());
+		for(int ii = 0 ; ii < CANDIDATE_ENGINE_ARRAY.length ; ++ii) {
+			if(isCandidateUseful(ii)) {
+				final long coldLargeNanos = measureNanos(ii, largeTriangle, anOptions, 0, 1);
+				final long largeNanos = measureNanos(ii, largeTriangle, anOptions, CALIBRATION_WARM_UP_RUN_COUNT, CALIBRATION_RUN_COUNT);
+				final long smallNanos = measureNanos(ii, smallTriangle, anOptions, CALIBRATION_WARM_UP_RUN_COUNT, CALIBRATION_RUN_COUNT);
+				final long skewedNanos = measureNanos(ii, skewedTriangle, anOptions, CALIBRATION_WARM_UP_RUN_COUNT, CALIBRATION_RUN_COUNT);
+				final long nodeCountDifference = largeTriangle.getNodeCount() - smallTriangle.getNodeCount();
+				result.iNodePicosLongArray[ii] = Math.max(1, ((largeNanos - smallNanos) * PICOS_PER_NANO) / nodeCountDifference);
+				result.iFixedNanosLongArray[ii] = Math.max(0, smallNanos - (result.iNodePicosLongArray[ii] * smallTriangle.getNodeCount()) / PICOS_PER_NANO)
+						+ Math.max(0, coldLargeNanos - largeNanos);
+				result.iRangeBitPicosLongArray[ii] = ((skewedNanos - largeNanos) * PICOS_PER_NANO) / (skewedTriangle.getNodeCount() * rangeBitCountDifference);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the fastest of aRunCount solves of aTriangle by the candidate, after aWarmUpRunCount untimed ones. solver allocation included.
+	 */
+
+	private static long measureNanos(int aCandidateIndex, Triangle aTriangle, MinTrianglePathOptions anOptions, int aWarmUpRunCount, int aRunCount) {
+		long result = Long.MAX_VALUE;
+		for(int ii = 0 ; ii < aWarmUpRunCount + aRunCount ; ++ii) {
+			aTriangle.reset(aTriangle.getRowCount());
+			final long startTime = System.nanoTime();
+			makeSolver(aCandidateIndex, aTriangle.getRowCount(), anOptions).runAlgorithm(aTriangle);
+			final long nanos = System.nanoTime() - startTime;
+			if(ii >= aWarmUpRunCount) {
+				result = Math.min(result, nanos);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return a new TriangleSolver of the candidate, for triangles of up to aRowCount rows
+	 */
+
+	/*package*/ static TriangleSolver makeSolver(int aCandidateIndex, int aRowCount, MinTrianglePathOptions anOptions) {
+		final DijkstraFrontierType frontierType = CANDIDATE_FRONTIER_TYPE_ARRAY[aCandidateIndex];
+		if(null != frontierType) {
+			return new DijkstraAlgorithm(aRowCount, frontierType, SolverEngine.A_STAR == CANDIDATE_ENGINE_ARRAY[aCandidateIndex]);
+		}
+		return CANDIDATE_ENGINE_ARRAY[aCandidateIndex].makeSolver(aRowCount, anOptions);
+	}
+
+	/**
+	 * @param isSkewed true for the maximum times the cube of a uniform number from 0 to 1, false for uniform values
+	 * @return a triangle of aRowCount rows of node values from 0 to aMaximumNodeValue
+	 */
+
+	private static Triangle makeCalibrationTriangle(int aRowCount, int aMaximumNodeValue, boolean isSkewed) {
+		final Triangle result = new Triangle(aRowCount);
+		final SplittableRandom random = new SplittableRandom(CALIBRATION_SEED);
+		for(int ii = 1 ; ii <= aRowCount ; ++ii) {
+			for(int jj = 1 ; jj <= ii ; ++jj) {
+				if(isSkewed) {
+					final double uniform = random.nextDouble();
+					result.setNodeValue(ii, jj, (int)Math.min(aMaximumNodeValue, (long)((aMaximumNodeValue + 1L) * uniform * uniform * uniform)));
+				} else {
+					result.setNodeValue(ii, jj, random.nextInt(aMaximumNodeValue + 1));
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return what a model measured on another host (or by another version of the model, or with other settings than anOptions) wouldn't match
+	 */
+
+	private static Properties getHostProperties(MinTrianglePathOptions anOptions) {
+		final Properties result = new Properties();
+		result.setProperty(MODEL_VERSION_KEY, Integer.toString(MODEL_VERSION));
+		result.setProperty(JAVA_VERSION_KEY, System.getProperty(JAVA_VERSION_KEY));
+		result.setProperty(PROCESSOR_COUNT_KEY, Integer.toString(Runtime.getRuntime().availableProcessors()));
+		result.setProperty(VECTOR_MODULE_KEY, Boolean.toString(VectorDynamicProgrammingAlgorithm.isVectorModulePresent()));
+		result.setProperty(THREAD_COUNT_KEY, Integer.toString(anOptions.getThreadCount()));
+		result.setProperty(GRAIN_SIZE_KEY, Integer.toString(anOptions.getGrainSize()));
+		return result;
+	}
+
+}
@@ -0,0 +1,171 @@
+/**
+ * A solved Triangle that stays solved while its node values change.
+ *
+ * Like DynamicProgrammingAlgorithm, it folds the triangle bottom-up, but it keeps the minimal
+ * path value from every node to a leaf (not just one row of them) together with the bit telling
+ * which child that path goes through.
+ *
+ * The sum of a node only depends on the nodes below it, so changing node (r, c) can only change
+ * the sums of the nodes that can reach it: (r-1, c-1..c), (r-2, c-2..c) and so on up to the root.
+ * setNodeValue only marks the node as dirty. The next query recomputes the dirty nodes, from the bottom up,
+ * and only marks the parents of a node dirty when its sum actually changed.
+ * A query costs the size of the cones above the changed nodes (often much less) plus a walk down
+ * from the root, instead of the whole triangle.
+ *
+ * Each row keeps a single range of dirty nodes, so changes far apart in the same row are recomputed
+ * together with the nodes between them.
+ */
+
+final class IncrementalTriangleSolver {
+
+	private final Triangle iTriangle;
+
+	/**
+	 * iPathSumIntArray[Triangle.getNodeIndex(r, c)] is the value of the minimal path from node (r, c) to a leaf
+	 */
+
+	private final int[] iPathSumIntArray;
+
+	/**
+	 * one bit per node, set when the minimal path from that node goes through its right child.
+	 * indexed like DynamicProgrammingAlgorithm does, so its travelDownFromRootToLeaf applies.
+	 */
+
+	private final PackedBitSet iIsRightChildBitSet;
+
+	/**
+	 * dirty nodes of row r go from iDirtyFirstNodeIntArray[r-1] to iDirtyLastNodeIntArray[r-1].
+	 * first > last for a clean row.
+	 */
+
+	private final int[] iDirtyFirstNodeIntArray;
+	private final int[] iDirtyLastNodeIntArray;
+	private int iLowestDirtyRow; // 0 when every row is clean
+
+	private long iResolvedNodeCount;
+
+	/**
+	 * Takes aTriangle over: from now on, its node values should only be changed through setNodeValue.
+	 * Nothing is solved until the first query, which solves the whole triangle.
+	 *
+	 * @throws IllegalArgumentException if aTriangle has more nodes than the path sums can be indexed with
+	 */
+
+	/*package*/ IncrementalTriangleSolver(Triangle aTriangle) {
+		final int rowCount = aTriangle.getRowCount();
+		if(NodeValueStore.MAXIMUM_HEAP_NODE_COUNT < aTriangle.getNodeCount()) {
+			throw new IllegalArgumentException("Too many rows for incremental solving: " + rowCount);
+		}
+		iTriangle = aTriangle;
+		iPathSumIntArray = new int[(int)aTriangle.getNodeCount()];
+		iIsRightChildBitSet = new PackedBitSet(aTriangle.getNodeCount());
+		iDirtyFirstNodeIntArray = new int[rowCount];
+		iDirtyLastNodeIntArray = new int[rowCount];
+		for(int row = 1 ; row <= rowCount ; ++row) {
+			iDirtyFirstNodeIntArray[row - 1] = 1;
+			iDirtyLastNodeIntArray[row - 1] = row;
+		}
+		iLowestDirtyRow = rowCount;
+	}
+
+	/*package*/ int getRowCount() {
+		return iTriangle.getRowCount();
+	}
+
+	/*package*/ int getNodeValue(int aCoordinateRow, int aCoordinateNode) {
+		return iTriangle.getNodeValue(aCoordinateRow, aCoordinateNode);
+	}
+
+	/**
+	 * Changes a node value. Nothing is recomputed until the next query.
+	 */
+
+	/*package*/ void setNodeValue(int aCoordinateRow, int aCoordinateNode, int aNodeValue) {
+		if(iTriangle.getNodeValue(aCoordinateRow, aCoordinateNode) != aNodeValue) {
+			iTriangle.setNodeValue(aCoordinateRow, aCoordinateNode, aNodeValue);
+			markDirty(aCoordinateRow, aCoordinateNode, aCoordinateNode);
+		}
+	}
+
+	/**
+	 * @return the value of a minimal path from the root to a leaf. 0 for a triangle without rows.
+	 */
+
+	/*package*/ int getPathValue() {
+		if(0 == iTriangle.getRowCount()) {
+			return 0;
+		}
+		resolve();
+		return iPathSumIntArray[0];
+	}
+
+	/**
+	 * @return the node values of a minimal path, starting with the root value, like TriangleSolver.runAlgorithm.
+	 * ties are broken like DynamicProgrammingAlgorithm does, so both return the same path.
+	 */
+
+	/*package*/ int[] getMinimalPath() {
+		if(0 == iTriangle.getRowCount()) {
+			return new int[0];
+		}
+		resolve();
+		return DynamicProgrammingAlgorithm.travelDownFromRootToLeaf(iTriangle, iIsRightChildBitSet, null);
+	}
+
+	/**
+	 * @return number of node sums recomputed since this IncrementalTriangleSolver was made
+	 */
+
+	/*package*/ long getResolvedNodeCount() {
+		return iResolvedNodeCount;
+	}
+
+	/**
+	 * recomputes the sums of the dirty nodes, from the lowest dirty row up to the root
+	 */
+
+	private void resolve() {
+		final int rowCount = iTriangle.getRowCount();
+		for(int row = iLowestDirtyRow ; row > 0 ; --row) {
+			final int firstNode = iDirtyFirstNodeIntArray[row - 1];
+			final int lastNode = iDirtyLastNodeIntArray[row - 1];
+			if(firstNode > lastNode) {
+				continue;
+			}
+			iDirtyFirstNodeIntArray[row - 1] = Integer.MAX_VALUE;
+			iDirtyLastNodeIntArray[row - 1] = 0;
+			final int rowIndex = Triangle.getNodeIndex(row, 1);
+			final int childRowIndex = Triangle.getNodeIndex(row + 1, 1);
+			for(int node = firstNode ; node <= lastNode ; ++node) {
+				int pathSum = iTriangle.getNodeValue(row, node);
+				if(row < rowCount) {
+					final int leftSum = iPathSumIntArray[childRowIndex + node - 1];
+					final int rightSum = iPathSumIntArray[childRowIndex + node];
+					final boolean isRightChild = rightSum < leftSum;
+					iIsRightChildBitSet.set(rowIndex + node - 1, isRightChild);
+					pathSum += isRightChild ? rightSum : leftSum;
+				}
+				++iResolvedNodeCount;
+				if(iPathSumIntArray[rowIndex + node - 1] != pathSum) {
+					iPathSumIntArray[rowIndex + node - 1] = pathSum;
+					if(1 < row) {
+						// the parents above left and above right
+						markDirty(row - 1, Math.max(1, node - 1), Math.min(node, row - 1));
+					}
+				}
+			}
+		}
+		iLowestDirtyRow = 0;
+	}
+
+	/**
+	 * adds nodes aFirstNode to aLastNode of aCoordinateRow to the dirty range of that row
+	 */
+
+	private void markDirty(int aCoordinateRow, int aFirstNode, int aLastNode) {
+		iDirtyFirstNodeIntArray[aCoordinateRow - 1] = Math.min(iDirtyFirstNodeIntArray[aCoordinateRow - 1], aFirstNode);
+		iDirtyLastNodeIntArray[aCoordinateRow - 1] = Math.max(iDirtyLastNodeIntArray[aCoordinateRow - 1], aLastNode);
+		iLowestDirtyRow = Math.max(iLowestDirtyRow, aCoordinateRow);
+	}
+
+}
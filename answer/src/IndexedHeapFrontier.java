@@ -0,0 +1,138 @@
+
+/**
+ * A d-ary min heap of node numbers (see Triangle.getNodeIndex), ordered by tentative path value.
+ *
+ * The heap is "indexed": iHeapPositionIntArray remembers where each node sits in the heap
+ * so decreasePathValue can sift a node up without searching for it first.
+ * Every operation is O(log(frontier size)) and nothing gets boxed.
+ *
+ * The path values are copied next to the node numbers so sifting doesn't have to go
+ * back to the Triangle for every comparison.
+ */
+
+final class IndexedHeapFrontier implements DijkstraFrontier {
+
+	/*package*/ final static int BINARY_HEAP_ARITY = 2;
+	/*package*/ final static int QUATERNARY_HEAP_ARITY = 4;
+
+	private final static int NOT_IN_HEAP = -1;
+
+	private final int iArity;
+	private final int[] iHeapNodeIndexIntArray;
+	private final int[] iHeapPathValueIntArray;
+	private final int[] iHeapPositionIntArray;
+	private int iHeapSize;
+
+	/**
+	 * @param anArity number of children of each heap entry. 2 for a binary heap.
+	 * A larger arity makes the heap shallower (cheaper decreasePathValue) at the cost of more comparisons per popBest.
+	 */
+
+	/*package*/ IndexedHeapFrontier(int aNodeCount, int anArity) {
+		if(anArity < 2) {
+			throw new IllegalArgumentException("heap arity must be at least 2");
+		}
+		iArity = anArity;
+		iHeapNodeIndexIntArray = new int[aNodeCount];
+		iHeapPathValueIntArray = new int[aNodeCount];
+		iHeapPositionIntArray = new int[aNodeCount];
+		for(int ii = 0 ; ii < aNodeCount ; ++ii) {
+			iHeapPositionIntArray[ii] = NOT_IN_HEAP;
+		}
+	}
+
+	public void reset(Triangle aTriangle) {
+		// only the nodes still in the heap have a position to forget
+		for(int ii = 0 ; ii < iHeapSize ; ++ii) {
+			iHeapPositionIntArray[iHeapNodeIndexIntArray[ii]] = NOT_IN_HEAP;
+		}
+		iHeapSize = 0;
+	}
+
+	public boolean isEmpty() {
+		return 0 == iHeapSize;
+	}
+
+	public void insert(int aNodeIndex, int aPathValue) {
+		final int heapPosition = iHeapSize++;
+		iHeapNodeIndexIntArray[heapPosition] = aNodeIndex;
+		iHeapPathValueIntArray[heapPosition] = aPathValue;
+		iHeapPositionIntArray[aNodeIndex] = heapPosition;
+		siftUp(heapPosition);
+	}
+
+	public void decreasePathValue(int aNodeIndex, int anOldPathValue, int aNewPathValue) {
+		final int heapPosition = iHeapPositionIntArray[aNodeIndex];
+		iHeapPathValueIntArray[heapPosition] = aNewPathValue;
+		siftUp(heapPosition);
+	}
+
+	public int popBest() {
+		final int result = iHeapNodeIndexIntArray[0];
+		iHeapPositionIntArray[result] = NOT_IN_HEAP;
+		--iHeapSize;
+		if(0 < iHeapSize) {
+			// the last entry fills the hole at the top and sinks to where it belongs
+			moveEntry(iHeapSize, 0);
+			siftDown(0);
+		}
+		return result;
+	}
+
+	public long getMovedByteCount() {
+		// entries are sifted one at a time, never moved in bulk
+		return 0;
+	}
+
+	private void siftUp(int aHeapPosition) {
+		final int nodeIndex = iHeapNodeIndexIntArray[aHeapPosition];
+		final int pathValue = iHeapPathValueIntArray[aHeapPosition];
+		int position = aHeapPosition;
+		while(0 < position) {
+			final int parentPosition = (position - 1) / iArity;
+			if(iHeapPathValueIntArray[parentPosition] <= pathValue) {
+				break;
+			}
+			moveEntry(parentPosition, position);
+			position = parentPosition;
+		}
+		putEntry(position, nodeIndex, pathValue);
+	}
+
+	private void siftDown(int aHeapPosition) {
+		final int nodeIndex = iHeapNodeIndexIntArray[aHeapPosition];
+		final int pathValue = iHeapPathValueIntArray[aHeapPosition];
+		int position = aHeapPosition;
+		while(true) {
+			final int firstChildPosition = position * iArity + 1;
+			if(firstChildPosition >= iHeapSize) {
+				break;
+			}
+			// find the best child
+			final int lastChildPosition = Math.min(firstChildPosition + iArity, iHeapSize);
+			int bestChildPosition = firstChildPosition;
+			for(int ii = firstChildPosition + 1 ; ii < lastChildPosition ; ++ii) {
+				if(iHeapPathValueIntArray[ii] < iHeapPathValueIntArray[bestChildPosition]) {
+					bestChildPosition = ii;
+				}
+			}
+			if(iHeapPathValueIntArray[bestChildPosition] >= pathValue) {
+				break;
+			}
+			moveEntry(bestChildPosition, position);
+			position = bestChildPosition;
+		}
+		putEntry(position, nodeIndex, pathValue);
+	}
+
+	private void moveEntry(int aFromHeapPosition, int aToHeapPosition) {
+		putEntry(aToHeapPosition, iHeapNodeIndexIntArray[aFromHeapPosition], iHeapPathValueIntArray[aFromHeapPosition]);
+	}
+
+	private void putEntry(int aHeapPosition, int aNodeIndex, int aPathValue) {
+		iHeapNodeIndexIntArray[aHeapPosition] = aNodeIndex;
+		iHeapPathValueIntArray[aHeapPosition] = aPathValue;
+		iHeapPositionIntArray[aNodeIndex] = aHeapPosition;
+	}
+
+}
@@ -0,0 +1,81 @@
+import java.nio.ByteBuffer;
+
+/**
+ * NodeValueStore for any node value: 4 bytes per node, like Triangle always had.
+ */
+
+final class IntNodeValueStore extends NodeValueStore {
+
+	private final int[] iNodeValueIntArray;
+
+	/*package*/ IntNodeValueStore(int aNodeCount) {
+		iNodeValueIntArray = new int[aNodeCount];
+	}
+
+	/*package*/ int getValueByteCount() {
+		return Integer.BYTES;
+	}
+
+	/*package*/ long getNodeCount() {
+		return iNodeValueIntArray.length;
+	}
+
+	/*package*/ int get(long aNodeIndex) {
+		return iNodeValueIntArray[(int)aNodeIndex];
+	}
+
+	/*package*/ void set(long aNodeIndex, int aValue) {
+		iNodeValueIntArray[(int)aNodeIndex] = aValue;
+	}
+
+	/*package*/ boolean canHold(int aValue) {
+		return true;
+	}
+
+	/*package*/ int getMinimumValue(long aNodeCount) {
+		final int nodeCount = (int)aNodeCount;
+		int result = Integer.MAX_VALUE;
+		for(int ii = 0 ; ii < nodeCount ; ++ii) {
+			if(result > iNodeValueIntArray[ii]) {
+				result = iNodeValueIntArray[ii];
+			}
+		}
+		return result;
+	}
+
+	/*package*/ int getMaximumValue(long aNodeCount) {
+		final int nodeCount = (int)aNodeCount;
+		int result = Integer.MIN_VALUE;
+		for(int ii = 0 ; ii < nodeCount ; ++ii) {
+			if(result < iNodeValueIntArray[ii]) {
+				result = iNodeValueIntArray[ii];
+			}
+		}
+		return result;
+	}
+
+	/*package*/ void getValues(long aFirstNodeIndex, int[] anIntArray, int aCount) {
+		System.arraycopy(iNodeValueIntArray, (int)aFirstNodeIndex, anIntArray, 0, aCount);
+	}
+
+	/*package*/ int setValues(long aFirstNodeIndex, ByteBuffer aBuffer, int aValueByteCount) {
+		if(Integer.BYTES != aValueByteCount) {
+			return super.setValues(aFirstNodeIndex, aBuffer, aValueByteCount);
+		}
+		final int result = Math.min(aBuffer.remaining() / Integer.BYTES, (int)(iNodeValueIntArray.length - aFirstNodeIndex));
+		aBuffer.asIntBuffer().get(iNodeValueIntArray, (int)aFirstNodeIndex, result);
+		aBuffer.position(aBuffer.position() + result * Integer.BYTES);
+		return result;
+	}
+
+	/*package*/ int getValues(long aFirstNodeIndex, ByteBuffer aBuffer, int aValueByteCount) {
+		if(Integer.BYTES != aValueByteCount) {
+			return super.getValues(aFirstNodeIndex, aBuffer, aValueByteCount);
+		}
+		final int result = Math.min(aBuffer.remaining() / Integer.BYTES, (int)(iNodeValueIntArray.length - aFirstNodeIndex));
+		aBuffer.asIntBuffer().put(iNodeValueIntArray, (int)aFirstNodeIndex, result);
+		aBuffer.position(aBuffer.position() + result * Integer.BYTES);
+		return result;
+	}
+
+}
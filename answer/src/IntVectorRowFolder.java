@@ -0,0 +1,49 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The SIMD part of VectorDynamicProgrammingAlgorithm. It is a class of its own so nothing
+ * from jdk.incubator.vector gets loaded when the module isn't there.
+ *
+ * Vectors are as wide as the CPU allows (IntVector.SPECIES_PREFERRED: 8 lanes with AVX2, 16 with AVX-512).
+ */
+
+final class IntVectorRowFolder {
+
+	private final static VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+	/**
+	 * @return the vector shape, i.e. "int256" for 8 lanes of int
+	 */
+
+	/*package*/ String getName() {
+		return "int".concat(Integer.toString(SPECIES.vectorBitSize()));
+	}
+
+	/**
+	 * Folds the first nodes of row aRowCount into aRowSumIntArray, a whole vector at a time.
+	 * The row sums are overwritten in place: a vector reads its right sums one node past itself,
+	 * before the next vector overwrites that node.
+	 *
+	 * @param aNodeValueIntArray node values of row aRowCount
+	 * @param aRowSumIntArray minimal path values of the row below, replaced by the ones of row aRowCount
+	 * @param aRowBitIndex bit of the first node of the row in anIsRightChildBitSet
+	 * @return number of nodes folded, a multiple of the lane count. the caller folds the rest of the row.
+	 */
+
+	/*package*/ int foldRow(int aRowCount, int[] aNodeValueIntArray, int[] aRowSumIntArray, PackedBitSet anIsRightChildBitSet, long aRowBitIndex) {
+		final int laneCount = SPECIES.length();
+		int result = 0;
+		for( ; result + laneCount <= aRowCount ; result += laneCount) {
+			final IntVector leftSumVector = IntVector.fromArray(SPECIES, aRowSumIntArray, result);
+			final IntVector rightSumVector = IntVector.fromArray(SPECIES, aRowSumIntArray, result + 1);
+			final VectorMask<Integer> isRightChildMask = rightSumVector.compare(VectorOperators.LT, leftSumVector);
+			IntVector.fromArray(SPECIES, aNodeValueIntArray, result).add(leftSumVector.min(rightSumVector)).intoArray(aRowSumIntArray, result);
+			anIsRightChildBitSet.setBits(aRowBitIndex + result, isRightChildMask.toLong(), laneCount);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,332 @@
+import java.util.Arrays;
+
+/**
+ * The k cheapest paths from the root to a leaf, and the cheapest path value to every leaf.
+ *
+ * A single top-down pass (see solve) stores, as the Triangle path value of every node,
+ * the value of the cheapest path from the root down to it (its own node value excluded, like DijkstraAlgorithm does).
+ * The last row gives the cheapest path value to each leaf.
+ *
+ * The k best paths are then found lazily, without another pass over the triangle:
+ * - a candidate is a path fixed from one of its nodes u down to a leaf, that follows the cheapest
+ * path from the root down to u. its value is exactly the path value of u plus the node values from u down.
+ * - walking up the path of a candidate from u, every node has a parent off the path (except on the edges
+ * of the triangle): deviating there gives another candidate, a child of the first one, worth as much or more.
+ * The candidates whose path ends on a leaf without any deviation are the children of none.
+ * Every path is the best one of exactly one candidate, so the candidates form a tree and no path comes out twice.
+ * - a candidate is kept as its parent candidate, the row of its deviation and the node chosen there
+ * (Eppstein's implicit paths): its path is only rebuilt, from the links, when it is output (see makePath).
+ * - the children of a candidate are ordered by value, then by row. Popping the cheapest candidate of a heap
+ * gives the next best path, and only pushes its cheapest child and its next sibling: each comes out
+ * no earlier than the popped one, so the heap never misses the next best path.
+ *
+ * Each of the k paths costs two walks up the triangle (one for its children, one for its siblings)
+ * and at most two candidates, i.e. O(n + k * (n + log k)) for n rows after the top-down pass,
+ * with 4 ints per candidate and 1 in the heap: O(k) memory besides the triangle.
+ *
+ * Paths of equal value may come out in any order, so the first path can differ from the one
+ * an engine picks among several minimal paths.
+ */
+
+final class KBestPathSolver {
+
+	private final static int NO_CANDIDATE = -1;
+	private final static int INITIAL_CANDIDATE_CAPACITY = 1024;
+
+	private final Triangle iTriangle;
+
+	/**
+	 * candidates, one entry per candidate in each array:
+	 * - the candidate it deviates from (NO_CANDIDATE for a leaf), which holds the rest of the path down
+	 * - the row of the deviation, and the node chosen in that row: from there up, the path is the cheapest one
+	 * - the value of the whole path
+	 */
+
+	private int[] iCandidateParentIntArray;
+	private int[] iCandidateRowIntArray;
+	private int[] iCandidateNodeIntArray;
+	private int[] iCandidatePathValueIntArray;
+	private int iCandidateCount;
+
+	/**
+	 * candidate numbers, as a binary min heap on iCandidatePathValueIntArray
+	 */
+
+	private int[] iHeapIntArray;
+	private int iHeapSize;
+
+	/**
+	 * the candidates findBestPaths popped, cheapest first
+	 */
+
+	private int[] iRankedCandidateIntArray = new int[0];
+	private int iRankedCandidateCount;
+
+	/**
+	 * Solves aTriangle top-down, overwriting its path values.
+	 *
+	 * @throws IllegalArgumentException if aTriangle has more nodes than path values can be kept for
+	 */
+
+	/*package*/ KBestPathSolver(Triangle aTriangle) {
+		if(NodeValueStore.MAXIMUM_HEAP_NODE_COUNT < aTriangle.getNodeCount()) {
+			throw new IllegalArgumentException("Too many rows for the k best paths: " + aTriangle.getRowCount());
+		}
+		iTriangle = aTriangle;
+		solve();
+	}
+
+	/**
+	 * sets the path value of every node to the value of the cheapest path from the root down to it, its own value excluded
+	 */
+
+	private void solve() {
+		final int rowCount = iTriangle.getRowCount();
+		if(0 == rowCount) {
+			return;
+		}
+		iTriangle.setNodePathValue(1, 1, 0);
+		for(int row = 2 ; row <= rowCount ; ++row) {
+			for(int node = 1 ; node <= row ; ++node) {
+				iTriangle.setNodePathValue(row, node, getPathValueThrough(row - 1, getBestParentNode(row, node)));
+			}
+		}
+	}
+
+	/**
+	 * @return the cheapest path value from the root to each leaf, leaf values included. leaf n is at index n - 1.
+	 */
+
+	/*package*/ int[] getLeafPathValues() {
+		final int rowCount = iTriangle.getRowCount();
+		final int[] result = new int[rowCount];
+		for(int node = 1 ; node <= rowCount ; ++node) {
+			result[node - 1] = getPathValueThrough(rowCount, node);
+		}
+		return result;
+	}
+
+	/**
+	 * Ranks the aPathCount cheapest paths from the root to a leaf. See makePath for the paths themselves.
+	 *
+	 * @return the number of paths ranked: fewer than aPathCount if the triangle doesn't have that many paths
+	 */
+
+	/*package*/ int findBestPaths(int aPathCount) {
+		final int rowCount = iTriangle.getRowCount();
+		iCandidateCount = 0;
+		iHeapSize = 0;
+		iRankedCandidateCount = 0;
+		if(0 == rowCount) {
+			return 0;
+		}
+		ensureCandidateCapacity(INITIAL_CANDIDATE_CAPACITY);
+		pushNextLeaf(Integer.MIN_VALUE, 0);
+		while((iRankedCandidateCount < aPathCount) && (0 < iHeapSize)) {
+			final int candidate = pop();
+			if(iRankedCandidateCount == iRankedCandidateIntArray.length) {
+				iRankedCandidateIntArray = Arrays.copyOf(iRankedCandidateIntArray, Math.max(INITIAL_CANDIDATE_CAPACITY, 2 * iRankedCandidateCount));
+			}
+			iRankedCandidateIntArray[iRankedCandidateCount++] = candidate;
+			ensureCandidateCapacity(iCandidateCount + 2);
+			// its cheapest child: every deviation is worth at least as much as the candidate, and has a row of at least 1
+			pushNextDeviation(candidate, iCandidatePathValueIntArray[candidate], 0);
+			// its next sibling
+			final int parentCandidate = iCandidateParentIntArray[candidate];
+			if(NO_CANDIDATE == parentCandidate) {
+				pushNextLeaf(iCandidatePathValueIntArray[candidate], iCandidateNodeIntArray[candidate]);
+			} else {
+				pushNextDeviation(parentCandidate, iCandidatePathValueIntArray[candidate], iCandidateRowIntArray[candidate]);
+			}
+		}
+		return iRankedCandidateCount;
+	}
+
+	/**
+	 * Rebuilds the path of rank aRank (from 0, cheapest first) of the last findBestPaths
+	 *
+	 * @param aPath where the node values of the path go, starting with the root value like TriangleSolver.runAlgorithm.
+	 * one per row.
+	 * @param aNodeNumberPath where the node numbers of the path go (see TriangleSolver.getNodeNumberPath). one per row.
+	 */
+
+	/*package*/ void makePath(int aRank, int[] aPath, int[] aNodeNumberPath) {
+		final int rankedCandidate = iRankedCandidateIntArray[aRank];
+		// the cheapest path from the root down to the deviation
+		fillBestPathUp(iCandidateRowIntArray[rankedCandidate], iCandidateNodeIntArray[rankedCandidate], 1, aPath, aNodeNumberPath);
+		// then, below it, the path of each candidate it deviates from, down to the deviation of the next one
+		int candidate = rankedCandidate;
+		while(NO_CANDIDATE != iCandidateParentIntArray[candidate]) {
+			final int parentCandidate = iCandidateParentIntArray[candidate];
+			fillBestPathUp(iCandidateRowIntArray[parentCandidate], iCandidateNodeIntArray[parentCandidate], iCandidateRowIntArray[candidate] + 1, aPath, aNodeNumberPath);
+			candidate = parentCandidate;
+		}
+	}
+
+	/**
+	 * pushes the cheapest leaf candidate after (aPathValue, aLeafNode) in the order of value then node number, if any
+	 */
+
+	private void pushNextLeaf(int aPathValue, int aLeafNode) {
+		final int rowCount = iTriangle.getRowCount();
+		int resultNode = 0;
+		int resultPathValue = 0;
+		for(int node = 1 ; node <= rowCount ; ++node) {
+			final int pathValue = getPathValueThrough(rowCount, node);
+			if(isAfter(pathValue, node, aPathValue, aLeafNode) && ((0 == resultNode) || isAfter(resultPathValue, resultNode, pathValue, node))) {
+				resultNode = node;
+				resultPathValue = pathValue;
+			}
+		}
+		if(0 != resultNode) {
+			push(addCandidate(NO_CANDIDATE, rowCount, resultNode, resultPathValue));
+		}
+	}
+
+	/**
+	 * pushes the cheapest child of aCandidate after (aPathValue, aRow) in the order of value then row, if any
+	 */
+
+	private void pushNextDeviation(int aCandidate, int aPathValue, int aRow) {
+		final int candidatePathValue = iCandidatePathValueIntArray[aCandidate];
+		int resultRow = 0;
+		int resultNode = 0;
+		int resultPathValue = 0;
+		// walk up the path of aCandidate, from its deviation. every parent off the path is a child.
+		int row = iCandidateRowIntArray[aCandidate];
+		int node = iCandidateNodeIntArray[aCandidate];
+		while(1 < row) {
+			final int bestParentNode = getBestParentNode(row, node);
+			final int otherParentNode = (bestParentNode == node) ? node - 1 : node;
+			if((1 <= otherParentNode) && (otherParentNode < row)) {
+				final int pathValue = candidatePathValue + getPathValueThrough(row - 1, otherParentNode) - getPathValueThrough(row - 1, bestParentNode);
+				if(isAfter(pathValue, row - 1, aPathValue, aRow) && ((0 == resultRow) || isAfter(resultPathValue, resultRow, pathValue, row - 1))) {
+					resultRow = row - 1;
+					resultNode = otherParentNode;
+					resultPathValue = pathValue;
+				}
+			}
+			--row;
+			node = bestParentNode;
+		}
+		if(0 != resultRow) {
+			push(addCandidate(aCandidate, resultRow, resultNode, resultPathValue));
+		}
+	}
+
+	/**
+	 * @return true if (aPathValue, aTieBreaker) comes after (anOtherPathValue, anOtherTieBreaker):
+	 * a larger value, or the same value and a larger tie breaker
+	 */
+
+	private static boolean isAfter(int aPathValue, int aTieBreaker, int anOtherPathValue, int anOtherTieBreaker) {
+		return (aPathValue > anOtherPathValue) || ((aPathValue == anOtherPathValue) && (aTieBreaker > anOtherTieBreaker));
+	}
+
+	/**
+	 * writes the node values of the cheapest path from node (aCoordinateRow, aCoordinateNode) up to row aTopRow
+	 * into aPathArray, and their node numbers into aNodeNumberPath, one per row
+	 */
+
+	private void fillBestPathUp(int aCoordinateRow, int aCoordinateNode, int aTopRow, int[] aPathArray, int[] aNodeNumberPath) {
+		int node = aCoordinateNode;
+		for(int row = aCoordinateRow ; row >= aTopRow ; --row) {
+			aPathArray[row - 1] = iTriangle.getNodeValue(row, node);
+			aNodeNumberPath[row - 1] = node;
+			if(row > aTopRow) {
+				node = getBestParentNode(row, node);
+			}
+		}
+	}
+
+	/**
+	 * @return the second coordinate of the parent, in row aCoordinateRow - 1, the cheapest path from the root
+	 * to node (aCoordinateRow, aCoordinateNode) comes through. the parent above right on ties.
+	 */
+
+	private int getBestParentNode(int aCoordinateRow, int aCoordinateNode) {
+		if(1 == aCoordinateNode) {
+			return 1;
+		}
+		if(aCoordinateRow == aCoordinateNode) {
+			return aCoordinateNode - 1;
+		}
+		final int leftPathValue = getPathValueThrough(aCoordinateRow - 1, aCoordinateNode - 1);
+		final int rightPathValue = getPathValueThrough(aCoordinateRow - 1, aCoordinateNode);
+		return (leftPathValue < rightPathValue) ? aCoordinateNode - 1 : aCoordinateNode;
+	}
+
+	/**
+	 * @return the value of the cheapest path from the root down to node (aCoordinateRow, aCoordinateNode), its own value included
+	 */
+
+	private int getPathValueThrough(int aCoordinateRow, int aCoordinateNode) {
+		return iTriangle.getNodePathValue(aCoordinateRow, aCoordinateNode) + iTriangle.getNodeValue(aCoordinateRow, aCoordinateNode);
+	}
+
+	private int addCandidate(int aParentCandidate, int aCoordinateRow, int aCoordinateNode, int aPathValue) {
+		iCandidateParentIntArray[iCandidateCount] = aParentCandidate;
+		iCandidateRowIntArray[iCandidateCount] = aCoordinateRow;
+		iCandidateNodeIntArray[iCandidateCount] = aCoordinateNode;
+		iCandidatePathValueIntArray[iCandidateCount] = aPathValue;
+		return iCandidateCount++;
+	}
+
+	/**
+	 * grows the candidate arrays and the heap, at least doubling them, until they can hold aCandidateCount candidates
+	 */
+
+	private void ensureCandidateCapacity(int aCandidateCount) {
+		if((null != iHeapIntArray) && (aCandidateCount <= iHeapIntArray.length)) {
+			return;
+		}
+		final int capacity = (null == iHeapIntArray) ? aCandidateCount : Math.max(aCandidateCount, 2 * iHeapIntArray.length);
+		iCandidateParentIntArray = grow(iCandidateParentIntArray, capacity);
+		iCandidateRowIntArray = grow(iCandidateRowIntArray, capacity);
+		iCandidateNodeIntArray = grow(iCandidateNodeIntArray, capacity);
+		iCandidatePathValueIntArray = grow(iCandidatePathValueIntArray, capacity);
+		iHeapIntArray = grow(iHeapIntArray, capacity);
+	}
+
+	private static int[] grow(int[] anIntArray, int aCapacity) {
+		return (null == anIntArray) ? new int[aCapacity] : Arrays.copyOf(anIntArray, aCapacity);
+	}
+
+	private void push(int aCandidate) {
+		int position = iHeapSize++;
+		final int pathValue = iCandidatePathValueIntArray[aCandidate];
+		while(0 < position) {
+			final int parentPosition = (position - 1) >>> 1;
+			if(iCandidatePathValueIntArray[iHeapIntArray[parentPosition]] <= pathValue) {
+				break;
+			}
+			iHeapIntArray[position] = iHeapIntArray[parentPosition];
+			position = parentPosition;
+		}
+		iHeapIntArray[position] = aCandidate;
+	}
+
+	private int pop() {
+		final int result = iHeapIntArray[0];
+		final int lastCandidate = iHeapIntArray[--iHeapSize];
+		final int pathValue = iCandidatePathValueIntArray[lastCandidate];
+		int position = 0;
+		while(true) {
+			int childPosition = 2 * position + 1;
+			if(childPosition >= iHeapSize) {
+				break;
+			}
+			if((childPosition + 1 < iHeapSize) && (iCandidatePathValueIntArray[iHeapIntArray[childPosition + 1]] < iCandidatePathValueIntArray[iHeapIntArray[childPosition]])) {
+				++childPosition;
+			}
+			if(pathValue <= iCandidatePathValueIntArray[iHeapIntArray[childPosition]]) {
+				break;
+			}
+			iHeapIntArray[position] = iHeapIntArray[childPosition];
+			position = childPosition;
+		}
+		iHeapIntArray[position] = lastCandidate;
+		return result;
+	}
+
+}
@@ -0,0 +1,49 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Maps a whole input file in memory, read-only.
+ *
+ * A MappedByteBuffer is indexed by int, so a file larger than 2GB is mapped
+ * as several consecutive chunks. The bytes are read straight from the page cache:
+ * nothing is copied into the Java heap and the OS can prefetch the file sequentially.
+ */
+
+final class MappedInputFile {
+
+	/*package*/ final static int MAXIMUM_CHUNK_SIZE = 1 << 30;
+
+	private MappedInputFile() {
+		// static methods only
+	}
+
+	/**
+	 * @return the chunks of aPath, in file order, each with its position at 0
+	 * @throws IOException if aPath can't be opened or mapped
+	 */
+
+	/*package*/ static ByteBuffer[] map(Path aPath) throws IOException {
+		return map(aPath, MAXIMUM_CHUNK_SIZE);
+	}
+
+	/*package*/ static ByteBuffer[] map(Path aPath, int aChunkSize) throws IOException {
+		FileChannel fileChannel = FileChannel.open(aPath, StandardOpenOption.READ);
+		try {
+			final long fileSize = fileChannel.size();
+			final int chunkCount = (int)((fileSize + aChunkSize - 1) / aChunkSize);
+			final ByteBuffer[] result = new ByteBuffer[chunkCount];
+			for(int ii = 0 ; ii < chunkCount ; ++ii) {
+				final long chunkPosition = (long)ii * aChunkSize;
+				// a mapping stays valid after its channel is closed
+				result[ii] = fileChannel.map(FileChannel.MapMode.READ_ONLY, chunkPosition, Math.min(aChunkSize, fileSize - chunkPosition));
+			}
+			return result;
+		} finally {
+			fileChannel.close();
+		}
+	}
+
+}
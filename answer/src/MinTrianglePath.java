@@ -1,3 +1,5 @@
+import java.io.IOException;
+
 
 /**
  * 
@@ -32,20 +34,201 @@ public class MinTrianglePath {
 	
 	/*package*/ final static int ROW_COUNT_PERFORMANCE_TARGET = 500;
 
+	/**
+	 * engine names used by the statistics for the solvers that aren't a SolverEngine
+	 */
+
+	private final static String RANKING_ENGINE_NAME = "k-best";
+	private final static String STREAMING_ENGINE_NAME = "stream";
+	private final static String LOW_MEMORY_ENGINE_NAME = "low-memory";
+
 
 	public static void main(String[] args) {
+		MinTrianglePathOptions options = null;
+		try {
+			options = new MinTrianglePathOptions(args);
+		} catch(IllegalArgumentException iaex) {
+			System.out.println(iaex.getMessage());
+			MinTrianglePathOptions.printUsage();
+			return;
+		}
+		if(options.isServer()) {
+			serve(options);
+		} else if(options.isBatch()) {
+			solveBatch(options);
+		} else if(options.isStreaming()) {
+			solveStreaming(options);
+		} else if(options.isLowMemory() || (options.isAutomaticEngine() && AutomaticEngineSelector.isLowMemoryNeeded(options, System.err))) {
+			solveLowMemory(options);
+		} else {
+			solve(options);
+		}
+	}
+
+	/**
+	 * builds a Triangle from the whole input, then solves it.
+	 */
+
+	private static void solve(MinTrianglePathOptions anOptions) {
+		SolveStatistics statistics = new SolveStatistics();
 		Triangle triangle = null;
-		TriangleInputProcessor inputProcessor = new TriangleInputProcessor();
+		TriangleInputProcessor inputProcessor = new TriangleInputProcessor(anOptions.getInputPath(), anOptions.isOffHeap());
 		try {
-			triangle = inputProcessor.makeTriangle();
+			triangle = inputProcessor.makeTriangle(statistics);
 		} catch(TriangleInputException tiex) {
 			tiex.printStackTrace();
 		}
-		if (null != triangle) {
-			DijkstraAlgorithm dijkstra = new DijkstraAlgorithm(triangle.getRowCount());
-			int[] result = dijkstra.runAlgorithm(triangle);		
-			PathOutputProcessor outputProcessor = new PathOutputProcessor();
-			outputProcessor.processPath(result);
+		if ((null != triangle) && anOptions.isPathRanking()) {
+			rankPaths(triangle, anOptions, statistics);
+		} else if (null != triangle) {
+			int candidateIndex = -1;
+			if(anOptions.isAutomaticEngine()) {
+				candidateIndex = AutomaticEngineSelector.selectCandidate(triangle, anOptions, System.err);
+				statistics.setEngine(EngineCostModel.getCandidateName(candidateIndex));
+			} else {
+				statistics.setEngine(getEngineName(anOptions));
+			}
+			long phaseStartTime = System.nanoTime();
+			TriangleSolver solver = (0 > candidateIndex) ? anOptions.getSolverEngine().makeSolver(triangle.getRowCount(), anOptions)
+					: EngineCostModel.makeSolver(candidateIndex, triangle.getRowCount(), anOptions);
+			phaseStartTime = statistics.endPhase(SolveStatistics.Phase.ALLOCATION, phaseStartTime);
+			int[] result = solver.runAlgorithm(triangle);
+			final long solveNanos = System.nanoTime() - phaseStartTime;
+			// the trace-back is timed by the solver, inside runAlgorithm
+			solver.reportStatistics(statistics);
+			statistics.addPhaseNanos(SolveStatistics.Phase.SOLVE, solveNanos - statistics.getPhaseNanos(SolveStatistics.Phase.TRACE_BACK));
+			statistics.recordNodeStorage(triangle.getStorageByteSize());
+			phaseStartTime = System.nanoTime();
+			PathOutputProcessor outputProcessor = new PathOutputProcessor(System.out, anOptions.getOutputFormat());
+			outputProcessor.processPath(result, solver.getNodeNumberPath());
+			statistics.endPhase(SolveStatistics.Phase.OUTPUT, phaseStartTime);
+		}
+		reportStatistics(statistics, anOptions);
+	}
+
+	/**
+	 * prints the k cheapest paths and/or the cheapest path value to every leaf of aTriangle.
+	 */
+
+	private static void rankPaths(Triangle aTriangle, MinTrianglePathOptions anOptions, SolveStatistics aStatistics) {
+		aStatistics.setEngine(RANKING_ENGINE_NAME);
+		long phaseStartTime = System.nanoTime();
+		KBestPathSolver solver = new KBestPathSolver(aTriangle);
+		phaseStartTime = aStatistics.endPhase(SolveStatistics.Phase.SOLVE, phaseStartTime);
+		int pathCount = solver.findBestPaths(anOptions.getBestPathCount());
+		int[] leafPathValues = anOptions.isLeafCosts() ? solver.getLeafPathValues() : null;
+		phaseStartTime = aStatistics.endPhase(SolveStatistics.Phase.TRACE_BACK, phaseStartTime);
+		aStatistics.recordNodeStorage(aTriangle.getStorageByteSize());
+		PathOutputProcessor outputProcessor = new PathOutputProcessor(System.out, anOptions.getOutputFormat());
+		// the paths are rebuilt one at a time, into the same buffers
+		int[] path = new int[aTriangle.getRowCount()];
+		int[] nodeNumberPath = new int[aTriangle.getRowCount()];
+		for(int ii = 0 ; ii < pathCount ; ++ii) {
+			solver.makePath(ii, path, nodeNumberPath);
+			outputProcessor.processPath(path, nodeNumberPath);
+		}
+		outputProcessor.processLeafPathValues(leafPathValues);
+		aStatistics.endPhase(SolveStatistics.Phase.OUTPUT, phaseStartTime);
+	}
+
+	/**
+	 * solves the input one row at a time, without building a Triangle.
+	 * reading, parsing and solving are interleaved, so they are all timed as the solve phase.
+	 */
+
+	private static void solveStreaming(MinTrianglePathOptions anOptions) {
+		SolveStatistics statistics = new SolveStatistics();
+		statistics.setEngine(STREAMING_ENGINE_NAME);
+		StreamingTriangleSolver solver = new StreamingTriangleSolver();
+		int[] result = null;
+		long phaseStartTime = System.nanoTime();
+		try {
+			result = solver.solve(new TriangleInputProcessor(anOptions.getInputPath()));
+		} catch(TriangleInputException tiex) {
+			tiex.printStackTrace();
+		}
+		phaseStartTime = statistics.endPhase(SolveStatistics.Phase.SOLVE, phaseStartTime);
+		if (null != result) {
+			statistics.setRowCount(result.length);
+			statistics.recordNodeStorage(solver.getStorageByteSize());
+			PathOutputProcessor outputProcessor = new PathOutputProcessor(System.out, anOptions.getOutputFormat());
+			outputProcessor.processNodeNumberPath(result, solver.getPathValue());
+			statistics.endPhase(SolveStatistics.Phase.OUTPUT, phaseStartTime);
+		}
+		reportStatistics(statistics, anOptions);
+	}
+
+	/**
+	 * solves the input file twice over, keeping checkpoints rather than the Triangle.
+	 * reading, parsing and solving are interleaved, so they are all timed as the solve phase.
+	 */
+
+	private static void solveLowMemory(MinTrianglePathOptions anOptions) {
+		SolveStatistics statistics = new SolveStatistics();
+		statistics.setEngine(LOW_MEMORY_ENGINE_NAME);
+		CheckpointedTriangleSolver solver = new CheckpointedTriangleSolver();
+		int[] result = null;
+		long phaseStartTime = System.nanoTime();
+		try {
+			result = solver.solve(new TriangleInputProcessor(anOptions.getInputPath()));
+		} catch(TriangleInputException tiex) {
+			tiex.printStackTrace();
+		}
+		phaseStartTime = statistics.endPhase(SolveStatistics.Phase.SOLVE, phaseStartTime);
+		if (null != result) {
+			statistics.setRowCount(result.length);
+			statistics.recordNodeStorage(solver.getStorageByteSize());
+			PathOutputProcessor outputProcessor = new PathOutputProcessor(System.out, anOptions.getOutputFormat());
+			outputProcessor.processNodeNumberPath(result, solver.getPathValue());
+			statistics.endPhase(SolveStatistics.Phase.OUTPUT, phaseStartTime);
+		}
+		reportStatistics(statistics, anOptions);
+	}
+
+	/**
+	 * @return the engine, and the frontier for Dijkstra and A*, as the statistics name them
+	 */
+
+	private static String getEngineName(MinTrianglePathOptions anOptions) {
+		final SolverEngine engine = anOptions.getSolverEngine();
+		if((SolverEngine.DIJKSTRA == engine) || (SolverEngine.A_STAR == engine)) {
+			return engine.getCommandLineName().concat("/").concat(anOptions.getFrontierType().getCommandLineName());
+		}
+		return engine.getCommandLineName();
+	}
+
+	/**
+	 * emits the JFR summary of the run, and prints the statistics to the standard error if they were asked for.
+	 */
+
+	private static void reportStatistics(SolveStatistics aStatistics, MinTrianglePathOptions anOptions) {
+		aStatistics.commitSummary();
+		if(anOptions.isStatistics()) {
+			System.err.println(aStatistics.toJson());
+		}
+	}
+
+	/**
+	 * solves many triangles, printing a summary line for each of them.
+	 */
+
+	private static void solveBatch(MinTrianglePathOptions anOptions) {
+		try {
+			new TriangleBatchSolver(anOptions, System.out).solveAll();
+		} catch(IOException ioex) {
+			ioex.printStackTrace();
+		}
+	}
+
+	/**
+	 * solves the triangles sent over a local socket until the process is stopped.
+	 */
+
+	private static void serve(MinTrianglePathOptions anOptions) {
+		try {
+			new TriangleSolveServer(anOptions, System.out).serve();
+		} catch(IOException ioex) {
+			ioex.printStackTrace();
 		}
 	}
 
@@ -0,0 +1,317 @@
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * MinTrianglePathOptions holds what was asked for on the MinTrianglePath command line.
+ *
+ * Every option has a default so running MinTrianglePath without arguments
+ * behaves like it always did.
+ */
+
+final class MinTrianglePathOptions {
+
+	private final static String OPTION_PREFIX = "--";
+	private final static String ENGINE_OPTION = "--engine=";
+	private final static String FRONTIER_OPTION = "--frontier=";
+	private final static String STREAM_OPTION = "--stream";
+	private final static String GRAIN_OPTION = "--grain=";
+	private final static String THREADS_OPTION = "--threads=";
+	private final static String OFF_HEAP_OPTION = "--off-heap";
+	private final static String BATCH_OPTION = "--batch";
+	private final static String WORKERS_OPTION = "--workers=";
+	private final static String SERVER_OPTION = "--server=";
+	private final static String CACHE_SIZE_OPTION = "--cache-size=";
+	private final static String K_BEST_OPTION = "--k-best=";
+	private final static String LEAF_COSTS_OPTION = "--leaf-costs";
+	private final static String OUTPUT_OPTION = "--output=";
+	private final static String STATISTICS_OPTION = "--stats";
+	private final static String LOW_MEMORY_OPTION = "--low-memory";
+
+	private final static int DEFAULT_CACHE_MEGABYTE_COUNT = 64;
+	private final static int BYTES_PER_MEGABYTE_SHIFT = 20;
+
+	private SolverEngine iSolverEngine = SolverEngine.DIJKSTRA;
+	private boolean isAutomaticEngine = false;
+	private DijkstraFrontierType iFrontierType = DijkstraFrontierType.SORTED_ARRAY;
+	private boolean isStreaming = false;
+	private Path iInputPath = null;
+	private int iGrainSize = ParallelDynamicProgrammingAlgorithm.DEFAULT_GRAIN_SIZE;
+	private int iThreadCount = 0;
+	private boolean isOffHeap = false;
+	private boolean isBatch = false;
+	private int iWorkerCount = Runtime.getRuntime().availableProcessors();
+	private int iServerPort = 0;
+	private int iCacheMegabyteCount = DEFAULT_CACHE_MEGABYTE_COUNT;
+	private int iBestPathCount = 0;
+	private boolean isLeafCosts = false;
+	private PathOutputFormat iOutputFormat = PathOutputFormat.TEXT;
+	private boolean isStatistics = false;
+	private boolean isLowMemory = false;
+
+	/**
+	 * @param anArgumentArray the arguments given to MinTrianglePath.main
+	 * @throws IllegalArgumentException if an argument is unknown or has an invalid value
+	 */
+
+	/*package*/ MinTrianglePathOptions(String[] anArgumentArray) {
+		for(int ii = 0 ; ii < anArgumentArray.length ; ++ii) {
+			final String argument = anArgumentArray[ii];
+			if(argument.equals(ENGINE_OPTION.concat(AutomaticEngineSelector.COMMAND_LINE_NAME))) {
+				isAutomaticEngine = true;
+			} else if(argument.startsWith(ENGINE_OPTION)) {
+				iSolverEngine = SolverEngine.fromCommandLineName(argument.substring(ENGINE_OPTION.length()));
+				isAutomaticEngine = false;
+				if(null == iSolverEngine) {
+					throw new IllegalArgumentException("Unknown engine: " + argument);
+				}
+			} else if(argument.startsWith(FRONTIER_OPTION)) {
+				iFrontierType = DijkstraFrontierType.fromCommandLineName(argument.substring(FRONTIER_OPTION.length()));
+				if(null == iFrontierType) {
+					throw new IllegalArgumentException("Unknown frontier: " + argument);
+				}
+			} else if(argument.equals(STREAM_OPTION)) {
+				isStreaming = true;
+			} else if(argument.startsWith(GRAIN_OPTION)) {
+				iGrainSize = parsePositiveInt(argument, GRAIN_OPTION);
+			} else if(argument.startsWith(THREADS_OPTION)) {
+				iThreadCount = parsePositiveInt(argument, THREADS_OPTION);
+			} else if(argument.equals(OFF_HEAP_OPTION)) {
+				isOffHeap = true;
+			} else if(argument.equals(BATCH_OPTION)) {
+				isBatch = true;
+			} else if(argument.startsWith(WORKERS_OPTION)) {
+				iWorkerCount = parsePositiveInt(argument, WORKERS_OPTION);
+			} else if(argument.startsWith(SERVER_OPTION)) {
+				iServerPort = parsePositiveInt(argument, SERVER_OPTION);
+			} else if(argument.startsWith(CACHE_SIZE_OPTION)) {
+				iCacheMegabyteCount = parsePositiveInt(argument, CACHE_SIZE_OPTION);
+			} else if(argument.startsWith(K_BEST_OPTION)) {
+				iBestPathCount = parsePositiveInt(argument, K_BEST_OPTION);
+			} else if(argument.equals(LEAF_COSTS_OPTION)) {
+				isLeafCosts = true;
+			} else if(argument.equals(STATISTICS_OPTION)) {
+				isStatistics = true;
+			} else if(argument.equals(LOW_MEMORY_OPTION)) {
+				isLowMemory = true;
+			} else if(argument.startsWith(OUTPUT_OPTION)) {
+				iOutputFormat = PathOutputFormat.fromCommandLineName(argument.substring(OUTPUT_OPTION.length()));
+				if(null == iOutputFormat) {
+					throw new IllegalArgumentException("Unknown output format: " + argument);
+				}
+			} else if(!argument.startsWith(OPTION_PREFIX) && (null == iInputPath)) {
+				iInputPath = Paths.get(argument);
+			} else {
+				throw new IllegalArgumentException("Unknown argument: " + argument);
+			}
+		}
+		if(isLowMemory && (null == iInputPath)) {
+			throw new IllegalArgumentException(LOW_MEMORY_OPTION + " reads the input twice, it needs a triangle file");
+		}
+		if(isAutomaticEngine && (isBatch || (0 != iServerPort))) {
+			throw new IllegalArgumentException(ENGINE_OPTION + AutomaticEngineSelector.COMMAND_LINE_NAME + " picks an engine for a single triangle, not in batch or server mode");
+		}
+	}
+
+	/**
+	 * @return the value of anArgument, made of anOption followed by a strictly positive integer
+	 * @throws IllegalArgumentException if the value isn't a strictly positive integer
+	 */
+
+	private static int parsePositiveInt(String anArgument, String anOption) {
+		int result = 0;
+		try {
+			result = Integer.parseInt(anArgument.substring(anOption.length()));
+		} catch (NumberFormatException nfex) {
+			// reported below
+		}
+		if(0 >= result) {
+			throw new IllegalArgumentException("Not a strictly positive integer: " + anArgument);
+		}
+		return result;
+	}
+
+	/*package*/ SolverEngine getSolverEngine() {
+		return iSolverEngine;
+	}
+
+	/**
+	 * @return true to let AutomaticEngineSelector pick the engine, rather than getSolverEngine()
+	 */
+
+	/*package*/ boolean isAutomaticEngine() {
+		return isAutomaticEngine;
+	}
+
+	/*package*/ DijkstraFrontierType getFrontierType() {
+		return iFrontierType;
+	}
+
+	/**
+	 * @return true to solve row by row with a StreamingTriangleSolver instead of building a Triangle
+	 */
+
+	/*package*/ boolean isStreaming() {
+		return isStreaming;
+	}
+
+	/**
+	 * @return the file to read the triangle from, null for the standard input
+	 */
+
+	/*package*/ Path getInputPath() {
+		return iInputPath;
+	}
+
+	/**
+	 * @return number of nodes under which the parallel engine stops splitting a row
+	 */
+
+	/*package*/ int getGrainSize() {
+		return iGrainSize;
+	}
+
+	/**
+	 * @return number of threads of the parallel engine. 0 for the common fork/join pool.
+	 */
+
+	/*package*/ int getThreadCount() {
+		return iThreadCount;
+	}
+
+	/**
+	 * @return true to keep the node values of the Triangle outside of the Java heap
+	 */
+
+	/*package*/ boolean isOffHeap() {
+		return isOffHeap;
+	}
+
+	/**
+	 * @return true to solve many triangles (see TriangleBatchSolver) instead of one
+	 */
+
+	/*package*/ boolean isBatch() {
+		return isBatch;
+	}
+
+	/**
+	 * @return number of triangles solved at the same time in batch mode
+	 */
+
+	/*package*/ int getWorkerCount() {
+		return iWorkerCount;
+	}
+
+	/**
+	 * @return true to run as a TriangleSolveServer instead of solving the input
+	 */
+
+	/*package*/ boolean isServer() {
+		return 0 != iServerPort;
+	}
+
+	/**
+	 * @return local port a TriangleSolveServer listens to
+	 */
+
+	/*package*/ int getServerPort() {
+		return iServerPort;
+	}
+
+	/**
+	 * @return memory cap of the server result cache, in bytes
+	 */
+
+	/*package*/ long getCacheByteSize() {
+		return (long)iCacheMegabyteCount << BYTES_PER_MEGABYTE_SHIFT;
+	}
+
+	/**
+	 * @return number of cheapest paths to print (see KBestPathSolver). 0 to print the minimal path of the engine.
+	 */
+
+	/*package*/ int getBestPathCount() {
+		return iBestPathCount;
+	}
+
+	/**
+	 * @return true to print the cheapest path value to every leaf (see KBestPathSolver)
+	 */
+
+	/*package*/ boolean isLeafCosts() {
+		return isLeafCosts;
+	}
+
+	/**
+	 * @return true when a KBestPathSolver, rather than the engine, is needed
+	 */
+
+	/*package*/ boolean isPathRanking() {
+		return (0 < iBestPathCount) || isLeafCosts;
+	}
+
+	/*package*/ PathOutputFormat getOutputFormat() {
+		return iOutputFormat;
+	}
+
+	/**
+	 * @return true to print phase times, engine internals and memory to the standard error (see SolveStatistics)
+	 */
+
+	/*package*/ boolean isStatistics() {
+		return isStatistics;
+	}
+
+	/**
+	 * @return true to solve with a CheckpointedTriangleSolver, reading the input file twice instead of building a Triangle
+	 */
+
+	/*package*/ boolean isLowMemory() {
+		return isLowMemory;
+	}
+
+	/*package*/ static void printUsage() {
+		System.out.println("Usage: java MinTrianglePath [options] [triangle file]");
+		System.out.println("[triangle file] optional, read (memory mapped) instead of the standard input");
+		System.out.print("--engine=<name> optional, one of:");
+		final SolverEngine[] engineArray = SolverEngine.values();
+		for(int ii = 0 ; ii < engineArray.length ; ++ii) {
+			System.out.print(" ");
+			System.out.print(engineArray[ii].getCommandLineName());
+		}
+		System.out.print(" ");
+		System.out.print(AutomaticEngineSelector.COMMAND_LINE_NAME);
+		System.out.println(". default is " + SolverEngine.DIJKSTRA.getCommandLineName());
+		System.out.println("    " + AutomaticEngineSelector.COMMAND_LINE_NAME + " picks the engine a cost model, measured once on this host and kept in ~/.minTrianglePath, predicts to be the fastest. says why on the standard error");
+		System.out.println("    " + SolverEngine.A_STAR.getCommandLineName() + " is Dijkstra ordered by a lower bound of the whole path, stopping at the first final leaf");
+		System.out.println("    " + SolverEngine.VECTOR.getCommandLineName() + " uses SIMD when the JVM runs with --add-modules jdk.incubator.vector, scalar code otherwise");
+		System.out.print("--frontier=<name> optional, Dijkstra and A* frontier, one of:");
+		final DijkstraFrontierType[] frontierTypeArray = DijkstraFrontierType.values();
+		for(int ii = 0 ; ii < frontierTypeArray.length ; ++ii) {
+			System.out.print(" ");
+			System.out.print(frontierTypeArray[ii].getCommandLineName());
+		}
+		System.out.println(". default is " + DijkstraFrontierType.SORTED_ARRAY.getCommandLineName());
+		System.out.println("--grain=<node count> optional, parallel engine: rows are split in segments of about that many nodes. default is " + ParallelDynamicProgrammingAlgorithm.DEFAULT_GRAIN_SIZE);
+		System.out.println("--threads=<thread count> optional, parallel engine: number of threads. default is the common fork/join pool");
+		System.out.println("--off-heap optional, keep the node values outside of the Java heap (see -XX:MaxDirectMemorySize). automatic past 65535 rows");
+		System.out.println("--stream optional, solve one row at a time without keeping the triangle. prints node numbers instead of node values");
+		System.out.println("--batch optional, solve every file of a directory, or every triangle of the input (triangles separated by blank lines). prints one summary line per triangle");
+		System.out.println("--workers=<thread count> optional, batch and server modes: number of triangles solved at the same time. default is the number of processors");
+		System.out.println("--server=<port> optional, stay resident and solve the triangles sent to that local port, one per connection. send \"" + TriangleSolveServer.STATISTICS_REQUEST + "\" for the cache counters");
+		System.out.println("--cache-size=<megabytes> optional, server mode: memory cap of the result cache. default is " + DEFAULT_CACHE_MEGABYTE_COUNT);
+		System.out.print("--output=<format> optional, how paths are written, one of:");
+		final PathOutputFormat[] outputFormatArray = PathOutputFormat.values();
+		for(int ii = 0 ; ii < outputFormatArray.length ; ++ii) {
+			System.out.print(" ");
+			System.out.print(outputFormatArray[ii].getCommandLineName());
+		}
+		System.out.println(". default is " + PathOutputFormat.TEXT.getCommandLineName());
+		System.out.println("    compact prints the path value, then the node number of each row from the root (1)");
+		System.out.println("--low-memory optional, needs a triangle file. solve with about n*sqrt(n) bytes for n rows, reading the file twice. prints node numbers like --stream");
+		System.out.println("--stats optional, print phase times, engine internals and memory as one line of JSON on the standard error. not in batch or server mode");
+		System.out.println("--k-best=<path count> optional, print that many cheapest paths, cheapest first, instead of the minimal path. replaces the engine");
+		System.out.println("--leaf-costs optional, print the cheapest path value to every leaf, leaf 1 first. replaces the engine");
+	}
+
+}
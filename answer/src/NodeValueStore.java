@@ -0,0 +1,182 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Where Triangle keeps its node values, indexed by node number (see Triangle.getNodeIndex).
+ *
+ * Most triangles only hold small values, so storing them all as int wastes memory and cache.
+ * There is one NodeValueStore per value width (byte, short, int). Triangle starts with the
+ * narrowest one and switches to a wider one (see widen) the first time a value doesn't fit.
+ *
+ * Node indexes are long: a triangle of more than 65535 rows has more nodes than a Java array
+ * can hold, so its node values go off-heap (see OffHeapNodeValueStore).
+ */
+
+abstract class NodeValueStore {
+
+	/**
+	 * largest array the JVMs we run on agree to allocate
+	 */
+
+	/*package*/ final static long MAXIMUM_HEAP_NODE_COUNT = Integer.MAX_VALUE - 8;
+
+	/**
+	 * @return a new NodeValueStore of aNodeCount values, each aValueByteCount bytes (1, 2 or 4) wide.
+	 * on the heap, unless aIsOffHeap or aNodeCount is too large for an array.
+	 */
+
+	/*package*/ static NodeValueStore make(int aValueByteCount, long aNodeCount, boolean aIsOffHeap) {
+		if(aIsOffHeap || (MAXIMUM_HEAP_NODE_COUNT < aNodeCount)) {
+			return new OffHeapNodeValueStore(aValueByteCount, aNodeCount);
+		}
+		switch(aValueByteCount) {
+		case Byte.BYTES:
+			return new ByteNodeValueStore((int)aNodeCount);
+		case Short.BYTES:
+			return new ShortNodeValueStore((int)aNodeCount);
+		case Integer.BYTES:
+			return new IntNodeValueStore((int)aNodeCount);
+		default:
+			throw new IllegalArgumentException("Unsupported value size: " + aValueByteCount);
+		}
+	}
+
+	/**
+	 * @return the smallest value size (in bytes) able to hold every value from aMinimumValue to aMaximumValue
+	 */
+
+	/*package*/ static int getValueByteCount(int aMinimumValue, int aMaximumValue) {
+		if((Byte.MIN_VALUE <= aMinimumValue) && (Byte.MAX_VALUE >= aMaximumValue)) {
+			return Byte.BYTES;
+		}
+		if((Short.MIN_VALUE <= aMinimumValue) && (Short.MAX_VALUE >= aMaximumValue)) {
+			return Short.BYTES;
+		}
+		return Integer.BYTES;
+	}
+
+	/*package*/ abstract int getValueByteCount();
+
+	/*package*/ abstract long getNodeCount();
+
+	/*package*/ abstract int get(long aNodeIndex);
+
+	/**
+	 * aValue must fit (see canHold). it is silently truncated otherwise.
+	 */
+
+	/*package*/ abstract void set(long aNodeIndex, int aValue);
+
+	/*package*/ abstract boolean canHold(int aValue);
+
+	/*package*/ boolean isOffHeap() {
+		return false;
+	}
+
+	/*package*/ long getByteSize() {
+		return getNodeCount() * getValueByteCount();
+	}
+
+	/**
+	 * @return a copy of this NodeValueStore, wide enough to also hold aValue
+	 */
+
+	/*package*/ NodeValueStore widen(int aValue) {
+		final int valueByteCount = Math.max(getValueByteCount(), getValueByteCount(aValue, aValue));
+		final NodeValueStore result = make(valueByteCount, getNodeCount(), isOffHeap());
+		final long nodeCount = getNodeCount();
+		for(long ii = 0 ; ii < nodeCount ; ++ii) {
+			result.set(ii, get(ii));
+		}
+		return result;
+	}
+
+	/**
+	 * @return the smallest of the first aNodeCount values
+	 */
+
+	/*package*/ int getMinimumValue(long aNodeCount) {
+		int result = Integer.MAX_VALUE;
+		for(long ii = 0 ; ii < aNodeCount ; ++ii) {
+			result = Math.min(result, get(ii));
+		}
+		return result;
+	}
+
+	/**
+	 * @return the largest of the first aNodeCount values
+	 */
+
+	/*package*/ int getMaximumValue(long aNodeCount) {
+		int result = Integer.MIN_VALUE;
+		for(long ii = 0 ; ii < aNodeCount ; ++ii) {
+			result = Math.max(result, get(ii));
+		}
+		return result;
+	}
+
+	/**
+	 * Copies aCount values, from node aFirstNodeIndex on, into anIntArray from index 0.
+	 * Subclasses copy straight from their array.
+	 */
+
+	/*package*/ void getValues(long aFirstNodeIndex, int[] anIntArray, int aCount) {
+		for(int ii = 0 ; ii < aCount ; ++ii) {
+			anIntArray[ii] = get(aFirstNodeIndex + ii);
+		}
+	}
+
+	/**
+	 * Reads aBuffer from its position and moves the position past the values copied.
+	 * Subclasses bulk-copy when aValueByteCount is their own value width.
+	 *
+	 * @param aValueByteCount size of a (signed) value in aBuffer: 1, 2 or 4. must not be wider than this store.
+	 * @return number of values copied. stops at the end of aBuffer or at the last node, whichever comes first.
+	 */
+
+	/*package*/ int setValues(long aFirstNodeIndex, ByteBuffer aBuffer, int aValueByteCount) {
+		final int result = (int)Math.min(aBuffer.remaining() / aValueByteCount, getNodeCount() - aFirstNodeIndex);
+		for(long ii = aFirstNodeIndex ; ii < aFirstNodeIndex + result ; ++ii) {
+			switch(aValueByteCount) {
+			case Integer.BYTES:
+				set(ii, aBuffer.getInt());
+				break;
+			case Short.BYTES:
+				set(ii, aBuffer.getShort());
+				break;
+			case Byte.BYTES:
+				set(ii, aBuffer.get());
+				break;
+			default:
+				throw new IllegalArgumentException("Unsupported value size: " + aValueByteCount);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * The opposite of setValues. Values must fit in aValueByteCount bytes: they are silently truncated otherwise.
+	 *
+	 * @return number of values copied. stops at the end of aBuffer or at the last node, whichever comes first.
+	 */
+
+	/*package*/ int getValues(long aFirstNodeIndex, ByteBuffer aBuffer, int aValueByteCount) {
+		final int result = (int)Math.min(aBuffer.remaining() / aValueByteCount, getNodeCount() - aFirstNodeIndex);
+		for(long ii = aFirstNodeIndex ; ii < aFirstNodeIndex + result ; ++ii) {
+			switch(aValueByteCount) {
+			case Integer.BYTES:
+				aBuffer.putInt(get(ii));
+				break;
+			case Short.BYTES:
+				aBuffer.putShort((short)get(ii));
+				break;
+			case Byte.BYTES:
+				aBuffer.put((byte)get(ii));
+				break;
+			default:
+				throw new IllegalArgumentException("Unsupported value size: " + aValueByteCount);
+			}
+		}
+		return result;
+	}
+
+}
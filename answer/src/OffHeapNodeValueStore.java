@@ -0,0 +1,143 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * NodeValueStore outside of the Java heap, in direct ByteBuffer chunks, for any value width.
+ *
+ * The garbage collector never has to look at (or copy) the node values, and the node count
+ * is only limited by the memory of the computer: a 500K rows triangle is 125G nodes.
+ * Direct memory is capped by -XX:MaxDirectMemorySize (the maximum heap size by default),
+ * so very large triangles need that JVM option.
+ *
+ * The chunk size is a power of 2 divisible by every value width, so no value ever straddles 2 chunks
+ * and a node index turns into a chunk and a position with a shift and a mask.
+ */
+
+final class OffHeapNodeValueStore extends NodeValueStore {
+
+	private final static int CHUNK_SIZE_SHIFT = 30; // bytes per chunk, as a power of 2 (1GB chunks)
+	private final static long CHUNK_SIZE = 1L << CHUNK_SIZE_SHIFT;
+	private final static long CHUNK_POSITION_MASK = CHUNK_SIZE - 1;
+
+	private final ByteBuffer[] iChunkArray;
+	private final long iNodeCount;
+	private final int iValueByteCount;
+	private final int iValueByteCountShift;
+
+	/**
+	 * @param aValueByteCount size of a node value: 1, 2 or 4 bytes
+	 */
+
+	/*package*/ OffHeapNodeValueStore(int aValueByteCount, long aNodeCount) {
+		if((Byte.BYTES != aValueByteCount) && (Short.BYTES != aValueByteCount) && (Integer.BYTES != aValueByteCount)) {
+			throw new IllegalArgumentException("Unsupported value size: " + aValueByteCount);
+		}
+		iNodeCount = aNodeCount;
+		iValueByteCount = aValueByteCount;
+		iValueByteCountShift = Integer.numberOfTrailingZeros(aValueByteCount);
+		final long byteCount = aNodeCount << iValueByteCountShift;
+		iChunkArray = new ByteBuffer[(int)((byteCount + CHUNK_SIZE - 1) >>> CHUNK_SIZE_SHIFT)];
+		for(int ii = 0 ; ii < iChunkArray.length ; ++ii) {
+			// only the last chunk can be shorter
+			final long chunkSize = Math.min(CHUNK_SIZE, byteCount - ((long)ii << CHUNK_SIZE_SHIFT));
+			iChunkArray[ii] = ByteBuffer.allocateDirect((int)chunkSize).order(ByteOrder.nativeOrder());
+		}
+	}
+
+	/*package*/ int getValueByteCount() {
+		return iValueByteCount;
+	}
+
+	/*package*/ long getNodeCount() {
+		return iNodeCount;
+	}
+
+	/*package*/ boolean isOffHeap() {
+		return true;
+	}
+
+	/*package*/ int get(long aNodeIndex) {
+		final long byteOffset = aNodeIndex << iValueByteCountShift;
+		final ByteBuffer chunk = iChunkArray[(int)(byteOffset >>> CHUNK_SIZE_SHIFT)];
+		final int position = (int)(byteOffset & CHUNK_POSITION_MASK);
+		switch(iValueByteCount) {
+		case Byte.BYTES:
+			return chunk.get(position);
+		case Short.BYTES:
+			return chunk.getShort(position);
+		default:
+			return chunk.getInt(position);
+		}
+	}
+
+	/*package*/ void set(long aNodeIndex, int aValue) {
+		final long byteOffset = aNodeIndex << iValueByteCountShift;
+		final ByteBuffer chunk = iChunkArray[(int)(byteOffset >>> CHUNK_SIZE_SHIFT)];
+		final int position = (int)(byteOffset & CHUNK_POSITION_MASK);
+		switch(iValueByteCount) {
+		case Byte.BYTES:
+			chunk.put(position, (byte)aValue);
+			break;
+		case Short.BYTES:
+			chunk.putShort(position, (short)aValue);
+			break;
+		default:
+			chunk.putInt(position, aValue);
+			break;
+		}
+	}
+
+	/*package*/ boolean canHold(int aValue) {
+		return getValueByteCount(aValue, aValue) <= iValueByteCount;
+	}
+
+	/*package*/ int setValues(long aFirstNodeIndex, ByteBuffer aBuffer, int aValueByteCount) {
+		if(!isBulkCopyable(aBuffer, aValueByteCount)) {
+			return super.setValues(aFirstNodeIndex, aBuffer, aValueByteCount);
+		}
+		final int result = (int)Math.min(aBuffer.remaining() >> iValueByteCountShift, iNodeCount - aFirstNodeIndex);
+		long byteOffset = aFirstNodeIndex << iValueByteCountShift;
+		int copiedByteCount = 0;
+		while(copiedByteCount < (result << iValueByteCountShift)) {
+			final ByteBuffer chunk = iChunkArray[(int)(byteOffset >>> CHUNK_SIZE_SHIFT)].duplicate();
+			chunk.position((int)(byteOffset & CHUNK_POSITION_MASK));
+			final int byteCount = Math.min(chunk.remaining(), (result << iValueByteCountShift) - copiedByteCount);
+			final ByteBuffer source = aBuffer.duplicate();
+			source.limit(source.position() + byteCount);
+			chunk.put(source);
+			aBuffer.position(aBuffer.position() + byteCount);
+			copiedByteCount += byteCount;
+			byteOffset += byteCount;
+		}
+		return result;
+	}
+
+	/*package*/ int getValues(long aFirstNodeIndex, ByteBuffer aBuffer, int aValueByteCount) {
+		if(!isBulkCopyable(aBuffer, aValueByteCount)) {
+			return super.getValues(aFirstNodeIndex, aBuffer, aValueByteCount);
+		}
+		final int result = (int)Math.min(aBuffer.remaining() >> iValueByteCountShift, iNodeCount - aFirstNodeIndex);
+		long byteOffset = aFirstNodeIndex << iValueByteCountShift;
+		int copiedByteCount = 0;
+		while(copiedByteCount < (result << iValueByteCountShift)) {
+			final ByteBuffer chunk = iChunkArray[(int)(byteOffset >>> CHUNK_SIZE_SHIFT)].duplicate();
+			chunk.position((int)(byteOffset & CHUNK_POSITION_MASK));
+			final int byteCount = Math.min(chunk.remaining(), (result << iValueByteCountShift) - copiedByteCount);
+			chunk.limit(chunk.position() + byteCount);
+			aBuffer.put(chunk);
+			copiedByteCount += byteCount;
+			byteOffset += byteCount;
+		}
+		return result;
+	}
+
+	/**
+	 * @return true if the values of aBuffer can be copied from or to the chunks as they are:
+	 * same value width and, unless values are single bytes, same byte order.
+	 */
+
+	private boolean isBulkCopyable(ByteBuffer aBuffer, int aValueByteCount) {
+		return (iValueByteCount == aValueByteCount) && ((Byte.BYTES == aValueByteCount) || (aBuffer.order() == ByteOrder.nativeOrder()));
+	}
+
+}
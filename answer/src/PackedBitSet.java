@@ -0,0 +1,120 @@
+import java.util.Arrays;
+
+/**
+ * One bit per triangle node, packed into pages of longs.
+ *
+ * A single long[] caps out at 2^31 entries, i.e. 2^37 bits, and a large triangle would need
+ * one huge contiguous allocation. Pages keep each allocation reasonably small and let the
+ * bit index be a long.
+ */
+
+final class PackedBitSet {
+
+	private final static int PAGE_SIZE_SHIFT = 20; // longs per page, as a power of 2 (8MB pages)
+	private final static int PAGE_SIZE = 1 << PAGE_SIZE_SHIFT;
+	private final static int BIT_INDEX_SHIFT = 6; // 64 bits in a long
+
+	private long[][] iPageArray;
+	private long iBitCapacity;
+
+	/**
+	 * @param aBitCount number of bits this PackedBitSet can hold without growing.
+	 */
+
+	/*package*/ PackedBitSet(long aBitCount) {
+		iPageArray = new long[0][];
+		ensureCapacity(aBitCount);
+	}
+
+	/**
+	 * Grows the bit set until it can hold aBitCount bits. Existing bits are kept.
+	 *
+	 * A short last page at least doubles when it grows, so growing the bit set
+	 * one row at a time doesn't copy the same bits over and over.
+	 */
+
+	/*package*/ void ensureCapacity(long aBitCount) {
+		if(aBitCount > iBitCapacity) {
+			final long longCount = (aBitCount + 63) >>> BIT_INDEX_SHIFT;
+			final int pageCount = (int)((longCount + PAGE_SIZE - 1) >>> PAGE_SIZE_SHIFT);
+			final long[][] pageArray = new long[pageCount][];
+			System.arraycopy(iPageArray, 0, pageArray, 0, iPageArray.length);
+			final int firstGrownPage = (0 < iPageArray.length && iPageArray[iPageArray.length - 1].length < PAGE_SIZE) ? iPageArray.length - 1 : iPageArray.length;
+			for(int ii = firstGrownPage ; ii < pageCount ; ++ii) {
+				final long[] oldPage = pageArray[ii];
+				int pageSize = (int)Math.min(PAGE_SIZE, longCount - ((long)ii << PAGE_SIZE_SHIFT));
+				if(null != oldPage) {
+					pageSize = Math.max(pageSize, Math.min(PAGE_SIZE, 2 * oldPage.length));
+				}
+				pageArray[ii] = new long[pageSize];
+				if(null != oldPage) {
+					System.arraycopy(oldPage, 0, pageArray[ii], 0, oldPage.length);
+				}
+			}
+			iPageArray = pageArray;
+			iBitCapacity = ((long)(pageCount - 1) << (PAGE_SIZE_SHIFT + BIT_INDEX_SHIFT)) + ((long)pageArray[pageCount - 1].length << BIT_INDEX_SHIFT);
+		}
+	}
+
+	/*package*/ long getBitCapacity() {
+		return iBitCapacity;
+	}
+
+	/**
+	 * @return number of bytes held by the pages of this PackedBitSet
+	 */
+
+	/*package*/ long getByteSize() {
+		return iBitCapacity >>> 3;
+	}
+
+	/*package*/ boolean get(long aBitIndex) {
+		final long longIndex = aBitIndex >>> BIT_INDEX_SHIFT;
+		return 0L != (iPageArray[(int)(longIndex >>> PAGE_SIZE_SHIFT)][(int)(longIndex & (PAGE_SIZE - 1))] & (1L << aBitIndex));
+	}
+
+	/*package*/ void set(long aBitIndex, boolean aValue) {
+		final long longIndex = aBitIndex >>> BIT_INDEX_SHIFT;
+		final long[] page = iPageArray[(int)(longIndex >>> PAGE_SIZE_SHIFT)];
+		final int pageIndex = (int)(longIndex & (PAGE_SIZE - 1));
+		if(aValue) {
+			page[pageIndex] |= (1L << aBitIndex);
+		} else {
+			page[pageIndex] &= ~(1L << aBitIndex);
+		}
+	}
+
+	/**
+	 * Sets aBitCount bits at once, from aBitIndex on: bit ii of aBits goes to aBitIndex + ii.
+	 * The bits of aBits above aBitCount are ignored.
+	 *
+	 * @param aBitCount from 1 to 64
+	 */
+
+	/*package*/ void setBits(long aBitIndex, long aBits, int aBitCount) {
+		final long bitMask = (Long.SIZE == aBitCount) ? -1L : ((1L << aBitCount) - 1);
+		final long bits = aBits & bitMask;
+		final int bitShift = (int)(aBitIndex & (Long.SIZE - 1));
+		final long longIndex = aBitIndex >>> BIT_INDEX_SHIFT;
+		long[] page = iPageArray[(int)(longIndex >>> PAGE_SIZE_SHIFT)];
+		int pageIndex = (int)(longIndex & (PAGE_SIZE - 1));
+		page[pageIndex] = (page[pageIndex] & ~(bitMask << bitShift)) | (bits << bitShift);
+		if(Long.SIZE < bitShift + aBitCount) {
+			// the rest goes at the bottom of the next long, maybe on the next page
+			page = iPageArray[(int)((longIndex + 1) >>> PAGE_SIZE_SHIFT)];
+			pageIndex = (int)((longIndex + 1) & (PAGE_SIZE - 1));
+			page[pageIndex] = (page[pageIndex] & ~(bitMask >>> (Long.SIZE - bitShift))) | (bits >>> (Long.SIZE - bitShift));
+		}
+	}
+
+	/**
+	 * Sets every bit to false, without releasing any page.
+	 */
+
+	/*package*/ void clear() {
+		for(int ii = 0 ; ii < iPageArray.length ; ++ii) {
+			Arrays.fill(iPageArray[ii], 0L);
+		}
+	}
+
+}
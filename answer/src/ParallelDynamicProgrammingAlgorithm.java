@@ -0,0 +1,233 @@
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Same bottom-up dynamic programming as DynamicProgrammingAlgorithm, but each row is folded
+ * by several threads at once (a wavefront moving up the triangle one row at a time).
+ *
+ * The minimal path values of a row only depend on the row below it, so a row can be cut into
+ * segments folded concurrently with fork/join:
+ * - the row below is read from one buffer and the row being folded is written to another one,
+ * then the buffers are swapped. (folding in place would let a segment overwrite a value
+ * the segment on its left still has to read)
+ * - segments start on a multiple of 64 in the bit set, so no two threads ever update the same long.
+ * - rows shorter than 2 segments are folded sequentially: forking would cost more than it saves.
+ *
+ * The decisions are exactly the ones of DynamicProgrammingAlgorithm so both return the same path.
+ *
+ */
+
+final class ParallelDynamicProgrammingAlgorithm implements TriangleSolver {
+
+	/**
+	 * default number of nodes folded by a single task: 16K nodes is 64KB per int buffer,
+	 * which keeps a segment of both buffers in a typical L2 cache.
+	 */
+
+	/*package*/ final static int DEFAULT_GRAIN_SIZE = 1 << 14;
+
+	private final static int BITS_PER_LONG = 64;
+
+	/**
+	 * the pools made for --threads, one per thread count, shared by every solver of the process
+	 * (batch and server workers, solvers replaced by ReusableTriangleSolver, calibration runs),
+	 * least recently used first, with the number of runAlgorithm using each of them right now.
+	 * Past MAXIMUM_IDLE_POOL_COUNT pools nobody uses, the least recently used ones are shut down.
+	 */
+
+	private final static int MAXIMUM_IDLE_POOL_COUNT = 2;
+	private final static Map<Integer, ForkJoinPool> FORK_JOIN_POOL_MAP = new LinkedHashMap<Integer, ForkJoinPool>(16, 0.75f, true);
+	private final static Map<Integer, Integer> POOL_USER_COUNT_MAP = new HashMap<Integer, Integer>();
+
+	private int[] iRowSumIntArray;
+	private int[] iFoldedRowSumIntArray;
+	private final PackedBitSet iIsRightChildBitSet;
+
+	/**
+	 * time the last runAlgorithm spent following iIsRightChildBitSet, for reportStatistics
+	 */
+
+	private long iTraceBackNanos;
+
+	/**
+	 * node numbers of the path the last runAlgorithm returned, for getNodeNumberPath
+	 */
+
+	private int[] iNodeNumberPath = new int[0];
+	private final int iThreadCount;
+	private final int iGrainSize;
+
+	/**
+	 * @param aGrainSize number of nodes under which a segment isn't split any further. rounded up to a multiple of 64, at least 128.
+	 * @param aThreadCount number of threads folding a row. 0, or the number of processors, to share the common fork/join pool
+	 * (the thread calling runAlgorithm works along with its processors - 1 threads).
+	 * otherwise the pool of that many threads is shared with the other solvers made with the same count.
+	 */
+
+	/*package*/ ParallelDynamicProgrammingAlgorithm(int aRowCount, int aGrainSize, int aThreadCount) {
+		iRowSumIntArray = new int[aRowCount];
+		iFoldedRowSumIntArray = new int[aRowCount];
+		iIsRightChildBitSet = new PackedBitSet(((long)aRowCount * (aRowCount + 1)) / 2);
+		// at least 2 longs, so splitting a segment in the middle then going back to a multiple of 64 never gives an empty half
+		iGrainSize = Math.max(2 * BITS_PER_LONG, ((aGrainSize + BITS_PER_LONG - 1) / BITS_PER_LONG) * BITS_PER_LONG);
+		iThreadCount = (Runtime.getRuntime().availableProcessors() == aThreadCount) ? 0 : aThreadCount;
+	}
+
+	/**
+	 * @return the pool of aThreadCount threads, made on first use. to be given back with releaseForkJoinPool.
+	 */
+
+	private static synchronized ForkJoinPool acquireForkJoinPool(int aThreadCount) {
+		final Integer threadCount = Integer.valueOf(aThreadCount);
+		ForkJoinPool result = FORK_JOIN_POOL_MAP.get(threadCount);
+		if(null == result) {
+			result = new ForkJoinPool(aThreadCount);
+			FORK_JOIN_POOL_MAP.put(threadCount, result);
+			POOL_USER_COUNT_MAP.put(threadCount, Integer.valueOf(0));
+		}
+		POOL_USER_COUNT_MAP.put(threadCount, Integer.valueOf(POOL_USER_COUNT_MAP.get(threadCount).intValue() + 1));
+		return result;
+	}
+
+	/**
+	 * gives back the pool of aThreadCount threads, and shuts down the least recently used pools nobody uses,
+	 * past MAXIMUM_IDLE_POOL_COUNT of them
+	 */
+
+	private static synchronized void releaseForkJoinPool(int aThreadCount) {
+		final Integer threadCount = Integer.valueOf(aThreadCount);
+		POOL_USER_COUNT_MAP.put(threadCount, Integer.valueOf(POOL_USER_COUNT_MAP.get(threadCount).intValue() - 1));
+		int idlePoolCount = 0;
+		for(Integer userCount : POOL_USER_COUNT_MAP.values()) {
+			if(0 == userCount.intValue()) {
+				++idlePoolCount;
+			}
+		}
+		final Iterator<Map.Entry<Integer, ForkJoinPool>> poolIterator = FORK_JOIN_POOL_MAP.entrySet().iterator();
+		while((MAXIMUM_IDLE_POOL_COUNT < idlePoolCount) && poolIterator.hasNext()) {
+			final Map.Entry<Integer, ForkJoinPool> poolEntry = poolIterator.next();
+			if(0 == POOL_USER_COUNT_MAP.get(poolEntry.getKey()).intValue()) {
+				poolEntry.getValue().shutdown();
+				poolIterator.remove();
+				POOL_USER_COUNT_MAP.remove(poolEntry.getKey());
+				--idlePoolCount;
+			}
+		}
+	}
+
+	/**
+	 * Overwrites the content of the row buffers and iIsRightChildBitSet
+	 *
+	 * @return an int[] containing the node values of a minimal path to a leaf in aTriangle
+	 */
+
+	public int[] runAlgorithm(Triangle aTriangle) {
+		final int rowCount = aTriangle.getRowCount();
+		if(0 == rowCount) {
+			iNodeNumberPath = new int[0];
+			return new int[0];
+		}
+		// the leaf row is its own minimal path
+		for(int ii = 0 ; ii < rowCount ; ++ii) {
+			iRowSumIntArray[ii] = aTriangle.getNodeValue(rowCount, ii + 1);
+		}
+		// only rows of 2 segments or more are forked: no pool at all for a small triangle
+		final boolean isForking = (rowCount - 1 >= 2 * iGrainSize);
+		ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+		if(isForking && (0 < iThreadCount)) {
+			forkJoinPool = acquireForkJoinPool(iThreadCount);
+		}
+		try {
+			for(int row = rowCount - 1 ; row > 0 ; --row) {
+				if(row < 2 * iGrainSize) {
+					foldRowSegment(aTriangle, row, 0, row, iRowSumIntArray, iFoldedRowSumIntArray);
+				} else {
+					forkJoinPool.invoke(new RowSegmentTask(aTriangle, row, 0, row, iRowSumIntArray, iFoldedRowSumIntArray));
+				}
+				final int[] swapIntArray = iRowSumIntArray;
+				iRowSumIntArray = iFoldedRowSumIntArray;
+				iFoldedRowSumIntArray = swapIntArray;
+			}
+		} finally {
+			if(isForking && (0 < iThreadCount)) {
+				releaseForkJoinPool(iThreadCount);
+			}
+		}
+		final long traceBackStartTime = System.nanoTime();
+		iNodeNumberPath = new int[rowCount];
+		final int[] result = DynamicProgrammingAlgorithm.travelDownFromRootToLeaf(aTriangle, iIsRightChildBitSet, iNodeNumberPath);
+		iTraceBackNanos = System.nanoTime() - traceBackStartTime;
+		return result;
+	}
+
+	public int[] getNodeNumberPath() {
+		return iNodeNumberPath;
+	}
+
+	public void reportStatistics(SolveStatistics aStatistics) {
+		aStatistics.addPhaseNanos(SolveStatistics.Phase.TRACE_BACK, iTraceBackNanos);
+	}
+
+	/**
+	 * folds the nodes of row aRow from index aBeginIndex (included) to anEndIndex (excluded)
+	 *
+	 * @param aBelowRowSumIntArray minimal path values of the row below aRow
+	 * @param aRowSumIntArray where the minimal path values of aRow go
+	 */
+
+	private void foldRowSegment(Triangle aTriangle, int aRow, int aBeginIndex, int anEndIndex, int[] aBelowRowSumIntArray, int[] aRowSumIntArray) {
+		final long rowBitIndex = ((long)aRow * (aRow - 1)) / 2;
+		for(int ii = aBeginIndex ; ii < anEndIndex ; ++ii) {
+			final int leftSum = aBelowRowSumIntArray[ii];
+			final int rightSum = aBelowRowSumIntArray[ii + 1];
+			final boolean isRightChild = rightSum < leftSum;
+			iIsRightChildBitSet.set(rowBitIndex + ii, isRightChild);
+			aRowSumIntArray[ii] = aTriangle.getNodeValue(aRow, ii + 1) + (isRightChild ? rightSum : leftSum);
+		}
+	}
+
+	/**
+	 * folds a segment of a row, splitting it in 2 halves as long as it is larger than iGrainSize
+	 */
+
+	private final class RowSegmentTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Triangle iTriangle;
+		private final int iRow;
+		private final int iBeginIndex;
+		private final int iEndIndex;
+		private final int[] iBelowRowSumIntArray;
+		private final int[] iRowSumIntArray;
+
+		RowSegmentTask(Triangle aTriangle, int aRow, int aBeginIndex, int anEndIndex, int[] aBelowRowSumIntArray, int[] aRowSumIntArray) {
+			iTriangle = aTriangle;
+			iRow = aRow;
+			iBeginIndex = aBeginIndex;
+			iEndIndex = anEndIndex;
+			iBelowRowSumIntArray = aBelowRowSumIntArray;
+			iRowSumIntArray = aRowSumIntArray;
+		}
+
+		@Override
+		protected void compute() {
+			if(iEndIndex - iBeginIndex <= iGrainSize) {
+				foldRowSegment(iTriangle, iRow, iBeginIndex, iEndIndex, iBelowRowSumIntArray, iRowSumIntArray);
+			} else {
+				// split where the bit set index is a multiple of 64
+				final long rowBitIndex = ((long)iRow * (iRow - 1)) / 2;
+				final long middleBitIndex = rowBitIndex + iBeginIndex + (iEndIndex - iBeginIndex) / 2;
+				final int middleIndex = (int)(middleBitIndex - (middleBitIndex % BITS_PER_LONG) - rowBitIndex);
+				invokeAll(new RowSegmentTask(iTriangle, iRow, iBeginIndex, middleIndex, iBelowRowSumIntArray, iRowSumIntArray),
+						new RowSegmentTask(iTriangle, iRow, middleIndex, iEndIndex, iBelowRowSumIntArray, iRowSumIntArray));
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,249 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * ParallelTriangleParser parses a large text input with all the cores of the common ForkJoinPool.
+ *
+ * Rows end with a line terminator and row r starts at node index r(r-1)/2 (see Triangle.getNodeIndex),
+ * so the input is cut into chunks right after a "\n" and each chunk is parsed by its own TriangleByteParser
+ * straight into the final place of its rows. It takes two passes over the chunks:
+ * - the first one counts the rows of each chunk, which gives the row number each chunk starts at,
+ * along with the longest token, which gives a node value width that never needs widening.
+ * - the second one parses the chunks into the Triangle, allocated in between by the caller.
+ *
+ * A TriangleInputException is reported for the first faulty row of the input, with the same row and column
+ * numbers as TriangleByteParser.fillTriangle: each chunk stops at its own first faulty row
+ * and the exception of the first chunk that has one wins.
+ */
+
+final class ParallelTriangleParser {
+
+	/**
+	 * below this, starting the threads costs more than the parse itself
+	 */
+
+	/*package*/ final static long MINIMUM_PARALLEL_BYTE_COUNT = 1L << 24;
+
+	private final static long MINIMUM_CHUNK_BYTE_COUNT = 1L << 22;
+
+	/**
+	 * more chunks than threads, so a thread done early can take over some of the work
+	 */
+
+	private final static int CHUNKS_PER_THREAD = 4;
+
+	private final ByteBuffer[][] iChunkSliceArray;
+	private final int[] iChunkFirstRowCountIntArray;
+	private int iRowCount;
+	private int iMaximumTokenLength;
+
+	/**
+	 * Cuts aBufferArray in chunks and counts their rows, in parallel.
+	 *
+	 * @param aBufferArray the whole input, one slice after the other, each from its position to its limit.
+	 * the positions are left untouched.
+	 */
+
+	/*package*/ ParallelTriangleParser(ByteBuffer[] aBufferArray) {
+		iChunkSliceArray = cutChunks(aBufferArray, getParallelism() * CHUNKS_PER_THREAD);
+		iChunkFirstRowCountIntArray = new int[iChunkSliceArray.length];
+		final ChunkTask[] countTaskArray = new ChunkTask[iChunkSliceArray.length];
+		for(int ii = 0 ; ii < countTaskArray.length ; ++ii) {
+			countTaskArray[ii] = new ChunkTask(ii, null);
+		}
+		invokeAll(countTaskArray);
+		for(int ii = 0 ; ii < countTaskArray.length ; ++ii) {
+			iChunkFirstRowCountIntArray[ii] = iRowCount;
+			iRowCount += countTaskArray[ii].iRowCount;
+			iMaximumTokenLength = Math.max(iMaximumTokenLength, countTaskArray[ii].iMaximumTokenLength);
+		}
+	}
+
+	/**
+	 * @return true if aBufferArray is large enough, and there are enough cores, for a parallel parse to pay off
+	 */
+
+	/*package*/ static boolean isParallelizable(ByteBuffer[] aBufferArray) {
+		return (1 < getParallelism()) && (MINIMUM_PARALLEL_BYTE_COUNT <= getByteCount(aBufferArray));
+	}
+
+	/**
+	 * @return the number of lines of the input, the way TriangleByteParser.countRows counts them
+	 */
+
+	/*package*/ int getRowCount() {
+		return iRowCount;
+	}
+
+	/**
+	 * @return a node value width (1, 2 or 4 bytes) large enough for all the node values of the input
+	 */
+
+	/*package*/ int getValueByteCount() {
+		return TriangleByteParser.getValueByteCount(iMaximumTokenLength);
+	}
+
+	/**
+	 * Puts the node values of the input into aTriangle, in parallel.
+	 *
+	 * @param aTriangle must have getRowCount() rows, with node values at least getValueByteCount() wide
+	 * so no thread ever has to widen them.
+	 * @throws <code>TriangleInputException</code> if the input doesn't represent a valid <code>Triangle</code>
+	 */
+
+	/*package*/ void fillTriangle(Triangle aTriangle) throws TriangleInputException {
+		final ChunkTask[] fillTaskArray = new ChunkTask[iChunkSliceArray.length];
+		for(int ii = 0 ; ii < fillTaskArray.length ; ++ii) {
+			fillTaskArray[ii] = new ChunkTask(ii, aTriangle);
+		}
+		invokeAll(fillTaskArray);
+		for(int ii = 0 ; ii < fillTaskArray.length ; ++ii) {
+			if(null != fillTaskArray[ii].iInputException) {
+				throw fillTaskArray[ii].iInputException;
+			}
+		}
+	}
+
+	private static int getParallelism() {
+		return ForkJoinPool.getCommonPoolParallelism();
+	}
+
+	private static void invokeAll(final ChunkTask[] aTaskArray) {
+		ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				ForkJoinTask.invokeAll(aTaskArray);
+			}
+
+		});
+	}
+
+	private static long getByteCount(ByteBuffer[] aBufferArray) {
+		long result = 0;
+		for(int ii = 0 ; ii < aBufferArray.length ; ++ii) {
+			result += aBufferArray[ii].remaining();
+		}
+		return result;
+	}
+
+	/**
+	 * @return up to aMaximumChunkCount chunks of aBufferArray, each as an array of slices (a chunk can straddle
+	 * two slices of aBufferArray). every chunk but the last ends right after a "\n".
+	 */
+
+	private static ByteBuffer[][] cutChunks(ByteBuffer[] aBufferArray, int aMaximumChunkCount) {
+		final long byteCount = getByteCount(aBufferArray);
+		final int chunkCount = (int)Math.max(1, Math.min(aMaximumChunkCount, byteCount / MINIMUM_CHUNK_BYTE_COUNT));
+		final List<ByteBuffer[]> chunkList = new ArrayList<ByteBuffer[]>(chunkCount);
+		long chunkStartOffset = 0;
+		for(int ii = 1 ; ii <= chunkCount ; ++ii) {
+			long chunkEndOffset = byteCount;
+			if(ii < chunkCount) {
+				chunkEndOffset = findLineEnd(aBufferArray, Math.max(chunkStartOffset, (byteCount * ii) / chunkCount));
+			}
+			// a line longer than a chunk merges the chunks it goes through
+			if(chunkStartOffset < chunkEndOffset) {
+				chunkList.add(slice(aBufferArray, chunkStartOffset, chunkEndOffset));
+				chunkStartOffset = chunkEndOffset;
+			}
+		}
+		if(chunkList.isEmpty()) {
+			chunkList.add(slice(aBufferArray, 0, 0));
+		}
+		return chunkList.toArray(new ByteBuffer[chunkList.size()][]);
+	}
+
+	/**
+	 * @return the offset (counted from the position of the first slice) right after the first "\n"
+	 * found at or after anOffset. the end of aBufferArray if there is none.
+	 */
+
+	private static long findLineEnd(ByteBuffer[] aBufferArray, long anOffset) {
+		long sliceOffset = 0;
+		for(int ii = 0 ; ii < aBufferArray.length ; ++ii) {
+			final ByteBuffer buffer = aBufferArray[ii];
+			final long sliceEndOffset = sliceOffset + buffer.remaining();
+			if(anOffset < sliceEndOffset) {
+				final int limit = buffer.limit();
+				for(int jj = buffer.position() + (int)Math.max(0, anOffset - sliceOffset) ; jj < limit ; ++jj) {
+					if('\n' == buffer.get(jj)) {
+						return sliceOffset + (jj - buffer.position()) + 1;
+					}
+				}
+			}
+			sliceOffset = sliceEndOffset;
+		}
+		return sliceOffset;
+	}
+
+	/**
+	 * @return the bytes of aBufferArray from aBeginOffset (included) to anEndOffset (excluded),
+	 * as views sharing the content of the slices of aBufferArray
+	 */
+
+	private static ByteBuffer[] slice(ByteBuffer[] aBufferArray, long aBeginOffset, long anEndOffset) {
+		final List<ByteBuffer> sliceList = new ArrayList<ByteBuffer>(2);
+		long sliceOffset = 0;
+		for(int ii = 0 ; ii < aBufferArray.length ; ++ii) {
+			final ByteBuffer buffer = aBufferArray[ii];
+			final long sliceEndOffset = sliceOffset + buffer.remaining();
+			if((aBeginOffset < sliceEndOffset) && (anEndOffset > sliceOffset)) {
+				final ByteBuffer slice = buffer.duplicate();
+				slice.limit(buffer.position() + (int)(Math.min(anEndOffset, sliceEndOffset) - sliceOffset));
+				slice.position(buffer.position() + (int)(Math.max(aBeginOffset, sliceOffset) - sliceOffset));
+				sliceList.add(slice);
+			}
+			sliceOffset = sliceEndOffset;
+		}
+		return sliceList.toArray(new ByteBuffer[sliceList.size()]);
+	}
+
+	/**
+	 * counts the rows of a chunk, or parses them into a Triangle
+	 */
+
+	private final class ChunkTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int iChunkIndex;
+		private final Triangle iTriangle;
+		private int iRowCount;
+		private int iMaximumTokenLength;
+		private TriangleInputException iInputException;
+
+		/**
+		 * @param aTriangle where to parse the chunk. null to count its rows instead.
+		 */
+
+		ChunkTask(int aChunkIndex, Triangle aTriangle) {
+			iChunkIndex = aChunkIndex;
+			iTriangle = aTriangle;
+		}
+
+		@Override
+		protected void compute() {
+			final ByteBuffer[] sliceArray = iChunkSliceArray[iChunkIndex];
+			if(null == iTriangle) {
+				final int[] rowCountAndTokenLength = TriangleByteParser.countRowsAndMaximumTokenLength(sliceArray);
+				iRowCount = rowCountAndTokenLength[0];
+				iMaximumTokenLength = rowCountAndTokenLength[1];
+			} else {
+				try {
+					new TriangleByteParser().fillTriangle(sliceArray, iTriangle, iChunkFirstRowCountIntArray[iChunkIndex]);
+				} catch(TriangleInputException tiex) {
+					iInputException = tiex;
+				}
+			}
+		}
+
+	}
+
+}
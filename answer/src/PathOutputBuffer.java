@@ -0,0 +1,107 @@
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes path output into a reusable byte buffer, and hands it to the PrintStream in large chunks.
+ *
+ * A PrintStream synchronizes (and may flush) on every print call. Printing a path one number at a time
+ * costs a few of those per node, which adds up over a path of 100000 rows. Here numbers are encoded
+ * straight into the buffer, without going through a String, and the PrintStream only sees one
+ * write per buffer full.
+ */
+
+final class PathOutputBuffer {
+
+	private final static int BUFFER_SIZE = 1 << 16;
+	private final static int MAXIMUM_DECIMAL_BYTE_COUNT = 20; // "-9223372036854775808"
+
+	private final PrintStream iOutput;
+	private final byte[] iByteArray = new byte[BUFFER_SIZE];
+	private final ByteBuffer iByteBuffer = ByteBuffer.wrap(iByteArray).order(PathOutputFormat.BYTE_ORDER);
+	private int iByteCount;
+
+	/*package*/ PathOutputBuffer(PrintStream anOutput) {
+		iOutput = anOutput;
+	}
+
+	/**
+	 * @param anAsciiString only made of ASCII characters
+	 */
+
+	/*package*/ void writeAscii(String anAsciiString) {
+		for(int ii = 0 ; ii < anAsciiString.length() ; ++ii) {
+			ensureRoom(1);
+			iByteArray[iByteCount++] = (byte)anAsciiString.charAt(ii);
+		}
+	}
+
+	/*package*/ void writeLineSeparator() {
+		writeAscii(System.lineSeparator());
+	}
+
+	/**
+	 * writes aValue in decimal, like PrintStream.print(long) would
+	 */
+
+	/*package*/ void writeDecimal(long aValue) {
+		ensureRoom(MAXIMUM_DECIMAL_BYTE_COUNT);
+		// digits are computed on a negative value, so Long.MIN_VALUE needs no special case
+		long value = aValue;
+		if(0 > value) {
+			iByteArray[iByteCount++] = '-';
+		} else {
+			value = -value;
+		}
+		final int firstDigit = iByteCount;
+		do {
+			iByteArray[iByteCount++] = (byte)('0' - (value % 10));
+			value /= 10;
+		} while(0 != value);
+		// the digits came out least significant first
+		for(int ii = firstDigit, jj = iByteCount - 1 ; ii < jj ; ++ii, --jj) {
+			final byte digit = iByteArray[ii];
+			iByteArray[ii] = iByteArray[jj];
+			iByteArray[jj] = digit;
+		}
+	}
+
+	/**
+	 * writes aValue on 4 bytes, in PathOutputFormat.BYTE_ORDER
+	 */
+
+	/*package*/ void writeInt(int aValue) {
+		ensureRoom(Integer.BYTES);
+		iByteBuffer.putInt(iByteCount, aValue);
+		iByteCount += Integer.BYTES;
+	}
+
+	/**
+	 * writes aValue on 8 bytes, in PathOutputFormat.BYTE_ORDER
+	 */
+
+	/*package*/ void writeLong(long aValue) {
+		ensureRoom(Long.BYTES);
+		iByteBuffer.putLong(iByteCount, aValue);
+		iByteCount += Long.BYTES;
+	}
+
+	/**
+	 * hands everything written so far to the PrintStream, then flushes it
+	 */
+
+	/*package*/ void flush() {
+		if(0 < iByteCount) {
+			iOutput.write(iByteArray, 0, iByteCount);
+			iByteCount = 0;
+		}
+		iOutput.flush();
+	}
+
+	private void ensureRoom(int aByteCount) {
+		if(iByteCount + aByteCount > iByteArray.length) {
+			iOutput.write(iByteArray, 0, iByteCount);
+			iByteCount = 0;
+		}
+	}
+
+}
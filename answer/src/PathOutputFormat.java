@@ -0,0 +1,164 @@
+import java.nio.ByteOrder;
+
+/**
+ * The ways PathOutputProcessor can write a path, each with the name used to pick it on the command line.
+ *
+ * A path comes with its node numbers (see TriangleSolver.getNodeNumberPath), and with its node values
+ * unless it was solved without keeping them (see StreamingTriangleSolver).
+ * The text format writes the node values when it has them, the compact format always writes node numbers,
+ * the binary format writes what it is given.
+ */
+
+enum PathOutputFormat {
+
+	/**
+	 * What MinTrianglePath always printed: "Minimal path is: 7 + 6 + 3 = 16"
+	 */
+
+	TEXT("text") {
+		/*package*/ void writePath(PathOutputBuffer aBuffer, int[] aPath, int[] aNodeNumberPath, long aPathValue) {
+			aBuffer.writeAscii(OUTPUT_PREFIX);
+			writeEntries(aBuffer, aPath, OUTPUT_NODE_SEPARATOR);
+			aBuffer.writeAscii(OUTPUT_PATH_VALUE_SEPARATOR);
+			aBuffer.writeDecimal(aPathValue);
+			aBuffer.writeLineSeparator();
+		}
+
+		/*package*/ void writeNodeNumberPath(PathOutputBuffer aBuffer, int[] aNodeNumberPath, long aPathValue) {
+			aBuffer.writeAscii(OUTPUT_NODE_NUMBER_PREFIX);
+			writeEntries(aBuffer, aNodeNumberPath, OUTPUT_NODE_NUMBER_SEPARATOR);
+			aBuffer.writeAscii(OUTPUT_NODE_NUMBER_PATH_VALUE_SEPARATOR);
+			aBuffer.writeDecimal(aPathValue);
+			aBuffer.writeLineSeparator();
+		}
+
+		/*package*/ void writeLeafPathValues(PathOutputBuffer aBuffer, int[] aLeafPathValues) {
+			aBuffer.writeAscii(OUTPUT_LEAF_PATH_VALUE_PREFIX);
+			writeEntries(aBuffer, aLeafPathValues, OUTPUT_LEAF_PATH_VALUE_SEPARATOR);
+			aBuffer.writeLineSeparator();
+		}
+	},
+
+	/**
+	 * One line of numbers separated by spaces: the path value, then the node number of each row. "16 1 1 2".
+	 * Leaf path values are written without a path value in front.
+	 */
+
+	COMPACT("compact") {
+		/*package*/ void writePath(PathOutputBuffer aBuffer, int[] aPath, int[] aNodeNumberPath, long aPathValue) {
+			writeNodeNumberPath(aBuffer, aNodeNumberPath, aPathValue);
+		}
+
+		/*package*/ void writeNodeNumberPath(PathOutputBuffer aBuffer, int[] aNodeNumberPath, long aPathValue) {
+			aBuffer.writeDecimal(aPathValue);
+			aBuffer.writeAscii(COMPACT_SEPARATOR);
+			writeEntries(aBuffer, aNodeNumberPath, COMPACT_SEPARATOR);
+			aBuffer.writeLineSeparator();
+		}
+
+		/*package*/ void writeLeafPathValues(PathOutputBuffer aBuffer, int[] aLeafPathValues) {
+			writeEntries(aBuffer, aLeafPathValues, COMPACT_SEPARATOR);
+			aBuffer.writeLineSeparator();
+		}
+	},
+
+	/**
+	 * Little endian, like TriangleBinaryFormat:
+	 * - header, 24 bytes: magic number "MTPO", format version, entry count, then the path value on 8 bytes
+	 * - the entries, 4 bytes each. the root first for a path, leaf 1 first for leaf path values.
+	 * Leaf path values have a path value of 0.
+	 */
+
+	BINARY("binary") {
+		/*package*/ void writePath(PathOutputBuffer aBuffer, int[] aPath, int[] aNodeNumberPath, long aPathValue) {
+			aBuffer.writeInt(BINARY_MAGIC_NUMBER);
+			aBuffer.writeInt(BINARY_FORMAT_VERSION);
+			aBuffer.writeInt(aPath.length);
+			aBuffer.writeLong(aPathValue);
+			for(int ii = 0 ; ii < aPath.length ; ++ii) {
+				aBuffer.writeInt(aPath[ii]);
+			}
+		}
+
+		/*package*/ void writeNodeNumberPath(PathOutputBuffer aBuffer, int[] aNodeNumberPath, long aPathValue) {
+			writePath(aBuffer, aNodeNumberPath, aNodeNumberPath, aPathValue);
+		}
+
+		/*package*/ void writeLeafPathValues(PathOutputBuffer aBuffer, int[] aLeafPathValues) {
+			writePath(aBuffer, aLeafPathValues, null, 0);
+		}
+	};
+
+	/*package*/ final static ByteOrder BYTE_ORDER = TriangleBinaryFormat.BYTE_ORDER;
+	/*package*/ final static int BINARY_MAGIC_NUMBER = 0x4F50544D; // "MTPO" once written little endian
+	/*package*/ final static int BINARY_FORMAT_VERSION = 1;
+
+	private final static String OUTPUT_PREFIX = "Minimal path is: ";
+	private final static String OUTPUT_NODE_SEPARATOR = " + ";
+	private final static String OUTPUT_PATH_VALUE_SEPARATOR = " = ";
+	private final static String OUTPUT_NODE_NUMBER_PREFIX = "Minimal path node numbers are: ";
+	private final static String OUTPUT_NODE_NUMBER_SEPARATOR = " ";
+	private final static String OUTPUT_NODE_NUMBER_PATH_VALUE_SEPARATOR = ". Path value is: ";
+	private final static String OUTPUT_LEAF_PATH_VALUE_PREFIX = "Leaf path values are: ";
+	private final static String OUTPUT_LEAF_PATH_VALUE_SEPARATOR = " ";
+	private final static String COMPACT_SEPARATOR = " ";
+
+	private final String iCommandLineName;
+
+	private PathOutputFormat(String aCommandLineName) {
+		iCommandLineName = aCommandLineName;
+	}
+
+	/*package*/ String getCommandLineName() {
+		return iCommandLineName;
+	}
+
+	/**
+	 * @param aPath node values, starting with the root. not empty.
+	 * @param aNodeNumberPath second coordinate of each node of aPath
+	 * @param aPathValue sum of aPath
+	 */
+
+	/*package*/ abstract void writePath(PathOutputBuffer aBuffer, int[] aPath, int[] aNodeNumberPath, long aPathValue);
+
+	/**
+	 * @param aNodeNumberPath second coordinate of each node of the path, starting with the root. not empty.
+	 * @param aPathValue sum of the node values along the path
+	 */
+
+	/*package*/ abstract void writeNodeNumberPath(PathOutputBuffer aBuffer, int[] aNodeNumberPath, long aPathValue);
+
+	/**
+	 * @param aLeafPathValues one path value per leaf, leaf 1 first. not empty.
+	 */
+
+	/*package*/ abstract void writeLeafPathValues(PathOutputBuffer aBuffer, int[] aLeafPathValues);
+
+	/**
+	 * writes the entries of anEntryArray in decimal, with aSeparator between them
+	 */
+
+	private static void writeEntries(PathOutputBuffer aBuffer, int[] anEntryArray, String aSeparator) {
+		for(int ii = 0 ; ii < anEntryArray.length - 1 ; ++ii) {
+			aBuffer.writeDecimal(anEntryArray[ii]);
+			aBuffer.writeAscii(aSeparator);
+		}
+		aBuffer.writeDecimal(anEntryArray[anEntryArray.length - 1]);
+	}
+
+	/**
+	 * @return the PathOutputFormat called aCommandLineName, or null if there is no such format
+	 */
+
+	/*package*/ static PathOutputFormat fromCommandLineName(String aCommandLineName) {
+		PathOutputFormat result = null;
+		final PathOutputFormat[] formatArray = values();
+		for(int ii = 0 ; null == result && ii < formatArray.length ; ++ii) {
+			if(formatArray[ii].iCommandLineName.equals(aCommandLineName)) {
+				result = formatArray[ii];
+			}
+		}
+		return result;
+	}
+
+}
@@ -1,23 +1,70 @@
+import java.io.PrintStream;
+
+/**
+ * Writes paths in a PathOutputFormat, through a PathOutputBuffer: each path is encoded
+ * in a reusable buffer and reaches the PrintStream in large chunks.
+ *
+ * Path values are summed in a long, so a long path of large values can't overflow.
+ */
 
 final class PathOutputProcessor {
-	
-	private final static String OUTPUT_PREFIX = "Minimal path is: ";
-	private final static String OUTPUT_NODE_SEPARATOR = " + ";
-	private final static String OUTPUT_PATH_VALUE_SEPARATOR = " = ";
-	
-	/*package*/ void processPath(int[] aPath) {
+
+	private final PathOutputBuffer iBuffer;
+	private final PathOutputFormat iFormat;
+
+	/**
+	 * writes text
+	 */
+
+	/*package*/ PathOutputProcessor(PrintStream anOutput) {
+		this(anOutput, PathOutputFormat.TEXT);
+	}
+
+	/*package*/ PathOutputProcessor(PrintStream anOutput, PathOutputFormat aFormat) {
+		iBuffer = new PathOutputBuffer(anOutput);
+		iFormat = aFormat;
+	}
+
+	/**
+	 * @param aPath node values of the path, starting with the root (see TriangleSolver.runAlgorithm)
+	 * @param aNodeNumberPath second coordinate of each node of aPath (see TriangleSolver.getNodeNumberPath)
+	 */
+
+	/*package*/ void processPath(int[] aPath, int[] aNodeNumberPath) {
 		if (null != aPath && (0 < aPath.length)) {
-			int pathValue = 0;
-			System.out.print(OUTPUT_PREFIX);
-			for(int ii = 0 ; ii < aPath.length - 1 ; ++ii) {
+			long pathValue = 0;
+			for(int ii = 0 ; ii < aPath.length ; ++ii) {
 				pathValue += aPath[ii];
-				System.out.print(aPath[ii]);
-				System.out.print(OUTPUT_NODE_SEPARATOR);
 			}
-			pathValue += aPath[aPath.length-1];
-			System.out.print(aPath[aPath.length-1]);
-			System.out.print(OUTPUT_PATH_VALUE_SEPARATOR);
-			System.out.println(pathValue);
+			iFormat.writePath(iBuffer, aPath, aNodeNumberPath, pathValue);
+			iBuffer.flush();
+		}
+	}
+
+	/**
+	 * For paths known by their node numbers only (see StreamingTriangleSolver)
+	 *
+	 * @param aNodeNumberPath second coordinate of each node of the path, starting with the root.
+	 * @param aPathValue sum of the node values along the path
+	 */
+
+	/*package*/ void processNodeNumberPath(int[] aNodeNumberPath, long aPathValue) {
+		if (null != aNodeNumberPath && (0 < aNodeNumberPath.length)) {
+			iFormat.writeNodeNumberPath(iBuffer, aNodeNumberPath, aPathValue);
+			iBuffer.flush();
+		}
+	}
+
+	/**
+	 * For the cheapest path value to every leaf (see KBestPathSolver)
+	 *
+	 * @param aLeafPathValues one path value per leaf, leaf 1 first
+	 */
+
+	/*package*/ void processLeafPathValues(int[] aLeafPathValues) {
+		if (null != aLeafPathValues && (0 < aLeafPathValues.length)) {
+			iFormat.writeLeafPathValues(iBuffer, aLeafPathValues);
+			iBuffer.flush();
 		}
 	}
 
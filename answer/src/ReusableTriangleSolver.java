@@ -0,0 +1,86 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Parses then solves one triangle after the other, keeping the same Triangle, TriangleSolver
+ * and parser from one triangle to the next (see Triangle.reset).
+ *
+ * A new Triangle and TriangleSolver are only allocated when a triangle has more rows than
+ * any triangle solved before. Not thread safe: meant to be owned by a single worker thread
+ * (see TriangleBatchSolver and TriangleSolveServer).
+ */
+
+final class ReusableTriangleSolver {
+
+	private final MinTrianglePathOptions iOptions;
+	private final TriangleByteParser iByteParser = new TriangleByteParser();
+	private Triangle iTriangle;
+	private TriangleSolver iSolver;
+
+	/**
+	 * @param anOptions engine and engine settings
+	 */
+
+	/*package*/ ReusableTriangleSolver(MinTrianglePathOptions anOptions) {
+		iOptions = anOptions;
+	}
+
+	/**
+	 * @param anInputBufferArray a whole triangle, text or binary (see TriangleBinaryFormat),
+	 * one slice after the other. positions are moved to the limits.
+	 * @return the node values of a minimal path, like TriangleSolver.runAlgorithm. empty for a triangle without rows.
+	 * @throws <code>TriangleInputException</code> if anInputBufferArray doesn't represent a valid <code>Triangle</code>
+	 * @throws IllegalArgumentException if the engine can't solve this triangle (i.e. negative values for a bucket frontier)
+	 */
+
+	/*package*/ int[] solve(ByteBuffer[] anInputBufferArray) throws TriangleInputException {
+		if(TriangleBinaryFormat.isBinaryTriangle(anInputBufferArray)) {
+			final int[] header = TriangleBinaryFormat.readHeader(anInputBufferArray);
+			TriangleBinaryFormat.fillTriangle(anInputBufferArray, ensureTriangle(header[0], header[1]));
+		} else {
+			final int[] rowCountAndTokenLength = TriangleByteParser.countRowsAndMaximumTokenLength(anInputBufferArray);
+			iByteParser.fillTriangle(anInputBufferArray,
+					ensureTriangle(rowCountAndTokenLength[0], TriangleByteParser.getValueByteCount(rowCountAndTokenLength[1])));
+		}
+		if(0 == iTriangle.getRowCount()) {
+			// i.e. an empty file. nothing to solve, and not every engine expects a root
+			return new int[0];
+		}
+		return iSolver.runAlgorithm(iTriangle);
+	}
+
+	/**
+	 * @return the node numbers of the path the last solve returned (see TriangleSolver.getNodeNumberPath)
+	 */
+
+	/*package*/ int[] getNodeNumberPath() {
+		return (0 == getRowCount()) ? new int[0] : iSolver.getNodeNumberPath();
+	}
+
+	/**
+	 * @return number of rows of the last triangle given to solve
+	 */
+
+	/*package*/ int getRowCount() {
+		return (null == iTriangle) ? 0 : iTriangle.getRowCount();
+	}
+
+	/**
+	 * @return iTriangle, reset to aRowCount rows of node values at least aValueByteCount wide.
+	 * iTriangle and iSolver are only replaced if they are too small: a new triangle costs no more than
+	 * widening the node values of the old one while parsing, which copies them all.
+	 */
+
+	private Triangle ensureTriangle(int aRowCount, int aValueByteCount) {
+		if((null == iTriangle) || (iTriangle.getRowCapacity() < aRowCount) || (iTriangle.getValueByteCount() < aValueByteCount)) {
+			final int rowCapacity = (null == iTriangle) ? aRowCount : Math.max(aRowCount, iTriangle.getRowCapacity());
+			// drop the old ones first, so they can be collected while the new ones get allocated
+			iTriangle = null;
+			iSolver = null;
+			iTriangle = new Triangle(rowCapacity, aValueByteCount, iOptions.isOffHeap());
+			iSolver = iOptions.getSolverEngine().makeSolver(rowCapacity, iOptions);
+		}
+		iTriangle.reset(aRowCount);
+		return iTriangle;
+	}
+
+}
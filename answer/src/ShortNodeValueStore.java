@@ -0,0 +1,84 @@
+import java.nio.ByteBuffer;
+
+/**
+ * NodeValueStore for node values from Short.MIN_VALUE to Short.MAX_VALUE: 2 bytes per node.
+ */
+
+final class ShortNodeValueStore extends NodeValueStore {
+
+	private final short[] iNodeValueShortArray;
+
+	/*package*/ ShortNodeValueStore(int aNodeCount) {
+		iNodeValueShortArray = new short[aNodeCount];
+	}
+
+	/*package*/ int getValueByteCount() {
+		return Short.BYTES;
+	}
+
+	/*package*/ long getNodeCount() {
+		return iNodeValueShortArray.length;
+	}
+
+	/*package*/ int get(long aNodeIndex) {
+		return iNodeValueShortArray[(int)aNodeIndex];
+	}
+
+	/*package*/ void set(long aNodeIndex, int aValue) {
+		iNodeValueShortArray[(int)aNodeIndex] = (short)aValue;
+	}
+
+	/*package*/ boolean canHold(int aValue) {
+		return (Short.MIN_VALUE <= aValue) && (Short.MAX_VALUE >= aValue);
+	}
+
+	/*package*/ int getMinimumValue(long aNodeCount) {
+		final int nodeCount = (int)aNodeCount;
+		int result = Integer.MAX_VALUE;
+		for(int ii = 0 ; ii < nodeCount ; ++ii) {
+			if(result > iNodeValueShortArray[ii]) {
+				result = iNodeValueShortArray[ii];
+			}
+		}
+		return result;
+	}
+
+	/*package*/ int getMaximumValue(long aNodeCount) {
+		final int nodeCount = (int)aNodeCount;
+		int result = Integer.MIN_VALUE;
+		for(int ii = 0 ; ii < nodeCount ; ++ii) {
+			if(result < iNodeValueShortArray[ii]) {
+				result = iNodeValueShortArray[ii];
+			}
+		}
+		return result;
+	}
+
+	/*package*/ void getValues(long aFirstNodeIndex, int[] anIntArray, int aCount) {
+		final int firstNodeIndex = (int)aFirstNodeIndex;
+		for(int ii = 0 ; ii < aCount ; ++ii) {
+			anIntArray[ii] = iNodeValueShortArray[firstNodeIndex + ii];
+		}
+	}
+
+	/*package*/ int setValues(long aFirstNodeIndex, ByteBuffer aBuffer, int aValueByteCount) {
+		if(Short.BYTES != aValueByteCount) {
+			return super.setValues(aFirstNodeIndex, aBuffer, aValueByteCount);
+		}
+		final int result = Math.min(aBuffer.remaining() / Short.BYTES, (int)(iNodeValueShortArray.length - aFirstNodeIndex));
+		aBuffer.asShortBuffer().get(iNodeValueShortArray, (int)aFirstNodeIndex, result);
+		aBuffer.position(aBuffer.position() + result * Short.BYTES);
+		return result;
+	}
+
+	/*package*/ int getValues(long aFirstNodeIndex, ByteBuffer aBuffer, int aValueByteCount) {
+		if(Short.BYTES != aValueByteCount) {
+			return super.getValues(aFirstNodeIndex, aBuffer, aValueByteCount);
+		}
+		final int result = Math.min(aBuffer.remaining() / Short.BYTES, (int)(iNodeValueShortArray.length - aFirstNodeIndex));
+		aBuffer.asShortBuffer().put(iNodeValueShortArray, (int)aFirstNodeIndex, result);
+		aBuffer.position(aBuffer.position() + result * Short.BYTES);
+		return result;
+	}
+
+}
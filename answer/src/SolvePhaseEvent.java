@@ -0,0 +1,30 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one phase of a MinTrianglePath run (see SolveStatistics.Phase)
+ *
+ * The phase duration is a field rather than the event duration: some phases (i.e. solve, trace-back)
+ * are only known once the solver is done.
+ */
+
+@Name("MinTrianglePath.SolvePhase")
+@Label("Solve Phase")
+@Category("MinTrianglePath")
+@Description("Time spent in one phase of a MinTrianglePath run")
+final class SolvePhaseEvent extends jdk.jfr.Event {
+
+	@Label("Phase")
+	/*package*/ String iPhase;
+
+	@Label("Rows")
+	/*package*/ int iRowCount;
+
+	@Label("Phase Duration")
+	@Timespan(Timespan.NANOSECONDS)
+	/*package*/ long iPhaseDuration;
+
+}
@@ -0,0 +1,172 @@
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Where the time and the memory of one MinTrianglePath run go.
+ *
+ * Every run fills one, whether --stats is given or not: it only costs a few System.nanoTime calls
+ * per run, and counters that DijkstraAlgorithm keeps anyway. Each phase and the final summary are also
+ * JFR events (see SolvePhaseEvent and SolveSummaryEvent). Those are only created once a flight recorder runs:
+ * loading the first event class otherwise sets JFR up, which takes longer than solving a small triangle.
+ * (i.e. java -XX:StartFlightRecording=filename=run.jfr MinTrianglePath ...)
+ *
+ * With --stats, toJson is printed to the standard error once the path has been printed,
+ * so the standard output stays what it always was.
+ */
+
+final class SolveStatistics {
+
+	/**
+	 * The phases of a run, in the order they happen
+	 */
+
+	/*package*/ enum Phase {
+		READ("read"),
+		PARSE("parse"),
+		ALLOCATION("allocation"),
+		SOLVE("solve"),
+		TRACE_BACK("traceBack"),
+		OUTPUT("output");
+
+		private final String iName;
+
+		private Phase(String aName) {
+			iName = aName;
+		}
+
+		/*package*/ String getName() {
+			return iName;
+		}
+	}
+
+	private final long[] iPhaseNanosLongArray = new long[Phase.values().length];
+
+	private String iEngineName = "";
+	private int iRowCount;
+
+	/**
+	 * Dijkstra internals (see DijkstraAlgorithm and DijkstraFrontier). 0 for the other engines.
+	 */
+
+	private long iFinalizedNodeCount;
+	private long iFrontierInsertCount;
+	private long iFrontierDecreaseCount;
+	private long iFrontierPeakSize;
+	private long iFrontierMovedByteCount;
+
+	private long iNodeStoragePeakByteSize;
+
+	/**
+	 * adds the time elapsed since aStartNanos (a System.nanoTime) to aPhase, and emits a SolvePhaseEvent
+	 *
+	 * @return now, in System.nanoTime, so the next phase can start where this one ended
+	 */
+
+	/*package*/ long endPhase(Phase aPhase, long aStartNanos) {
+		final long result = System.nanoTime();
+		addPhaseNanos(aPhase, result - aStartNanos);
+		return result;
+	}
+
+	/**
+	 * adds aNanos to aPhase, and emits a SolvePhaseEvent
+	 */
+
+	/*package*/ void addPhaseNanos(Phase aPhase, long aNanos) {
+		iPhaseNanosLongArray[aPhase.ordinal()] += aNanos;
+		if(FlightRecorder.isInitialized()) {
+			commitPhaseEvent(aPhase, aNanos);
+		}
+	}
+
+	private void commitPhaseEvent(Phase aPhase, long aNanos) {
+		final SolvePhaseEvent event = new SolvePhaseEvent();
+		if(event.isEnabled()) {
+			event.iPhase = aPhase.getName();
+			event.iRowCount = iRowCount;
+			event.iPhaseDuration = aNanos;
+			event.commit();
+		}
+	}
+
+	/*package*/ long getPhaseNanos(Phase aPhase) {
+		return iPhaseNanosLongArray[aPhase.ordinal()];
+	}
+
+	/**
+	 * @param anEngineName engine, and frontier for Dijkstra (i.e. "dijkstra/heap")
+	 */
+
+	/*package*/ void setEngine(String anEngineName) {
+		iEngineName = anEngineName;
+	}
+
+	/*package*/ void setRowCount(int aRowCount) {
+		iRowCount = aRowCount;
+	}
+
+	/*package*/ void addDijkstraCounts(long aFinalizedNodeCount, long anInsertCount, long aDecreaseCount, long aPeakSize, long aMovedByteCount) {
+		iFinalizedNodeCount += aFinalizedNodeCount;
+		iFrontierInsertCount += anInsertCount;
+		iFrontierDecreaseCount += aDecreaseCount;
+		iFrontierPeakSize = Math.max(iFrontierPeakSize, aPeakSize);
+		iFrontierMovedByteCount += aMovedByteCount;
+	}
+
+	/**
+	 * @param aByteSize memory used by the node arrays at some point (see Triangle.getStorageByteSize). the largest one is kept.
+	 */
+
+	/*package*/ void recordNodeStorage(long aByteSize) {
+		iNodeStoragePeakByteSize = Math.max(iNodeStoragePeakByteSize, aByteSize);
+	}
+
+	/**
+	 * emits a SolveSummaryEvent with everything recorded so far. meant to be called once, at the end of the run.
+	 */
+
+	/*package*/ void commitSummary() {
+		if(!FlightRecorder.isInitialized()) {
+			return;
+		}
+		final SolveSummaryEvent event = new SolveSummaryEvent();
+		if(event.isEnabled()) {
+			event.iEngine = iEngineName;
+			event.iRowCount = iRowCount;
+			event.iFinalizedNodeCount = iFinalizedNodeCount;
+			event.iFrontierInsertCount = iFrontierInsertCount;
+			event.iFrontierDecreaseCount = iFrontierDecreaseCount;
+			event.iFrontierPeakSize = iFrontierPeakSize;
+			event.iFrontierMovedByteCount = iFrontierMovedByteCount;
+			event.iNodeStoragePeakByteSize = iNodeStoragePeakByteSize;
+			event.commit();
+		}
+	}
+
+	/**
+	 * @return everything recorded, as a single line of JSON. times are in nanoseconds.
+	 */
+
+	/*package*/ String toJson() {
+		final StringBuilder result = new StringBuilder();
+		result.append("{\"engine\":\"").append(iEngineName).append('"');
+		result.append(",\"rows\":").append(iRowCount);
+		result.append(",\"phaseNanos\":{");
+		final Phase[] phaseArray = Phase.values();
+		for(int ii = 0 ; ii < phaseArray.length ; ++ii) {
+			if(0 < ii) {
+				result.append(',');
+			}
+			result.append('"').append(phaseArray[ii].getName()).append("\":").append(iPhaseNanosLongArray[ii]);
+		}
+		result.append('}');
+		result.append(",\"finalizedNodes\":").append(iFinalizedNodeCount);
+		result.append(",\"frontierInserts\":").append(iFrontierInsertCount);
+		result.append(",\"frontierDecreases\":").append(iFrontierDecreaseCount);
+		result.append(",\"frontierPeakSize\":").append(iFrontierPeakSize);
+		result.append(",\"frontierMovedBytes\":").append(iFrontierMovedByteCount);
+		result.append(",\"nodeStoragePeakBytes\":").append(iNodeStoragePeakByteSize);
+		result.append('}');
+		return result.toString();
+	}
+
+}
@@ -0,0 +1,43 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event summing up a MinTrianglePath run (see SolveStatistics)
+ */
+
+@Name("MinTrianglePath.SolveSummary")
+@Label("Solve Summary")
+@Category("MinTrianglePath")
+@Description("Engine internals and memory of a MinTrianglePath run")
+final class SolveSummaryEvent extends jdk.jfr.Event {
+
+	@Label("Engine")
+	/*package*/ String iEngine;
+
+	@Label("Rows")
+	/*package*/ int iRowCount;
+
+	@Label("Finalized Nodes")
+	/*package*/ long iFinalizedNodeCount;
+
+	@Label("Frontier Inserts")
+	/*package*/ long iFrontierInsertCount;
+
+	@Label("Frontier Decreases")
+	/*package*/ long iFrontierDecreaseCount;
+
+	@Label("Frontier Peak Size")
+	/*package*/ long iFrontierPeakSize;
+
+	@Label("Frontier Moved Bytes")
+	@DataAmount
+	/*package*/ long iFrontierMovedByteCount;
+
+	@Label("Node Storage Peak")
+	@DataAmount
+	/*package*/ long iNodeStoragePeakByteSize;
+
+}
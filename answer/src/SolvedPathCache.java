@@ -0,0 +1,115 @@
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of solved triangles, keyed by the SHA-256 hash of the triangle bytes.
+ *
+ * What is cached is the response bytes, so a hit costs a hash and a map lookup.
+ * The cache is bounded by memory, not by entry count: a 10000 rows triangle has a much longer
+ * response than a 5 rows one. Entries are evicted, least recently used first, until the
+ * estimated size of the cache is back under the cap.
+ *
+ * All methods are synchronized: the cache is shared by every connection of a TriangleSolveServer.
+ */
+
+final class SolvedPathCache {
+
+	private final static String HASH_ALGORITHM = "SHA-256";
+
+	/**
+	 * rough memory used by an entry besides its response bytes: the map entry, the key and its digest, the array header
+	 */
+
+	private final static int ENTRY_OVERHEAD_BYTE_COUNT = 160;
+
+	private final long iMaximumByteSize;
+	private long iByteSize;
+	private long iHitCount;
+	private long iMissCount;
+	private long iEvictionCount;
+
+	/**
+	 * in access order: the first entry is the least recently used one
+	 */
+
+	private final LinkedHashMap<ByteBuffer, byte[]> iResponseMap = new LinkedHashMap<ByteBuffer, byte[]>(16, 0.75f, true);
+
+	/**
+	 * @param aMaximumByteSize memory cap of the cache, in bytes
+	 */
+
+	/*package*/ SolvedPathCache(long aMaximumByteSize) {
+		iMaximumByteSize = aMaximumByteSize;
+	}
+
+	/**
+	 * @return the key of the triangle in aBuffer, from its position to its limit. the position is left untouched.
+	 */
+
+	/*package*/ static ByteBuffer makeKey(ByteBuffer aBuffer) {
+		try {
+			final MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+			digest.update(aBuffer.duplicate());
+			// ByteBuffer equality and hash code are the ones of their content
+			return ByteBuffer.wrap(digest.digest());
+		} catch (NoSuchAlgorithmException nsaex) {
+			// every Java platform has to support SHA-256
+			throw new IllegalStateException(nsaex);
+		}
+	}
+
+	/**
+	 * @return the response cached for aKey, or null. counts a hit or a miss.
+	 */
+
+	/*package*/ synchronized byte[] get(ByteBuffer aKey) {
+		final byte[] result = iResponseMap.get(aKey);
+		if(null == result) {
+			++iMissCount;
+		} else {
+			++iHitCount;
+		}
+		return result;
+	}
+
+	/**
+	 * caches aResponse for aKey, then evicts the least recently used entries until the cache fits its cap again.
+	 * a response larger than the whole cap isn't cached at all.
+	 */
+
+	/*package*/ synchronized void put(ByteBuffer aKey, byte[] aResponse) {
+		if(getEntryByteSize(aResponse) > iMaximumByteSize) {
+			return;
+		}
+		final byte[] replacedResponse = iResponseMap.put(aKey, aResponse);
+		if(null != replacedResponse) {
+			// another connection solved the same triangle at the same time
+			iByteSize -= getEntryByteSize(replacedResponse);
+		}
+		iByteSize += getEntryByteSize(aResponse);
+		final Iterator<Map.Entry<ByteBuffer, byte[]>> entryIterator = iResponseMap.entrySet().iterator();
+		while(iByteSize > iMaximumByteSize) {
+			iByteSize -= getEntryByteSize(entryIterator.next().getValue());
+			entryIterator.remove();
+			++iEvictionCount;
+		}
+	}
+
+	private static long getEntryByteSize(byte[] aResponse) {
+		return aResponse.length + ENTRY_OVERHEAD_BYTE_COUNT;
+	}
+
+	/**
+	 * @return one line of counters: hits, misses, evictions, entries and estimated size
+	 */
+
+	/*package*/ synchronized String getStatistics() {
+		return String.format("Cache: %d hits, %d misses, %d evictions, %d entries, %d of %d bytes",
+				iHitCount, iMissCount, iEvictionCount, iResponseMap.size(), iByteSize, iMaximumByteSize);
+	}
+
+}
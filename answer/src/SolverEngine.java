@@ -0,0 +1,71 @@
+
+/**
+ * The engines MinTrianglePath can use to find a minimal path,
+ * each with the name used to pick it on the command line.
+ */
+
+enum SolverEngine {
+
+	DIJKSTRA("dijkstra") {
+		/*package*/ TriangleSolver makeSolver(int aRowCount, MinTrianglePathOptions anOptions) {
+			return new DijkstraAlgorithm(aRowCount, anOptions.getFrontierType());
+		}
+	},
+
+	A_STAR("astar") {
+		/*package*/ TriangleSolver makeSolver(int aRowCount, MinTrianglePathOptions anOptions) {
+			return new DijkstraAlgorithm(aRowCount, anOptions.getFrontierType(), true);
+		}
+	},
+
+	DYNAMIC_PROGRAMMING("dp") {
+		/*package*/ TriangleSolver makeSolver(int aRowCount, MinTrianglePathOptions anOptions) {
+			return new DynamicProgrammingAlgorithm(aRowCount);
+		}
+	},
+
+	PARALLEL_DYNAMIC_PROGRAMMING("parallel") {
+		/*package*/ TriangleSolver makeSolver(int aRowCount, MinTrianglePathOptions anOptions) {
+			return new ParallelDynamicProgrammingAlgorithm(aRowCount, anOptions.getGrainSize(), anOptions.getThreadCount());
+		}
+	},
+
+	VECTOR("vector") {
+		/*package*/ TriangleSolver makeSolver(int aRowCount, MinTrianglePathOptions anOptions) {
+			return new VectorDynamicProgrammingAlgorithm(aRowCount);
+		}
+	};
+
+	private final String iCommandLineName;
+
+	private SolverEngine(String aCommandLineName) {
+		iCommandLineName = aCommandLineName;
+	}
+
+	/*package*/ String getCommandLineName() {
+		return iCommandLineName;
+	}
+
+	/**
+	 * @param anOptions where engine specific settings (i.e. the Dijkstra frontier, the parallel grain size) are taken from
+	 * @return a new TriangleSolver able to process triangles of up to aRowCount rows
+	 */
+
+	/*package*/ abstract TriangleSolver makeSolver(int aRowCount, MinTrianglePathOptions anOptions);
+
+	/**
+	 * @return the SolverEngine called aCommandLineName, or null if there is no such engine
+	 */
+
+	/*package*/ static SolverEngine fromCommandLineName(String aCommandLineName) {
+		SolverEngine result = null;
+		final SolverEngine[] engineArray = values();
+		for(int ii = 0 ; null == result && ii < engineArray.length ; ++ii) {
+			if(engineArray[ii].iCommandLineName.equals(aCommandLineName)) {
+				result = engineArray[ii];
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,144 @@
+
+/**
+ * The original frontier of DijkstraAlgorithm.
+ *
+ * Neighbour nodes are stored in arrays large enough to contain all the nodes in the triangle.
+ *
+ * This clearly wastes memory but the hope is that, on a modern CPU with a decent amount of cache,
+ * using System.arraycopy to keep the arrays sorted will be faster (or at least fast enough for up to 500 rows)
+ * than manipulating a Fibonacci heap (the usually preferred way of keeping track of neighbouring nodes)
+ * and the many cache-miss we expect it involves.
+ *
+ * Every operation costs O(frontier size) so IndexedHeapFrontier or BucketQueueFrontier
+ * should be preferred for large triangles.
+ */
+
+final class SortedArrayFrontier implements DijkstraFrontier {
+
+	/**
+	 * node indexes (see Triangle.getNodeIndex), sorted by path value
+	 */
+
+	private final int[] iNeighbourNodeIndexIntArray;
+	private int iNeighbourNodeCount;
+	private long iMovedByteCount;
+
+	/**
+	 * the path value each node was given, by node index. it isn't read from the Triangle the algorithm runs on,
+	 * so the frontier can be ordered by something else than the path value (see DijkstraAlgorithm, goal-directed mode).
+	 */
+
+	private final int[] iPathValueIntArray;
+
+	/*package*/ SortedArrayFrontier(int aNodeCount) {
+		iNeighbourNodeIndexIntArray = new int[aNodeCount];
+		iPathValueIntArray = new int[aNodeCount];
+	}
+
+	public void reset(Triangle aTriangle) {
+		iNeighbourNodeCount = 0;
+		iMovedByteCount = 0;
+	}
+
+	public boolean isEmpty() {
+		return 0 == iNeighbourNodeCount;
+	}
+
+	public void insert(int aNodeIndex, int aPathValue) {
+		insertIntoNeighbouringNodes(aNodeIndex, aPathValue);
+	}
+
+	public void decreasePathValue(int aNodeIndex, int anOldPathValue, int aNewPathValue) {
+		removeFromNeighbouringNodes(aNodeIndex, anOldPathValue);
+		insertIntoNeighbouringNodes(aNodeIndex, aNewPathValue);
+	}
+
+	/**
+	 * @param aPathValue used to keep the neighbouring nodes sorted.
+	 */
+	private void removeFromNeighbouringNodes(int aNodeIndex, int aPathValue) {
+		final int pathValueIndex = findIndex(aPathValue);
+		boolean isFoundNeighbour = false;
+		// look for specific neighbour, by its node index, from the index for a node with the correct path value
+		for (int ii = pathValueIndex ; !isFoundNeighbour && (ii < iNeighbourNodeCount) && (aPathValue == iPathValueIntArray[iNeighbourNodeIndexIntArray[ii]]) ; ++ii) {
+			if(iNeighbourNodeIndexIntArray[ii] == aNodeIndex) {
+				isFoundNeighbour = true;
+				System.arraycopy(iNeighbourNodeIndexIntArray, ii + 1, iNeighbourNodeIndexIntArray, ii, iNeighbourNodeCount - ii - 1);
+				iMovedByteCount += (long)Integer.BYTES * (iNeighbourNodeCount - ii - 1);
+				--iNeighbourNodeCount;
+			}
+		}
+		// if necessary, look before the same index as long as the path value is correct.
+		for (int jj = pathValueIndex - 1 ; !isFoundNeighbour &&(0 <= jj) && (aPathValue == iPathValueIntArray[iNeighbourNodeIndexIntArray[jj]]) ; --jj) {
+			if(iNeighbourNodeIndexIntArray[jj] == aNodeIndex) {
+				isFoundNeighbour = true;
+				System.arraycopy(iNeighbourNodeIndexIntArray, jj + 1, iNeighbourNodeIndexIntArray, jj, iNeighbourNodeCount - jj - 1);
+				iMovedByteCount += (long)Integer.BYTES * (iNeighbourNodeCount - jj - 1);
+				--iNeighbourNodeCount;
+			}
+		}
+	}
+
+	/**
+	 * @param aPathValue used to keep the neighbouring nodes sorted.
+	 */
+	private void insertIntoNeighbouringNodes(int aNodeIndex, int aPathValue) {
+		final int pathValueIndex = findIndex(aPathValue);
+		System.arraycopy(iNeighbourNodeIndexIntArray, pathValueIndex, iNeighbourNodeIndexIntArray, pathValueIndex +1, iNeighbourNodeCount - pathValueIndex);
+		iMovedByteCount += (long)Integer.BYTES * (iNeighbourNodeCount - pathValueIndex);
+		++iNeighbourNodeCount;
+		iNeighbourNodeIndexIntArray[pathValueIndex] = aNodeIndex;
+		iPathValueIntArray[aNodeIndex] = aPathValue;
+	}
+
+	/**
+	 * binary search for the node index of a neighbouring node with a given path value
+	 *
+	 * @return an index in iNeighbourNodeIndexIntArray where such a node is
+	 * or the index where we can insert it if no such node exists.
+	 *
+	 * */
+
+	private int findIndex(int aPathValueTarget) {
+		int searchAreaBeginIndex = 0;
+		int searchAreaEndIndex = iNeighbourNodeCount - 1;
+		int result = searchAreaBeginIndex;
+		boolean isFoundValue = false;
+		while (!isFoundValue && searchAreaBeginIndex <= searchAreaEndIndex) {
+			result = searchAreaBeginIndex + (searchAreaEndIndex - searchAreaBeginIndex) / 2;
+			int midVal = iPathValueIntArray[iNeighbourNodeIndexIntArray[result]];
+
+			if (midVal < aPathValueTarget)
+				searchAreaBeginIndex = result + 1;
+			else if (midVal > aPathValueTarget)
+				searchAreaEndIndex = result - 1;
+			else
+				isFoundValue = true;
+		}
+		if(!isFoundValue) {
+			result = searchAreaBeginIndex;
+		}
+		return result;
+	}
+
+	/**
+	 *
+	 * Extracts the unvisited neighbour with the minimal tentative path value
+	 * from iNeighbourNodeIndexIntArray
+	 *
+	 * @return the node index of the neighbour
+	 */
+
+	public int popBest() {
+		final int result = iNeighbourNodeIndexIntArray[0];
+		--iNeighbourNodeCount;
+		System.arraycopy(iNeighbourNodeIndexIntArray, 1, iNeighbourNodeIndexIntArray, 0, iNeighbourNodeCount);
+		iMovedByteCount += (long)Integer.BYTES * iNeighbourNodeCount;
+		return result;
+	}
+
+	public long getMovedByteCount() {
+		return iMovedByteCount;
+	}
+
+}
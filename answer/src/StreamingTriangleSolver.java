@@ -0,0 +1,157 @@
+
+/**
+ * Top-down dynamic programming over the standard input, one row at a time.
+ *
+ * The Triangle is never built: only the minimal path values of the previous row are kept,
+ * plus one bit per node telling which parent the minimal path to that node comes from.
+ * That is n*n/16 bytes for n rows, instead of several int arrays of n*n/2 entries.
+ *
+ * The price to pay is that the node values are gone by the time we know which leaf is best,
+ * so the path comes back as node numbers (second coordinates, one per row)
+ * together with the path value instead of as node values.
+ */
+
+final class StreamingTriangleSolver {
+
+	private final static int INITIAL_ROW_CAPACITY = MinTrianglePath.ROW_COUNT_PERFORMANCE_TARGET;
+
+	/**
+	 * minimal path values of the row read last and the row before it. swapped after every row.
+	 */
+
+	private int[] iPreviousRowSumIntArray = new int[INITIAL_ROW_CAPACITY];
+	private int[] iCurrentRowSumIntArray = new int[INITIAL_ROW_CAPACITY];
+	private int[] iNodeValueIntArray = new int[INITIAL_ROW_CAPACITY];
+
+	/**
+	 * one bit per node, set when the minimal path to that node comes from the parent above, left.
+	 * bits are indexed like the nodes inside Triangle: row after row, starting at the root.
+	 */
+
+	private final PackedBitSet iIsFromLeftParentBitSet = new PackedBitSet(0);
+
+	private int iPathValue;
+
+	/**
+	 * Consumes all the rows left in anInputProcessor.
+	 *
+	 * @return the node numbers of a minimal path, one per row, starting with the root.
+	 * empty if there was no row to read.
+	 * @throws <code>TriangleInputException</code> if a row doesn't belong to a valid <code>Triangle</code>
+	 */
+
+	/*package*/ int[] solve(TriangleInputProcessor anInputProcessor) throws TriangleInputException {
+		int rowCount = 0;
+		while(anInputProcessor.readNextRow(ensureRowCapacity(rowCount + 1))) {
+			++rowCount;
+			iIsFromLeftParentBitSet.ensureCapacity(((long)rowCount * (rowCount + 1)) / 2);
+			foldRow(rowCount);
+		}
+		if(0 == rowCount) {
+			iPathValue = 0;
+			return new int[0];
+		}
+		// best leaf. iPreviousRowSumIntArray holds the last row once it has been folded
+		int leafIndex = 0;
+		for(int ii = 1 ; ii < rowCount ; ++ii) {
+			if(iPreviousRowSumIntArray[ii] < iPreviousRowSumIntArray[leafIndex]) {
+				leafIndex = ii;
+			}
+		}
+		iPathValue = iPreviousRowSumIntArray[leafIndex];
+		return travelBackFromLeafToRoot(rowCount, leafIndex + 1);
+	}
+
+	/**
+	 * @return the value of the path returned by the last call to solve
+	 */
+
+	/*package*/ int getPathValue() {
+		return iPathValue;
+	}
+
+	/**
+	 * @return bytes used by the row buffers and the parent bits, as the last call to solve left them
+	 */
+
+	/*package*/ long getStorageByteSize() {
+		return 3L * iNodeValueIntArray.length * Integer.BYTES + iIsFromLeftParentBitSet.getByteSize();
+	}
+
+	/**
+	 * computes the minimal path values of row aRowCount (held in iNodeValueIntArray)
+	 * from the ones of the row above, then makes them the previous row.
+	 */
+
+	private void foldRow(int aRowCount) {
+		foldRow(aRowCount, iNodeValueIntArray, iPreviousRowSumIntArray, iCurrentRowSumIntArray, iIsFromLeftParentBitSet, ((long)aRowCount * (aRowCount - 1)) / 2);
+		final int[] swapIntArray = iPreviousRowSumIntArray;
+		iPreviousRowSumIntArray = iCurrentRowSumIntArray;
+		iCurrentRowSumIntArray = swapIntArray;
+	}
+
+	/**
+	 * computes the minimal path values of row aRowCount from the ones of the row above
+	 *
+	 * @param aNodeValueIntArray node values of row aRowCount
+	 * @param aPreviousRowSumIntArray minimal path values of the row above
+	 * @param aCurrentRowSumIntArray where the minimal path values of row aRowCount go
+	 * @param anIsFromLeftParentBitSet where the parent choices of the row go, from aRowBitIndex on. null not to keep them.
+	 */
+
+	/*package*/ static void foldRow(int aRowCount, int[] aNodeValueIntArray, int[] aPreviousRowSumIntArray, int[] aCurrentRowSumIntArray,
+			PackedBitSet anIsFromLeftParentBitSet, long aRowBitIndex) {
+		final boolean isKeepingParents = (null != anIsFromLeftParentBitSet);
+		if(1 == aRowCount) {
+			aCurrentRowSumIntArray[0] = aNodeValueIntArray[0];
+		} else {
+			// first and last nodes of a row only have 1 parent
+			aCurrentRowSumIntArray[0] = aNodeValueIntArray[0] + aPreviousRowSumIntArray[0];
+			for(int ii = 1 ; ii < aRowCount - 1 ; ++ii) {
+				final int leftParentSum = aPreviousRowSumIntArray[ii - 1];
+				final int rightParentSum = aPreviousRowSumIntArray[ii];
+				final boolean isFromLeftParent = leftParentSum <= rightParentSum;
+				if(isKeepingParents) {
+					anIsFromLeftParentBitSet.set(aRowBitIndex + ii, isFromLeftParent);
+				}
+				aCurrentRowSumIntArray[ii] = aNodeValueIntArray[ii] + (isFromLeftParent ? leftParentSum : rightParentSum);
+			}
+			aCurrentRowSumIntArray[aRowCount - 1] = aNodeValueIntArray[aRowCount - 1] + aPreviousRowSumIntArray[aRowCount - 2];
+			if(isKeepingParents) {
+				anIsFromLeftParentBitSet.set(aRowBitIndex, false);
+				anIsFromLeftParentBitSet.set(aRowBitIndex + aRowCount - 1, true);
+			}
+		}
+	}
+
+	private int[] travelBackFromLeafToRoot(int aRowCount, int aLeafNodeCoordinate) {
+		final int[] result = new int[aRowCount];
+		int nodeCoordinate = aLeafNodeCoordinate;
+		for(int row = aRowCount ; row > 0 ; --row) {
+			result[row - 1] = nodeCoordinate;
+			if(iIsFromLeftParentBitSet.get(((long)row * (row - 1)) / 2 + nodeCoordinate - 1)) {
+				--nodeCoordinate;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * grows the row buffers (by doubling them) until they can hold aRowCount nodes
+	 *
+	 * @return the buffer where the node values of the next row go
+	 */
+
+	private int[] ensureRowCapacity(int aRowCount) {
+		if(iNodeValueIntArray.length < aRowCount) {
+			final int capacity = Math.max(aRowCount, 2 * iNodeValueIntArray.length);
+			final int[] previousRowSumIntArray = new int[capacity];
+			System.arraycopy(iPreviousRowSumIntArray, 0, previousRowSumIntArray, 0, iPreviousRowSumIntArray.length);
+			iPreviousRowSumIntArray = previousRowSumIntArray;
+			iCurrentRowSumIntArray = new int[capacity];
+			iNodeValueIntArray = new int[capacity];
+		}
+		return iNodeValueIntArray;
+	}
+
+}
@@ -1,28 +1,33 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 
 /**
  * While the nodes are stored in large contiguous arrays inside this class,
  * they are accessed via coordinates from outside this class.
  * A set of coordinates is (row number, node number in the row), starting at (1,1)
  * for the root of the triangle
+ *
+ * Hot loops (i.e. DijkstraAlgorithm) can use node indexes instead (see getNodeIndex):
+ * the index based methods go straight to the arrays, and the children and parents
+ * of a node are found with a couple of additions (see getLeftChildIndex and getLeftParentIndex).
  */
 
 final class Triangle {
 
 	/**
-	 * any node in a triangle is surrounded by at most 2 adjacent nodes.
-	 * (either below or above, depending on the direction of the path)
-	 * this is a class invariant.
+	 * Since nodes are accessed via coordinates, we don't want to keep
+	 * on recalculating where each row begins. computed once, for every row the triangle can hold.
 	 */
-	
-	private final static int ADJACENT_NODE_ARRAY_MAXIMUM_LENGTH = 2;
+
+	private final long[] iRowIndexOffsetLongArray;
 
 	/**
-	 * Since nodes are accessed via coordinates, we don't want to keep
-	 * on recalculating where each row begins
+	 * a Triangle can be reset (see reset) to any number of rows up to the one it was created with,
+	 * so its storage gets reused from one triangle to the next.
 	 */
 
-	private final static int INVALID_ROW_INDEX_OFFSET = -1;
-	private final int[] iRowIndexOffsetIntArray;
+	private int iRowCount;
 
 	/**
 	 * The information associated with each node is:
@@ -30,11 +35,15 @@ final class Triangle {
 	 * - a path value required to reach the node
 	 * - whether the path value has actually become final 
 	 * (i.e. whatever algorithm we're running, has it finished processing the node?) 
+	 *
+	 * Node values are kept in the narrowest NodeValueStore able to hold them all.
+	 * Only some algorithms (i.e. DijkstraAlgorithm) need path values and finality,
+	 * so those are only allocated the first time they are written to.
 	 */
 
-	private final int[] iNodeValueIntArray;
-	private final int[] iPathValueIntArray;
-	private final boolean[] isNodeFinalBoolArray;
+	private NodeValueStore iNodeValues;
+	private int[] iPathValueIntArray;
+	private PackedBitSet iIsNodeFinalBitSet;
 
 	/**
 	 * @param aRowCount number of rows in the Triangle.
@@ -44,125 +53,314 @@ final class Triangle {
 	 */
 
 	/*package*/ Triangle(int aRowCount) {
-		iRowIndexOffsetIntArray = new int[aRowCount];
+		this(aRowCount, Byte.BYTES, false);
+	}
+
+	/**
+	 * @param aValueByteCount initial width of the node values (1, 2 or 4 bytes).
+	 * setNodeValue widens the storage if a value doesn't fit, which copies all of it:
+	 * when the input is at hand, measure it first (see TriangleByteParser.countRowsAndMaximumTokenLength).
+	 * @param aIsOffHeap true to keep the node values outside of the Java heap (see OffHeapNodeValueStore).
+	 * they always are when there are more nodes than an array can hold.
+	 */
+
+	/*package*/ Triangle(int aRowCount, int aValueByteCount, boolean aIsOffHeap) {
+		iRowIndexOffsetLongArray = new long[aRowCount];
 		for(int ii = 0 ; ii < aRowCount ; ++ii) {
-			iRowIndexOffsetIntArray[ii] = INVALID_ROW_INDEX_OFFSET;
+			iRowIndexOffsetLongArray[ii] = getNodeCount(ii);
+		}
+		iRowCount = aRowCount;
+		iNodeValues = NodeValueStore.make(aValueByteCount, getNodeCount(aRowCount), aIsOffHeap);
+	}
+
+	/**
+	 * Turns this Triangle into a new one of aRowCount rows, without allocating anything.
+	 * Path values and finality go back to what a new Triangle has. Node values are left as they are:
+	 * they are meant to be all overwritten.
+	 *
+	 * @throws IllegalArgumentException if aRowCount is larger than getRowCapacity()
+	 */
+
+	/*package*/ void reset(int aRowCount) {
+		if(getRowCapacity() < aRowCount) {
+			throw new IllegalArgumentException("Triangle can't hold " + aRowCount + " rows");
+		}
+		iRowCount = aRowCount;
+		if(null != iPathValueIntArray) {
+			Arrays.fill(iPathValueIntArray, 0, (int)getNodeCount(), Integer.MAX_VALUE);
 		}
-		final int nodeCount = (aRowCount * (aRowCount + 1)) / 2;
-		iNodeValueIntArray = new int[nodeCount];
-		iPathValueIntArray = new int[nodeCount];
-		isNodeFinalBoolArray = new boolean[nodeCount];
-		for(int jj = 0 ; jj < nodeCount ; ++jj) {
-			iPathValueIntArray[jj] = Integer.MAX_VALUE; // reasonable assumption
-			isNodeFinalBoolArray[jj] = false;
+		if(null != iIsNodeFinalBitSet) {
+			iIsNodeFinalBitSet.clear();
 		}
 	}
 
 	/*package*/ int getRowCount() {
-		return iRowIndexOffsetIntArray.length;
+		return iRowCount;
 	}
 
-	/*package*/ int getAdjacentNodeArrayMaximumLength() {
-		return ADJACENT_NODE_ARRAY_MAXIMUM_LENGTH;
+	/**
+	 * @return the largest row count reset accepts
+	 */
+
+	/*package*/ int getRowCapacity() {
+		return iRowIndexOffsetLongArray.length;
 	}
-	
+
+	/*package*/ long getNodeCount() {
+		return getNodeCount(iRowCount);
+	}
+
+	/**
+	 * @return number of nodes in a triangle of aRowCount rows. more than an int can hold past 65535 rows.
+	 */
+
+	/*package*/ static long getNodeCount(int aRowCount) {
+		return ((long)aRowCount * (aRowCount + 1)) / 2;
+	}
+
+	/*package*/ boolean isOffHeap() {
+		return iNodeValues.isOffHeap();
+	}
+
+	/**
+	 * @return size in bytes of a node value, as currently stored
+	 */
+
+	/*package*/ int getValueByteCount() {
+		return iNodeValues.getValueByteCount();
+	}
+
+	/**
+	 * @return number of bytes used by the node values, path values and finality of the nodes
+	 */
+
+	/*package*/ long getStorageByteSize() {
+		long result = iNodeValues.getByteSize();
+		if(null != iPathValueIntArray) {
+			result += (long)iPathValueIntArray.length * Integer.BYTES;
+		}
+		if(null != iIsNodeFinalBitSet) {
+			result += iIsNodeFinalBitSet.getByteSize();
+		}
+		return result;
+	}
+
 	/*package*/ void setNodeValue(int aRowCount, int aNodeCount, int aNodeValue) {
-		iNodeValueIntArray[iRowIndexOffsetIntArray[ensureRowIndexOffset(aRowCount)] + aNodeCount - 1] = aNodeValue;
+		if(!iNodeValues.canHold(aNodeValue)) {
+			iNodeValues = iNodeValues.widen(aNodeValue);
+		}
+		iNodeValues.set(iRowIndexOffsetLongArray[aRowCount - 1] + aNodeCount - 1, aNodeValue);
 	}
 	
 	/*package*/ int getNodeValue(int aRowCount, int aNodeCount) {
-		return iNodeValueIntArray[iRowIndexOffsetIntArray[ensureRowIndexOffset(aRowCount)] + aNodeCount - 1];
+		return iNodeValues.get(iRowIndexOffsetLongArray[aRowCount - 1] + aNodeCount - 1);
+	}
+
+	/**
+	 * Bulk version of getNodeValue for a whole row
+	 *
+	 * @param aNodeValueIntArray where node n of row aRowCount goes, at index n-1. must be large enough for the row.
+	 */
+
+	/*package*/ void getRowNodeValues(int aRowCount, int[] aNodeValueIntArray) {
+		iNodeValues.getValues(iRowIndexOffsetLongArray[aRowCount - 1], aNodeValueIntArray, aRowCount);
 	}
 
 	/*package*/ void setNodeIsFinal(int aRowCount, int aNodeCount) {
-		isNodeFinalBoolArray[iRowIndexOffsetIntArray[ensureRowIndexOffset(aRowCount)] + aNodeCount - 1] = true;
+		setNodeIsFinal(getNodeIndex(aRowCount, aNodeCount));
 	}
 
 	/*package*/ void setNodePathValue(int aRowCount, int aNodeCount, int aPathValue) {
-		iPathValueIntArray[iRowIndexOffsetIntArray[ensureRowIndexOffset(aRowCount)] + aNodeCount - 1] = aPathValue;
+		setNodePathValue(getNodeIndex(aRowCount, aNodeCount), aPathValue);
 	}
 
 	/*package*/ int getNodePathValue(int aRowCount, int aNodeCount) {
-		return iPathValueIntArray[iRowIndexOffsetIntArray[ensureRowIndexOffset(aRowCount)] + aNodeCount - 1];
+		return getNodePathValue(getNodeIndex(aRowCount, aNodeCount));
 	}
 
 	/**
-	 * @return second coordinate of triangle leaf with minimal (path value + node value)
+	 * Same as getNodeValue(int, int), for the node numbered aNodeIndex (see getNodeIndex)
 	 */
 
-	/*package*/ int getMinimalPathValueLeafCoordinate() {
-		int minimalPathValue = Integer.MAX_VALUE;
-		int result = 0;
-		for(int ii = iRowIndexOffsetIntArray[iRowIndexOffsetIntArray.length - 1] ; ii < iNodeValueIntArray.length ; ++ii)
-		{
-			final int pathValue = iPathValueIntArray[ii] + iNodeValueIntArray[ii];
-			if(minimalPathValue > pathValue) {
-				result = ii;
-				minimalPathValue = pathValue;
-			}
+	/*package*/ int getNodeValue(int aNodeIndex) {
+		return iNodeValues.get(aNodeIndex);
+	}
+
+	/*package*/ void setNodeIsFinal(int aNodeIndex) {
+		if(null == iIsNodeFinalBitSet) {
+			iIsNodeFinalBitSet = new PackedBitSet(getNodeCount());
 		}
-		// result is an index. turn it into a coordinate
-		return result - iRowIndexOffsetIntArray[iRowIndexOffsetIntArray.length - 1] + 1;
-	}
-
-	/**
-	 * 
-	 * finds the adjacent nodes of a given node in the triangle.
-	 * 
-	 * @param aCoordinateRow first coordinate of the node to examine
-	 * @param aCoordinateNode second coordinate of the node to examine
-	 * @param aIsAdjacentFinal used to search for adjacent nodes that have been marked as final or adjacent nodes that are still non-final.
-	 * @param aResultCoordinateArray where to store the coordinates of the adjacent nodes. content to be overwritten. length must be at least 4
-	 * @return number of set of 2 coordinates stored by this method in aNodeCoordinateArray
-	 */
-
-	/*package*/ int getAdjacentNodeCoordinates(int aCoordinateRow, int aCoordinateNode, boolean aIsAdjacentFinal, int[] aResultCoordinateArray) {
-		int resultIndex = 0;
-		// 2 possible adjacent nodes. either above or below.
-		if(aIsAdjacentFinal) {
-			if(aCoordinateRow > 1) {
-				if(aCoordinateNode > 1) { //above, left
-					if(aIsAdjacentFinal == isNodeFinalBoolArray[iRowIndexOffsetIntArray[ensureRowIndexOffset(aCoordinateRow - 1)] + aCoordinateNode - 2]) {
-						aResultCoordinateArray[resultIndex++] = aCoordinateRow - 1;
-						aResultCoordinateArray[resultIndex++] = aCoordinateNode - 1;
-					}
-				}
-				if(aCoordinateNode < aCoordinateRow) { // above, right
-					if(aIsAdjacentFinal == isNodeFinalBoolArray[iRowIndexOffsetIntArray[ensureRowIndexOffset(aCoordinateRow - 1)] + aCoordinateNode - 1]) {
-						aResultCoordinateArray[resultIndex++] = aCoordinateRow - 1;
-						aResultCoordinateArray[resultIndex++] = aCoordinateNode;
-					}
-				}
-			}
-		} else {
-			if(aCoordinateRow < iRowIndexOffsetIntArray.length) {
-				//below, left
-				if(aIsAdjacentFinal == isNodeFinalBoolArray[iRowIndexOffsetIntArray[ensureRowIndexOffset(aCoordinateRow+1)] + aCoordinateNode - 1]) {
-					aResultCoordinateArray[resultIndex++] = aCoordinateRow + 1;
-					aResultCoordinateArray[resultIndex++] = aCoordinateNode;
-				}
-				// below, right
-				if(aIsAdjacentFinal == isNodeFinalBoolArray[iRowIndexOffsetIntArray[ensureRowIndexOffset(aCoordinateRow+1)] + aCoordinateNode]) {
-					aResultCoordinateArray[resultIndex++] = aCoordinateRow + 1;
-					aResultCoordinateArray[resultIndex++] = aCoordinateNode + 1;
-				}
-			}
+		iIsNodeFinalBitSet.set(aNodeIndex, true);
+	}
+
+	/*package*/ boolean isNodeFinal(int aNodeIndex) {
+		return (null != iIsNodeFinalBitSet) && iIsNodeFinalBitSet.get(aNodeIndex);
+	}
+
+	/*package*/ void setNodePathValue(int aNodeIndex, int aPathValue) {
+		if(null == iPathValueIntArray) {
+			iPathValueIntArray = new int[getIntNodeCount()];
+			Arrays.fill(iPathValueIntArray, Integer.MAX_VALUE); // reasonable assumption
+		}
+		iPathValueIntArray[aNodeIndex] = aPathValue;
+	}
+
+	/*package*/ int getNodePathValue(int aNodeIndex) {
+		if(null == iPathValueIntArray) {
+			return Integer.MAX_VALUE;
 		}
-		return resultIndex/2;
+		return iPathValueIntArray[aNodeIndex];
 	}
 
 	/**
-	 * Calculates and caches in iRowIndexOffsetIntArray the index where a triangle row begins in iNodeValueIntArray, iPathValueIntArray and isNodeFinalBoolArray
-	 *  
-	 * @return (aCoordinateRow - 1) which is the index for the row in iRowIndexOffsetIntArray, so the method call can be chained.
+	 * path values are only needed by DijkstraAlgorithm, which numbers nodes with an int.
+	 *
+	 * @throws IllegalStateException if the triangle has more nodes than that
 	 */
 
-	private int ensureRowIndexOffset(int aCoordinateRow) {
-		final int rowIndex = aCoordinateRow - 1;
-		if(INVALID_ROW_INDEX_OFFSET == iRowIndexOffsetIntArray[rowIndex]) {
-			iRowIndexOffsetIntArray[rowIndex] = (aCoordinateRow * rowIndex)/2;
+	private int getIntNodeCount() {
+		final long nodeCount = iNodeValues.getNodeCount();
+		if(NodeValueStore.MAXIMUM_HEAP_NODE_COUNT < nodeCount) {
+			throw new IllegalStateException("Too many nodes for path values: " + nodeCount);
+		}
+		return (int)nodeCount;
+	}
+
+	/**
+	 * Bulk version of setNodeValue, for node values already in the order they are stored in (see getNodeIndex).
+	 * Reads aBuffer from its position and moves the position past the values copied.
+	 *
+	 * @param aFirstNodeIndex number of the node that gets the first value in aBuffer
+	 * @param aValueByteCount size of a (signed) value in aBuffer: 1, 2 or 4
+	 * @return number of node values copied. stops at the end of aBuffer or at the last node, whichever comes first.
+	 */
+
+	/*package*/ int setNodeValues(long aFirstNodeIndex, ByteBuffer aBuffer, int aValueByteCount) {
+		if(aValueByteCount > iNodeValues.getValueByteCount()) {
+			iNodeValues = iNodeValues.widen(aValueByteCount == Short.BYTES ? Short.MIN_VALUE : Integer.MIN_VALUE);
+		}
+		final int limit = aBuffer.limit();
+		limitToNodeCount(aFirstNodeIndex, aBuffer, aValueByteCount);
+		final int result = iNodeValues.setValues(aFirstNodeIndex, aBuffer, aValueByteCount);
+		aBuffer.limit(limit);
+		return result;
+	}
+
+	/**
+	 * Bulk version of getNodeValue, the opposite of setNodeValues.
+	 * Node values must fit in aValueByteCount bytes: they are silently truncated otherwise.
+	 *
+	 * @return number of node values copied. stops at the end of aBuffer or at the last node, whichever comes first.
+	 */
+
+	/*package*/ int getNodeValues(long aFirstNodeIndex, ByteBuffer aBuffer, int aValueByteCount) {
+		final int limit = aBuffer.limit();
+		limitToNodeCount(aFirstNodeIndex, aBuffer, aValueByteCount);
+		final int result = iNodeValues.getValues(aFirstNodeIndex, aBuffer, aValueByteCount);
+		aBuffer.limit(limit);
+		return result;
+	}
+
+	/**
+	 * iNodeValues can hold more nodes than the triangle (see reset).
+	 * lowers the limit of aBuffer so a bulk copy stops at the last node of the triangle.
+	 */
+
+	private void limitToNodeCount(long aFirstNodeIndex, ByteBuffer aBuffer, int aValueByteCount) {
+		final long nodeCount = getNodeCount() - aFirstNodeIndex;
+		if(aBuffer.remaining() / aValueByteCount > nodeCount) {
+			aBuffer.limit(aBuffer.position() + (int)nodeCount * aValueByteCount);
+		}
+	}
+
+	/**
+	 * @return the smallest node value in the triangle. Integer.MAX_VALUE for an empty triangle.
+	 */
+
+	/*package*/ int getMinimumNodeValue() {
+		return iNodeValues.getMinimumValue(getNodeCount());
+	}
+
+	/**
+	 * @return the largest node value in the triangle. Integer.MIN_VALUE for an empty triangle.
+	 */
+
+	/*package*/ int getMaximumNodeValue() {
+		return iNodeValues.getMaximumValue(getNodeCount());
+	}
+
+	/**
+	 * Nodes can also be numbered row after row, starting at 0 for the root.
+	 * Code that needs to pack a node into a single int (i.e. a DijkstraFrontier) can use this number,
+	 * as long as the triangle has no more than NodeValueStore.MAXIMUM_HEAP_NODE_COUNT nodes.
+	 *
+	 * @return the number of node (aCoordinateRow, aCoordinateNode)
+	 */
+
+	/*package*/ static int getNodeIndex(int aCoordinateRow, int aCoordinateNode) {
+		return (int)(((long)aCoordinateRow * (aCoordinateRow - 1)) / 2) + aCoordinateNode - 1;
+	}
+
+	/**
+	 * @return the first coordinate of the node numbered aNodeIndex (see getNodeIndex)
+	 */
+
+	/*package*/ static int getRowCoordinate(int aNodeIndex) {
+		// row r holds the node numbers from r*(r-1)/2 to r*(r+1)/2 - 1
+		int result = (int)((1 + Math.sqrt(1 + 8.0 * aNodeIndex)) / 2);
+		// floating point rounding can put us one row off
+		while(((long)result * (result - 1)) / 2 > aNodeIndex) {
+			--result;
+		}
+		while(((long)result * (result + 1)) / 2 <= aNodeIndex) {
+			++result;
+		}
+		return result;
+	}
+
+	/**
+	 * @return the second coordinate of the node numbered aNodeIndex, in row aCoordinateRow
+	 */
+
+	/*package*/ static int getNodeCoordinate(int aNodeIndex, int aCoordinateRow) {
+		return aNodeIndex - (int)(((long)aCoordinateRow * (aCoordinateRow - 1)) / 2) + 1;
+	}
+
+	/**
+	 * @return the node index of the first child (below, left) of node aNodeIndex, which is in row aRowCoordinate.
+	 * the second child (below, right) comes right after it. only valid above the leaf row.
+	 */
+
+	/*package*/ static int getLeftChildIndex(int aNodeIndex, int aRowCoordinate) {
+		return aNodeIndex + aRowCoordinate;
+	}
+
+	/**
+	 * @return the node index of the parent (above, left) of node aNodeIndex, which is in row aRowCoordinate.
+	 * the other parent (above, right) comes right after it. the first node of a row has no parent above, left,
+	 * and the last one none above, right.
+	 */
+
+	/*package*/ static int getLeftParentIndex(int aNodeIndex, int aRowCoordinate) {
+		return aNodeIndex - aRowCoordinate;
+	}
+
+	/**
+	 * @return node index of the triangle leaf with minimal (path value + node value)
+	 */
+
+	/*package*/ int getMinimalPathValueLeafIndex() {
+		int minimalPathValue = Integer.MAX_VALUE;
+		long result = iRowIndexOffsetLongArray[iRowCount - 1];
+		for(long ii = result ; ii < getNodeCount() ; ++ii)
+		{
+			final int pathValue = ((null == iPathValueIntArray) ? Integer.MAX_VALUE : iPathValueIntArray[(int)ii]) + iNodeValues.get(ii);
+			if(minimalPathValue > pathValue) {
+				result = ii;
+				minimalPathValue = pathValue;
+			}
 		}
-		return rowIndex;
+		return (int)result;
 	}
 
 }
@@ -0,0 +1,315 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Solves many triangles in a single run, so the JVM start up and the warm up are only paid once.
+ *
+ * The triangles are either the files of a directory (text or binary, see TriangleBinaryFormat)
+ * or one stream (the standard input or a file) where triangles are separated by blank lines.
+ *
+ * A fixed number of worker threads solve the triangles. Each worker keeps its Triangle and its
+ * TriangleSolver from one triangle to the next (see ReusableTriangleSolver), and only allocates new ones
+ * when a triangle has more rows than any triangle it solved before.
+ *
+ * The summaries are printed in input order: a triangle is only printed once all the triangles
+ * before it have been. At most 2 triangles per worker are in flight, so reading a long stream
+ * doesn't keep more than that in memory.
+ */
+
+final class TriangleBatchSolver {
+
+	private final static int READ_BUFFER_SIZE = 1 << 16;
+	private final static int INITIAL_TRIANGLE_BUFFER_SIZE = 1 << 16;
+	private final static int TRIANGLES_IN_FLIGHT_PER_WORKER = 2;
+
+	private final static String SUMMARY_FORMAT = "%d %s: %d rows. Path value is: %d. Solved in %d ms%n";
+	private final static String ERROR_FORMAT = "%d %s: %s%n";
+	private final static String TOTAL_FORMAT = "Solved %d of %d triangles in %d ms%n";
+
+	private final MinTrianglePathOptions iOptions;
+	private final PrintStream iOutput;
+	private final ThreadLocal<BatchWorker> iWorker = new ThreadLocal<BatchWorker>() {
+		@Override
+		protected BatchWorker initialValue() {
+			return new BatchWorker();
+		}
+	};
+
+	/**
+	 * triangles submitted but not printed yet, in input order
+	 */
+
+	private final ArrayDeque<Future<BatchResult>> iPendingResults = new ArrayDeque<Future<BatchResult>>();
+	private ExecutorService iExecutor;
+	private int iTriangleCount;
+	private int iSolvedTriangleCount;
+
+	/**
+	 * state of the stream being split into triangles (see readNextTriangle)
+	 */
+
+	private final byte[] iReadByteArray = new byte[READ_BUFFER_SIZE];
+	private int iReadPosition;
+	private int iReadLimit;
+	private int iLineNumber;
+	private int iTriangleLineNumber; // line number of the first row of the last triangle read
+
+	/**
+	 * @param anOptions engine, engine settings and worker count. the input path is a directory,
+	 * a multi-triangle file, or null for a multi-triangle standard input.
+	 */
+
+	/*package*/ TriangleBatchSolver(MinTrianglePathOptions anOptions, PrintStream anOutput) {
+		iOptions = anOptions;
+		iOutput = anOutput;
+	}
+
+	/**
+	 * Solves every triangle of the input and prints a summary line for each of them, then a total.
+	 *
+	 * @throws IOException if the directory or the stream can't be read
+	 */
+
+	/*package*/ void solveAll() throws IOException {
+		final long startTime = System.nanoTime();
+		iExecutor = Executors.newFixedThreadPool(iOptions.getWorkerCount());
+		try {
+			final Path inputPath = iOptions.getInputPath();
+			if((null != inputPath) && Files.isDirectory(inputPath)) {
+				solveDirectory(inputPath);
+			} else {
+				final InputStream inputStream = (null == inputPath) ? System.in : Files.newInputStream(inputPath);
+				try {
+					solveStream(inputStream);
+				} finally {
+					inputStream.close();
+				}
+			}
+			while(!iPendingResults.isEmpty()) {
+				printNextResult();
+			}
+		} finally {
+			iExecutor.shutdownNow();
+		}
+		iOutput.printf(TOTAL_FORMAT, iSolvedTriangleCount, iTriangleCount, (System.nanoTime() - startTime) / 1000000);
+	}
+
+	/**
+	 * one triangle per regular file of aDirectoryPath, in file name order
+	 */
+
+	private void solveDirectory(Path aDirectoryPath) throws IOException {
+		final List<Path> pathList = new ArrayList<Path>();
+		final DirectoryStream<Path> directoryStream = Files.newDirectoryStream(aDirectoryPath);
+		try {
+			for(Path path : directoryStream) {
+				if(Files.isRegularFile(path)) {
+					pathList.add(path);
+				}
+			}
+		} finally {
+			directoryStream.close();
+		}
+		Collections.sort(pathList);
+		for(int ii = 0 ; ii < pathList.size() ; ++ii) {
+			final Path path = pathList.get(ii);
+			submit(new Callable<BatchResult>() {
+				public BatchResult call() {
+					return iWorker.get().solveFile(path);
+				}
+			});
+		}
+	}
+
+	/**
+	 * one triangle per group of lines of anInputStream, groups being separated by blank lines
+	 */
+
+	private void solveStream(InputStream anInputStream) throws IOException {
+		iReadPosition = 0;
+		iReadLimit = 0;
+		iLineNumber = 0;
+		ByteBuffer triangleBuffer = null;
+		while(null != (triangleBuffer = readNextTriangle(anInputStream))) {
+			final ByteBuffer inputBuffer = triangleBuffer;
+			final String name = "line " + iTriangleLineNumber;
+			submit(new Callable<BatchResult>() {
+				public BatchResult call() {
+					return iWorker.get().solveText(name, inputBuffer);
+				}
+			});
+		}
+	}
+
+	/**
+	 * @return the lines of the next triangle of anInputStream, without the blank lines around it. null at the end of anInputStream.
+	 */
+
+	private ByteBuffer readNextTriangle(InputStream anInputStream) throws IOException {
+		byte[] triangleByteArray = new byte[INITIAL_TRIANGLE_BUFFER_SIZE];
+		int triangleByteCount = 0;
+		int lineStart = 0; // in triangleByteArray
+		boolean isLineBlank = true; // nothing but '\r' so far
+		boolean isTriangleEnded = false;
+		while(!isTriangleEnded) {
+			if(iReadPosition == iReadLimit) {
+				iReadLimit = anInputStream.read(iReadByteArray);
+				iReadPosition = 0;
+				if(0 > iReadLimit) {
+					iReadLimit = 0;
+					break;
+				}
+			}
+			final byte inputByte = iReadByteArray[iReadPosition++];
+			if(triangleByteCount == triangleByteArray.length) {
+				final byte[] grownByteArray = new byte[2 * triangleByteArray.length];
+				System.arraycopy(triangleByteArray, 0, grownByteArray, 0, triangleByteCount);
+				triangleByteArray = grownByteArray;
+			}
+			triangleByteArray[triangleByteCount++] = inputByte;
+			if('\n' == inputByte) {
+				++iLineNumber;
+				if(isLineBlank) {
+					// a blank line ends the triangle, if there is one yet
+					triangleByteCount = lineStart;
+					isTriangleEnded = (0 < triangleByteCount);
+				} else if(0 == lineStart) {
+					iTriangleLineNumber = iLineNumber;
+				}
+				lineStart = triangleByteCount;
+				isLineBlank = true;
+			} else if('\r' != inputByte) {
+				isLineBlank = false;
+			}
+		}
+		if(!isTriangleEnded) {
+			// the input ended. a last line without '\n' still belongs to the triangle
+			if(isLineBlank) {
+				triangleByteCount = lineStart;
+			} else if(0 == lineStart) {
+				iTriangleLineNumber = ++iLineNumber;
+			}
+			if(0 == triangleByteCount) {
+				return null;
+			}
+		}
+		return ByteBuffer.wrap(triangleByteArray, 0, triangleByteCount);
+	}
+
+	/**
+	 * hands aTask over to a worker, after printing as many results as needed to stay within the in-flight limit
+	 */
+
+	private void submit(Callable<BatchResult> aTask) {
+		while(iPendingResults.size() >= TRIANGLES_IN_FLIGHT_PER_WORKER * iOptions.getWorkerCount()) {
+			printNextResult();
+		}
+		iPendingResults.add(iExecutor.submit(aTask));
+		++iTriangleCount;
+		while(!iPendingResults.isEmpty() && iPendingResults.peek().isDone()) {
+			printNextResult();
+		}
+	}
+
+	/**
+	 * waits for the oldest triangle in flight and prints its summary
+	 */
+
+	private void printNextResult() {
+		final int triangleNumber = iTriangleCount - iPendingResults.size() + 1;
+		BatchResult result = null;
+		try {
+			result = iPendingResults.poll().get();
+		} catch(InterruptedException iex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(iex);
+		} catch(ExecutionException eex) {
+			// workers report input errors in their result. anything else is a bug
+			throw new IllegalStateException(eex.getCause());
+		}
+		if(null == result.iErrorMessage) {
+			++iSolvedTriangleCount;
+			iOutput.printf(SUMMARY_FORMAT, triangleNumber, result.iName, result.iRowCount, result.iPathValue, result.iDurationNanos / 1000000);
+		} else {
+			iOutput.printf(ERROR_FORMAT, triangleNumber, result.iName, result.iErrorMessage);
+		}
+	}
+
+	/**
+	 * What a worker found about one triangle
+	 */
+
+	private final static class BatchResult {
+
+		private final String iName;
+		private final int iRowCount;
+		private final long iPathValue;
+		private final long iDurationNanos;
+		private final String iErrorMessage;
+
+		BatchResult(String aName, int aRowCount, long aPathValue, long aDurationNanos, String anErrorMessage) {
+			iName = aName;
+			iRowCount = aRowCount;
+			iPathValue = aPathValue;
+			iDurationNanos = aDurationNanos;
+			iErrorMessage = anErrorMessage;
+		}
+
+	}
+
+	/**
+	 * What one worker thread keeps from one triangle to the next
+	 */
+
+	private final class BatchWorker {
+
+		private final ReusableTriangleSolver iSolver = new ReusableTriangleSolver(iOptions);
+
+		BatchResult solveFile(Path aPath) {
+			final long startTime = System.nanoTime();
+			final String name = aPath.getFileName().toString();
+			try {
+				return solve(name, MappedInputFile.map(aPath), startTime);
+			} catch(IOException ioex) {
+				return new BatchResult(name, 0, 0, 0, String.format(TriangleInputException.BAD_FILE, aPath));
+			}
+		}
+
+		BatchResult solveText(String aName, ByteBuffer anInputBuffer) {
+			return solve(aName, new ByteBuffer[] { anInputBuffer }, System.nanoTime());
+		}
+
+		private BatchResult solve(String aName, ByteBuffer[] anInputBufferArray, long aStartTime) {
+			final int[] path;
+			try {
+				path = iSolver.solve(anInputBufferArray);
+			} catch(TriangleInputException tiex) {
+				return new BatchResult(aName, 0, 0, 0, tiex.getMessage());
+			} catch(IllegalArgumentException iaex) {
+				// i.e. node values a Dijkstra frontier can't handle
+				return new BatchResult(aName, iSolver.getRowCount(), 0, 0, iaex.getMessage());
+			}
+			long pathValue = 0;
+			for(int ii = 0 ; ii < path.length ; ++ii) {
+				pathValue += path[ii];
+			}
+			return new BatchResult(aName, iSolver.getRowCount(), pathValue, System.nanoTime() - aStartTime, null);
+		}
+
+	}
+
+}
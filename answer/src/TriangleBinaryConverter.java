@@ -0,0 +1,35 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Converts a triangle from the text format to the binary format (see TriangleBinaryFormat)
+ * so it can be loaded by MinTrianglePath many times without being parsed again.
+ */
+
+public class TriangleBinaryConverter {
+
+	private final static int EXPECTED_ARGUMENT_COUNT = 2;
+	private final static String STANDARD_INPUT_ARGUMENT = "-";
+
+	public static void main(String[] args) {
+		boolean isPrintUsage = true;
+		if(EXPECTED_ARGUMENT_COUNT == args.length) {
+			isPrintUsage = false;
+			final TriangleInputProcessor inputProcessor = STANDARD_INPUT_ARGUMENT.equals(args[0]) ? new TriangleInputProcessor() : new TriangleInputProcessor(Paths.get(args[0]));
+			try {
+				final Triangle triangle = inputProcessor.makeTriangle();
+				TriangleBinaryFormat.write(triangle, Paths.get(args[1]));
+			} catch(TriangleInputException tiex) {
+				tiex.printStackTrace();
+			} catch(IOException ioex) {
+				ioex.printStackTrace();
+			}
+		}
+		if (isPrintUsage) {
+			System.out.println("Usage: java TriangleBinaryConverter <text triangle file> <binary triangle file>");
+			System.out.println("<text triangle file> mandatory, - for the standard input");
+			System.out.println("<binary triangle file> mandatory, overwritten if it exists");
+		}
+	}
+
+}
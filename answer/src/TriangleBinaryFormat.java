@@ -0,0 +1,163 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A compact binary version of the triangle text format, so the decimal parsing is paid only once.
+ *
+ * Layout (little endian, like the CPUs we run on):
+ * - header, 16 bytes: magic number "MTPB", format version, row count, value width in bits (8, 16 or 32)
+ * - the node values, signed, in the order Triangle stores them: row after row, starting at the root.
+ *
+ * The header size and the value widths all divide MappedInputFile.MAXIMUM_CHUNK_SIZE,
+ * so no value ever straddles two chunks of a mapped file.
+ */
+
+final class TriangleBinaryFormat {
+
+	/*package*/ final static int MAGIC_NUMBER = 0x4250544D; // "MTPB" once written little endian
+	/*package*/ final static int FORMAT_VERSION = 1;
+	/*package*/ final static int HEADER_SIZE = 4 * Integer.BYTES;
+	/*package*/ final static ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+	private final static int WRITE_BUFFER_SIZE = 1 << 20;
+
+	private TriangleBinaryFormat() {
+		// static methods only
+	}
+
+	/**
+	 * @return true if aBufferArray (a mapped file) starts with a binary triangle header
+	 */
+
+	/*package*/ static boolean isBinaryTriangle(ByteBuffer[] aBufferArray) {
+		return (0 < aBufferArray.length) && (Integer.BYTES <= aBufferArray[0].limit())
+			&& (MAGIC_NUMBER == aBufferArray[0].duplicate().order(BYTE_ORDER).getInt(0));
+	}
+
+	/**
+	 * Bulk-fills aTriangle, new or reused (see Triangle.reset), with the node values of aBufferArray
+	 *
+	 * @param aBufferArray a mapped binary triangle file (see MappedInputFile). positions are left untouched.
+	 * @param aTriangle must have the row count found in the header of aBufferArray
+	 * @throws <code>TriangleInputException</code> if aBufferArray isn't a valid binary triangle
+	 */
+
+	/*package*/ static void fillTriangle(ByteBuffer[] aBufferArray, Triangle aTriangle) throws TriangleInputException {
+		final int valueByteCount = readHeader(aBufferArray)[1];
+		long nodeIndex = 0;
+		for(int ii = 0 ; (ii < aBufferArray.length) && (nodeIndex < aTriangle.getNodeCount()) ; ++ii) {
+			final ByteBuffer buffer = aBufferArray[ii].duplicate().order(BYTE_ORDER);
+			if(0 == ii) {
+				buffer.position(HEADER_SIZE);
+			}
+			nodeIndex += aTriangle.setNodeValues(nodeIndex, buffer, valueByteCount);
+		}
+	}
+
+	/**
+	 * Reads one row of a mapped binary triangle file without loading anything else.
+	 *
+	 * @param aBufferArray a mapped binary triangle file. the byte order of its chunks is set to BYTE_ORDER.
+	 * @param aRowCount row number, from 1 for the root
+	 * @param aNodeValueIntArray where the aRowCount node values of the row are stored
+	 */
+
+	/*package*/ static void readRow(ByteBuffer[] aBufferArray, int aValueByteCount, int aRowCount, int[] aNodeValueIntArray) {
+		for(int ii = 0 ; ii < aBufferArray.length ; ++ii) {
+			aBufferArray[ii].order(BYTE_ORDER);
+		}
+		long byteOffset = HEADER_SIZE + (((long)aRowCount * (aRowCount - 1)) / 2) * aValueByteCount;
+		for(int ii = 0 ; ii < aRowCount ; ++ii) {
+			final ByteBuffer buffer = aBufferArray[(int)(byteOffset / MappedInputFile.MAXIMUM_CHUNK_SIZE)];
+			final int position = (int)(byteOffset % MappedInputFile.MAXIMUM_CHUNK_SIZE);
+			switch(aValueByteCount) {
+			case Integer.BYTES:
+				aNodeValueIntArray[ii] = buffer.getInt(position);
+				break;
+			case Short.BYTES:
+				aNodeValueIntArray[ii] = buffer.getShort(position);
+				break;
+			default:
+				aNodeValueIntArray[ii] = buffer.get(position);
+				break;
+			}
+			byteOffset += aValueByteCount;
+		}
+	}
+
+	/**
+	 * @return row count and value size in bytes, in that order
+	 * @throws <code>TriangleInputException</code> if the header isn't valid, or if the file is too short for it
+	 */
+
+	/*package*/ static int[] readHeader(ByteBuffer[] aBufferArray) throws TriangleInputException {
+		if(!isBinaryTriangle(aBufferArray) || (HEADER_SIZE > aBufferArray[0].limit())) {
+			throw new TriangleInputException(TriangleInputException.BAD_BINARY, "no binary triangle header");
+		}
+		final ByteBuffer buffer = aBufferArray[0].duplicate().order(BYTE_ORDER);
+		if(FORMAT_VERSION != buffer.getInt(Integer.BYTES)) {
+			throw new TriangleInputException(TriangleInputException.BAD_BINARY, "unknown format version " + buffer.getInt(Integer.BYTES));
+		}
+		final int rowCount = buffer.getInt(2 * Integer.BYTES);
+		final int valueBitCount = buffer.getInt(3 * Integer.BYTES);
+		if((0 > rowCount) || ((Byte.SIZE != valueBitCount) && (Short.SIZE != valueBitCount) && (Integer.SIZE != valueBitCount))) {
+			throw new TriangleInputException(TriangleInputException.BAD_BINARY, "invalid row count or value width");
+		}
+		final int valueByteCount = valueBitCount / Byte.SIZE;
+		// so readRow and fillTriangle never go past the end of a truncated file
+		if(HEADER_SIZE + Triangle.getNodeCount(rowCount) * valueByteCount > getByteCount(aBufferArray)) {
+			throw new TriangleInputException(TriangleInputException.BAD_BINARY, "file is shorter than its header says");
+		}
+		return new int[] { rowCount, valueByteCount };
+	}
+
+	private static long getByteCount(ByteBuffer[] aBufferArray) {
+		long result = 0;
+		for(int ii = 0 ; ii < aBufferArray.length ; ++ii) {
+			result += aBufferArray[ii].limit();
+		}
+		return result;
+	}
+
+	/**
+	 * @return the smallest value size (in bytes) able to hold every node value of aTriangle
+	 */
+
+	/*package*/ static int getValueByteCount(Triangle aTriangle) {
+		return NodeValueStore.getValueByteCount(aTriangle.getMinimumNodeValue(), aTriangle.getMaximumNodeValue());
+	}
+
+	/**
+	 * Writes aTriangle to aPath, with the smallest value width able to hold its node values.
+	 *
+	 * @throws IOException if aPath can't be written
+	 */
+
+	/*package*/ static void write(Triangle aTriangle, Path aPath) throws IOException {
+		final int valueByteCount = getValueByteCount(aTriangle);
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(BYTE_ORDER);
+		buffer.putInt(MAGIC_NUMBER);
+		buffer.putInt(FORMAT_VERSION);
+		buffer.putInt(aTriangle.getRowCount());
+		buffer.putInt(valueByteCount * Byte.SIZE);
+		FileChannel fileChannel = FileChannel.open(aPath, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			long nodeIndex = 0;
+			do {
+				nodeIndex += aTriangle.getNodeValues(nodeIndex, buffer, valueByteCount);
+				buffer.flip();
+				while(buffer.hasRemaining()) {
+					fileChannel.write(buffer);
+				}
+				buffer.clear();
+			} while(nodeIndex < aTriangle.getNodeCount());
+		} finally {
+			fileChannel.close();
+		}
+	}
+
+}
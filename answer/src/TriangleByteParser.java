@@ -0,0 +1,456 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * TriangleByteParser decodes the triangle text format straight from bytes.
+ *
+ * No String, String[] or Integer is created per line or per node: digits are accumulated
+ * as they go by and each node value is written directly where it belongs,
+ * either in a Triangle or in a row buffer provided by the caller.
+ *
+ * The parser is a small state machine, so the input can be split in as many ByteBuffer
+ * as needed (i.e. successive reads of an InputStream, or the chunks of a mapped file)
+ * without caring where the split happens.
+ *
+ * The input rules are the ones TriangleInputProcessor always had (String.split(" ") then Integer.parseInt):
+ * - row n holds n node values separated by single spaces. trailing spaces are ignored.
+ * - a node value is an optional sign followed by decimal digits, within the int range.
+ * - lines end with "\n", "\r\n" or "\r". the last line doesn't need to end.
+ * and so are the TriangleInputException reported: BAD_SPACING for the row first, then BAD_NUMBER
+ * for the first faulty node of the row.
+ */
+
+final class TriangleByteParser {
+
+	private final static int READ_BUFFER_SIZE = 1 << 16;
+
+	private final static long MAXIMUM_NEGATIVE_NODE_VALUE = -(long)Integer.MIN_VALUE;
+
+	private final static int NO_BAD_TOKEN = 0;
+
+	/**
+	 * longest token that always fits in a byte ("-9" or "99"), then in a short ("-999" or "9999")
+	 */
+
+	private final static int MAXIMUM_BYTE_TOKEN_LENGTH = 2;
+	private final static int MAXIMUM_SHORT_TOKEN_LENGTH = 4;
+
+	/**
+	 * where the node values go. only one of them is used at a time.
+	 */
+
+	private Triangle iTriangle;
+	private int[] iRowNodeValueIntArray;
+
+	/**
+	 * state of the row being parsed. tokens are what String.split(" ") would return, empty ones included.
+	 */
+
+	private int iRowCount; // rows completed so far
+	private int iLineLength;
+	private int iTokenCount; // tokens completed in the current row
+	private int iNonEmptyTokenCount; // number of the last non-empty token completed in the current row
+	private int iFirstBadTokenNumber;
+	private boolean isAfterCarriageReturn;
+
+	/**
+	 * state of the token being parsed
+	 */
+
+	private long iTokenMagnitude;
+	private int iTokenLength;
+	private boolean isTokenNegative;
+	private boolean hasTokenDigit;
+	private boolean isTokenBad;
+
+	/**
+	 * used by readNextRow
+	 */
+
+	private byte[] iReadByteArray;
+	private ByteBuffer iReadBuffer;
+	private int iReadBufferIndex;
+
+	/**
+	 * Puts the node values in aBufferArray into aTriangle, new or reused (see Triangle.reset)
+	 *
+	 * @param aBufferArray the whole input, one slice after the other, each from its position to its limit.
+	 * the positions are moved to the limits.
+	 * @param aTriangle must have countRows(aBufferArray) rows
+	 * @throws <code>TriangleInputException</code> if aBufferArray doesn't represent a valid <code>Triangle</code>
+	 */
+
+	/*package*/ void fillTriangle(ByteBuffer[] aBufferArray, Triangle aTriangle) throws TriangleInputException {
+		fillTriangle(aBufferArray, aTriangle, 0);
+	}
+
+	/**
+	 * Same as fillTriangle(ByteBuffer[], Triangle) for a part of the input that starts a row (see ParallelTriangleParser)
+	 *
+	 * @param aRowCount number of rows before aBufferArray in the input
+	 */
+
+	/*package*/ void fillTriangle(ByteBuffer[] aBufferArray, Triangle aTriangle, int aRowCount) throws TriangleInputException {
+		resetRowState();
+		iRowCount = aRowCount;
+		isAfterCarriageReturn = false;
+		iTriangle = aTriangle;
+		iRowNodeValueIntArray = null;
+		for(int ii = 0 ; ii < aBufferArray.length ; ++ii) {
+			parse(aBufferArray[ii], false);
+		}
+		finish();
+		iTriangle = null;
+	}
+
+	/**
+	 * Reads the next row of anInputStream, without keeping anything but the row itself.
+	 * The same TriangleByteParser must be used for all the rows of anInputStream.
+	 *
+	 * @param aNodeValueIntArray where the node values of the row are stored. must be large enough for the row.
+	 * The row number of the next row is getRowCount() + 1 and a row holds as many nodes as its number.
+	 * @return false if anInputStream has no more rows
+	 * @throws <code>TriangleInputException</code> if the row doesn't belong to a valid <code>Triangle</code>
+	 */
+
+	/*package*/ boolean readNextRow(InputStream anInputStream, int[] aNodeValueIntArray) throws TriangleInputException {
+		if(null == iReadBuffer) {
+			iReadByteArray = new byte[READ_BUFFER_SIZE];
+			iReadBuffer = ByteBuffer.wrap(iReadByteArray);
+			iReadBuffer.limit(0);
+		}
+		iTriangle = null;
+		iRowNodeValueIntArray = aNodeValueIntArray;
+		boolean isRowRead = false;
+		boolean isInputEnded = false;
+		while(!isRowRead && !isInputEnded) {
+			if(!iReadBuffer.hasRemaining()) {
+				int readByteCount = 0;
+				try {
+					readByteCount = anInputStream.read(iReadByteArray);
+				} catch (IOException ioex) {
+					throw new TriangleInputException(TriangleInputException.BAD_LINE, iRowCount + 1);
+				}
+				if(0 > readByteCount) {
+					isInputEnded = true;
+				} else {
+					iReadBuffer.position(0);
+					iReadBuffer.limit(readByteCount);
+				}
+			}
+			if(isInputEnded) {
+				isRowRead = finish();
+			} else {
+				isRowRead = parse(iReadBuffer, true);
+			}
+		}
+		return isRowRead;
+	}
+
+	/**
+	 * Same as readNextRow(InputStream, int[]) for an input already in memory (i.e. a mapped file).
+	 * The same aBufferArray, consumed slice after slice, must be given for all the rows.
+	 */
+
+	/*package*/ boolean readNextRow(ByteBuffer[] aBufferArray, int[] aNodeValueIntArray) throws TriangleInputException {
+		iTriangle = null;
+		iRowNodeValueIntArray = aNodeValueIntArray;
+		boolean isRowRead = false;
+		while(!isRowRead && (iReadBufferIndex < aBufferArray.length)) {
+			isRowRead = parse(aBufferArray[iReadBufferIndex], true);
+			if(!aBufferArray[iReadBufferIndex].hasRemaining()) {
+				++iReadBufferIndex;
+			}
+		}
+		if(!isRowRead) {
+			isRowRead = finish();
+		}
+		return isRowRead;
+	}
+
+	/**
+	 * @return where the next row starts in aBufferArray, the one given to readNextRow(ByteBuffer[], int[]),
+	 * as a byte offset from the start of its first slice. slices are expected to start at position 0, like mapped chunks.
+	 */
+
+	/*package*/ long getReadOffset(ByteBuffer[] aBufferArray) {
+		long result = 0;
+		for(int ii = 0 ; ii < iReadBufferIndex ; ++ii) {
+			result += aBufferArray[ii].limit();
+		}
+		if(iReadBufferIndex < aBufferArray.length) {
+			result += aBufferArray[iReadBufferIndex].position();
+		}
+		return result;
+	}
+
+	/**
+	 * Goes back (or forward) to a row start given by getReadOffset, so readNextRow(ByteBuffer[], int[]) reads that row next.
+	 *
+	 * @param aRowCount number of rows before that row
+	 */
+
+	/*package*/ void seekRow(ByteBuffer[] aBufferArray, long aReadOffset, int aRowCount) {
+		iReadBufferIndex = aBufferArray.length;
+		isAfterCarriageReturn = false;
+		long sliceOffset = 0;
+		for(int ii = 0 ; ii < aBufferArray.length ; ++ii) {
+			final ByteBuffer buffer = aBufferArray[ii];
+			final long sliceEndOffset = sliceOffset + buffer.limit();
+			if(aReadOffset >= sliceEndOffset) {
+				buffer.position(buffer.limit());
+			} else if(aReadOffset >= sliceOffset) {
+				buffer.position((int)(aReadOffset - sliceOffset));
+				iReadBufferIndex = Math.min(iReadBufferIndex, ii);
+			} else {
+				buffer.position(0);
+			}
+			if((aReadOffset > sliceOffset) && (aReadOffset <= sliceEndOffset)) {
+				// a row cut right after "\r" skips the "\n" that may come next
+				isAfterCarriageReturn = ('\r' == buffer.get((int)(aReadOffset - sliceOffset) - 1));
+			}
+			sliceOffset = sliceEndOffset;
+		}
+		iRowCount = aRowCount;
+		resetRowState();
+	}
+
+	/**
+	 * @return number of rows parsed so far
+	 */
+
+	/*package*/ int getRowCount() {
+		return iRowCount;
+	}
+
+	/**
+	 * @return the number of lines in aBufferArray, from the position to the limit of each slice,
+	 * the way BufferedReader.readLine would count them. the positions are left untouched.
+	 */
+
+	/*package*/ static int countRows(ByteBuffer[] aBufferArray) {
+		int result = 0;
+		boolean isLineEmpty = true;
+		boolean isAfterCarriageReturn = false;
+		for(int ii = 0 ; ii < aBufferArray.length ; ++ii) {
+			final ByteBuffer buffer = aBufferArray[ii];
+			final int limit = buffer.limit();
+			for(int jj = buffer.position() ; jj < limit ; ++jj) {
+				final byte inputByte = buffer.get(jj);
+				if('\n' == inputByte) {
+					if(!isAfterCarriageReturn) {
+						++result;
+					}
+					isLineEmpty = true;
+				} else if('\r' == inputByte) {
+					++result;
+					isLineEmpty = true;
+				} else {
+					isLineEmpty = false;
+				}
+				isAfterCarriageReturn = ('\r' == inputByte);
+			}
+		}
+		if(!isLineEmpty) {
+			++result;
+		}
+		return result;
+	}
+
+	/**
+	 * Same as countRows, measuring the longest token along the way (anything between spaces and line terminators):
+	 * the node value width it gives (see getValueByteCount) spares Triangle.setNodeValue any widening.
+	 *
+	 * @return the number of lines, then the length of the longest token
+	 */
+
+	/*package*/ static int[] countRowsAndMaximumTokenLength(ByteBuffer[] aBufferArray) {
+		int rowCount = 0;
+		int maximumTokenLength = 0;
+		int tokenLength = 0;
+		boolean isLineEmpty = true;
+		boolean isAfterCarriageReturn = false;
+		for(int ii = 0 ; ii < aBufferArray.length ; ++ii) {
+			final ByteBuffer buffer = aBufferArray[ii];
+			final int limit = buffer.limit();
+			for(int jj = buffer.position() ; jj < limit ; ++jj) {
+				final byte inputByte = buffer.get(jj);
+				if(' ' < inputByte) {
+					// digits and signs: most of the input, so they go first
+					++tokenLength;
+					isLineEmpty = false;
+				} else if(('\n' == inputByte) || ('\r' == inputByte)) {
+					if(('\r' == inputByte) || !isAfterCarriageReturn) {
+						++rowCount;
+					}
+					maximumTokenLength = Math.max(maximumTokenLength, tokenLength);
+					tokenLength = 0;
+					isLineEmpty = true;
+				} else if(' ' == inputByte) {
+					maximumTokenLength = Math.max(maximumTokenLength, tokenLength);
+					tokenLength = 0;
+					isLineEmpty = false;
+				} else {
+					++tokenLength;
+					isLineEmpty = false;
+				}
+				isAfterCarriageReturn = ('\r' == inputByte);
+			}
+		}
+		if(!isLineEmpty) {
+			++rowCount;
+		}
+		return new int[] { rowCount, Math.max(maximumTokenLength, tokenLength) };
+	}
+
+	/**
+	 * @return a node value width (1, 2 or 4 bytes) large enough for any token of up to aMaximumTokenLength bytes
+	 */
+
+	/*package*/ static int getValueByteCount(int aMaximumTokenLength) {
+		if(MAXIMUM_BYTE_TOKEN_LENGTH >= aMaximumTokenLength) {
+			return Byte.BYTES;
+		}
+		return (MAXIMUM_SHORT_TOKEN_LENGTH >= aMaximumTokenLength) ? Short.BYTES : Integer.BYTES;
+	}
+
+	/**
+	 * parses aBuffer from its position to its limit and moves its position past what was parsed.
+	 *
+	 * @param isStoppingAtRowEnd true to return as soon as a row is complete
+	 * @return true if the last byte parsed completed a row
+	 */
+
+	private boolean parse(ByteBuffer aBuffer, boolean isStoppingAtRowEnd) throws TriangleInputException {
+		int position = aBuffer.position();
+		final int limit = aBuffer.limit();
+		boolean isRowEnded = false;
+		while(position < limit && !(isRowEnded && isStoppingAtRowEnd)) {
+			final byte inputByte = aBuffer.get(position++);
+			isRowEnded = false;
+			if(('0' <= inputByte) && ('9' >= inputByte)) {
+				// most of the input, so it goes first
+				if(iTokenMagnitude <= MAXIMUM_NEGATIVE_NODE_VALUE) {
+					iTokenMagnitude = iTokenMagnitude * 10 + (inputByte - '0');
+				}
+				hasTokenDigit = true;
+				++iTokenLength;
+				++iLineLength;
+			} else if(' ' == inputByte) {
+				closeToken();
+				++iLineLength;
+			} else if('\n' == inputByte) {
+				if(isAfterCarriageReturn) {
+					// second half of "\r\n". the row already ended with "\r"
+					isAfterCarriageReturn = false;
+				} else {
+					endRow();
+					isRowEnded = true;
+				}
+			} else if('\r' == inputByte) {
+				endRow();
+				isRowEnded = true;
+			} else {
+				if((0 == iTokenLength) && ('-' == inputByte)) {
+					isTokenNegative = true;
+				} else if((0 != iTokenLength) || ('+' != inputByte)) {
+					isTokenBad = true;
+				}
+				++iTokenLength;
+				++iLineLength;
+			}
+			isAfterCarriageReturn = ('\r' == inputByte);
+		}
+		aBuffer.position(position);
+		return isRowEnded;
+	}
+
+	/**
+	 * ends the last row if the input doesn't end with a line terminator
+	 *
+	 * @return true if there was such a row
+	 */
+
+	private boolean finish() throws TriangleInputException {
+		final boolean result = 0 < iLineLength;
+		if(result) {
+			endRow();
+		}
+		isAfterCarriageReturn = false;
+		return result;
+	}
+
+	private void closeToken() throws TriangleInputException {
+		++iTokenCount;
+		if(0 < iTokenLength) {
+			if(iTokenCount > iRowCount + 1) {
+				// too many node values, whatever comes next
+				throw new TriangleInputException(TriangleInputException.BAD_SPACING, iRowCount + 1);
+			}
+			iNonEmptyTokenCount = iTokenCount;
+			final long maximumMagnitude = isTokenNegative ? MAXIMUM_NEGATIVE_NODE_VALUE : Integer.MAX_VALUE;
+			if(isTokenBad || !hasTokenDigit || (iTokenMagnitude > maximumMagnitude)) {
+				markBadToken();
+			} else {
+				final int nodeValue = (int)(isTokenNegative ? -iTokenMagnitude : iTokenMagnitude);
+				if(null != iTriangle) {
+					iTriangle.setNodeValue(iRowCount + 1, iTokenCount, nodeValue);
+				} else {
+					iRowNodeValueIntArray[iTokenCount - 1] = nodeValue;
+				}
+			}
+		} else {
+			// an empty token is only a problem if a non-empty one comes after it
+			markBadToken();
+		}
+		iTokenMagnitude = 0;
+		iTokenLength = 0;
+		isTokenNegative = false;
+		hasTokenDigit = false;
+		isTokenBad = false;
+	}
+
+	private void markBadToken() {
+		if(NO_BAD_TOKEN == iFirstBadTokenNumber) {
+			iFirstBadTokenNumber = iTokenCount;
+		}
+	}
+
+	private void endRow() throws TriangleInputException {
+		final int rowNumber = iRowCount + 1;
+		int nodeCount = 0;
+		if(0 < iTokenLength) {
+			closeToken();
+			nodeCount = iTokenCount;
+		} else if(0 == iTokenCount) {
+			// an empty line holds a single, empty, node value
+			closeToken();
+			nodeCount = 1;
+		} else {
+			// trailing spaces don't count
+			nodeCount = iNonEmptyTokenCount;
+		}
+		if(nodeCount != rowNumber) {
+			throw new TriangleInputException(TriangleInputException.BAD_SPACING, rowNumber);
+		}
+		if((NO_BAD_TOKEN != iFirstBadTokenNumber) && (iFirstBadTokenNumber <= nodeCount)) {
+			throw new TriangleInputException(TriangleInputException.BAD_NUMBER, rowNumber, iFirstBadTokenNumber);
+		}
+		iRowCount = rowNumber;
+		resetRowState();
+	}
+
+	private void resetRowState() {
+		iLineLength = 0;
+		iTokenCount = 0;
+		iNonEmptyTokenCount = 0;
+		iFirstBadTokenNumber = NO_BAD_TOKEN;
+		iTokenMagnitude = 0;
+		iTokenLength = 0;
+		isTokenNegative = false;
+		hasTokenDigit = false;
+		isTokenBad = false;
+	}
+
+}
@@ -9,12 +9,18 @@ final class TriangleInputException extends IOException {
 	/*package*/ final static String BAD_SPACING = "Illegal Input. Line has unexpected number of spaces. Row number = %d";
 	/*package*/ final static String BAD_LINE = "Illegal Input. Faulty line reading. Row number =  %d";
 	/*package*/ final static String BAD_NUMBER = "Illegal Input. Node value is not a number. Row number = %d, Node number = %d";
+	/*package*/ final static String BAD_FILE = "Illegal Input. File can't be read. File = %s";
+	/*package*/ final static String BAD_BINARY = "Illegal Input. Not a valid binary triangle: %s";
 
 
 	TriangleInputException(String anErrorMessage, int aLocationIndicator) {
 		super(String.format(anErrorMessage, aLocationIndicator));
 	}
 
+	TriangleInputException(String anErrorMessage, String aLocationIndicator) {
+		super(String.format(anErrorMessage, aLocationIndicator));
+	}
+
 	TriangleInputException(String anErrorMessage, int aFirstLocationIndicator, int aSecondLocationIndicator) {
 		super(String.format(anErrorMessage, aFirstLocationIndicator, aSecondLocationIndicator));
 	}
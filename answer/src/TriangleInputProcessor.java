@@ -1,93 +1,262 @@
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 
 /**
  * TriangleInputProcessor is in charge of verifying the validity of the standard input
- * and populating a Triangle object with its initial set of node values.
+ * (or of an input file) and populating a Triangle object with its initial set of node values.
+ *
+ * The text itself is decoded by a TriangleByteParser. An input file is mapped in memory
+ * (see MappedInputFile) and parsed in place, unless it is a binary triangle (see TriangleBinaryFormat)
+ * in which case the node values are bulk-copied instead.
+ * A large text input is parsed by all the cores at once (see ParallelTriangleParser).
  *
  */
 
 final class TriangleInputProcessor {
 
-	private final static String INPUT_NODE_SEPARATOR = " ";
+	private final static int INITIAL_INPUT_BUFFER_SIZE = 1 << 20;
+
+	private final TriangleByteParser iByteParser = new TriangleByteParser();
+
+	/**
+	 * null when reading the standard input
+	 */
+
+	private final Path iInputPath;
+	private ByteBuffer[] iInputBufferArray;
+
+	/**
+	 * where makeTriangle keeps the node values (see Triangle)
+	 */
+
+	private final boolean isOffHeap;
+
+	/**
+	 * only used by readNextRow for binary input files
+	 */
+
+	private int iBinaryRowCount;
+	private int iBinaryValueByteCount;
+	private int iBinaryReadRowCount;
+
+	/**
+	 * reads the standard input
+	 */
+
+	/*package*/ TriangleInputProcessor() {
+		this(null);
+	}
+
+	/**
+	 * @param anInputPath file to read instead of the standard input. null for the standard input.
+	 */
+
+	/*package*/ TriangleInputProcessor(Path anInputPath) {
+		this(anInputPath, false);
+	}
 
 	/**
-	 * @return a new <code>Triangle</code> containing nodes matching the standard input
-	 * @throws <code>TriangleInputException</code> if the standard input doesn't represent a valid <code>Triangle</code>
-	 * 
+	 * @param aIsOffHeap true for makeTriangle to keep the node values outside of the Java heap (see Triangle)
+	 */
+
+	/*package*/ TriangleInputProcessor(Path anInputPath, boolean aIsOffHeap) {
+		iInputPath = anInputPath;
+		isOffHeap = aIsOffHeap;
+	}
+
+	/**
+	 * @return a new <code>Triangle</code> containing nodes matching the standard input (or the input file)
+	 * @throws <code>TriangleInputException</code> if the input doesn't represent a valid <code>Triangle</code>
+	 *
 	 */
 
 	/*package*/ Triangle makeTriangle() throws TriangleInputException {
-		ArrayList<String> inputStringArrayList = readAllStandardInput();
-		return makeTriangle(inputStringArrayList);
+		return makeTriangle(null);
+	}
+
+	/**
+	 * Same as makeTriangle(), timing the read, parse and allocation phases
+	 *
+	 * @param aStatistics where the phase times go. null not to record them.
+	 */
+
+	/*package*/ Triangle makeTriangle(SolveStatistics aStatistics) throws TriangleInputException {
+		long phaseStartTime = System.nanoTime();
+		final ByteBuffer[] inputBufferArray = (null == iInputPath) ? new ByteBuffer[] { readAllStandardInput() } : mapInputFile();
+		phaseStartTime = endPhase(aStatistics, SolveStatistics.Phase.READ, phaseStartTime);
+		// the standard input is always text
+		final boolean isBinary = (null != iInputPath) && TriangleBinaryFormat.isBinaryTriangle(inputBufferArray);
+		int rowCount = 0;
+		int valueByteCount = Byte.BYTES;
+		ParallelTriangleParser parallelParser = null;
+		if(isBinary) {
+			final int[] header = TriangleBinaryFormat.readHeader(inputBufferArray);
+			rowCount = header[0];
+			valueByteCount = header[1];
+		} else if(ParallelTriangleParser.isParallelizable(inputBufferArray)) {
+			parallelParser = new ParallelTriangleParser(inputBufferArray);
+			rowCount = parallelParser.getRowCount();
+			valueByteCount = parallelParser.getValueByteCount();
+		} else {
+			final int[] rowCountAndTokenLength = TriangleByteParser.countRowsAndMaximumTokenLength(inputBufferArray);
+			rowCount = rowCountAndTokenLength[0];
+			valueByteCount = TriangleByteParser.getValueByteCount(rowCountAndTokenLength[1]);
+		}
+		if(null != aStatistics) {
+			aStatistics.setRowCount(rowCount);
+		}
+		phaseStartTime = endPhase(aStatistics, SolveStatistics.Phase.PARSE, phaseStartTime);
+		// allocate a big chunk of memory for the Triangle data
+		final Triangle result = new Triangle(rowCount, valueByteCount, isOffHeap);
+		phaseStartTime = endPhase(aStatistics, SolveStatistics.Phase.ALLOCATION, phaseStartTime);
+		if(isBinary) {
+			TriangleBinaryFormat.fillTriangle(inputBufferArray, result);
+		} else if(null != parallelParser) {
+			parallelParser.fillTriangle(result);
+		} else {
+			iByteParser.fillTriangle(inputBufferArray, result);
+		}
+		endPhase(aStatistics, SolveStatistics.Phase.PARSE, phaseStartTime);
+		return result;
+	}
+
+	private static long endPhase(SolveStatistics aStatistics, SolveStatistics.Phase aPhase, long aStartTime) {
+		return (null == aStatistics) ? aStartTime : aStatistics.endPhase(aPhase, aStartTime);
 	}
 
 	/**
-	 * @return a new ArrayList<String> containing all the standard input
-	 * @throws <code>TriangleInputException</code> if a line can't be read from standard input
-	 * 
+	 * @return the chunks of the input file, mapped once and for all
+	 * @throws <code>TriangleInputException</code> if the input file can't be mapped
+	 * @throws IllegalStateException when reading the standard input
+	 */
+
+	private ByteBuffer[] mapInputFile() throws TriangleInputException {
+		if(null == iInputPath) {
+			throw new IllegalStateException("The standard input can't be mapped");
+		}
+		if(null == iInputBufferArray) {
+			try {
+				iInputBufferArray = MappedInputFile.map(iInputPath);
+			} catch (IOException ioex) {
+				throw new TriangleInputException(TriangleInputException.BAD_FILE, iInputPath.toString());
+			}
+		}
+		return iInputBufferArray;
+	}
+
+	/**
+	 * @return a new ByteBuffer containing all the standard input
+	 * @throws <code>TriangleInputException</code> if the standard input can't be read
+	 *
 	 * readAllStandardInput vacuums the entire standard input into RAM before processing it.
-	 * good for speed, bad for memory consumption.
-	 * 
-	 * TODO generate less garbage than BufferedReader if necessary
+	 * good for speed, bad for memory consumption (but only 1 byte per character, and no String).
 	 */
 
-	private ArrayList<String> readAllStandardInput() throws TriangleInputException {
-		BufferedReader inputReader = new BufferedReader(new InputStreamReader(System.in));
-		ArrayList<String> result = new ArrayList<String>(MinTrianglePath.ROW_COUNT_PERFORMANCE_TARGET);
-		String inputLine = null;
+	private ByteBuffer readAllStandardInput() throws TriangleInputException {
+		final InputStream inputStream = System.in;
+		byte[] inputByteArray = new byte[INITIAL_INPUT_BUFFER_SIZE];
+		int inputByteCount = 0;
 		try {
-			// readLine returns null if the line is empty
-			while(null!=(inputLine = inputReader.readLine())) {
-				result.add(inputLine);
+			int readByteCount = 0;
+			while(0 <= (readByteCount = inputStream.read(inputByteArray, inputByteCount, inputByteArray.length - inputByteCount))) {
+				inputByteCount += readByteCount;
+				if(inputByteCount == inputByteArray.length) {
+					final byte[] grownByteArray = new byte[2 * inputByteArray.length];
+					System.arraycopy(inputByteArray, 0, grownByteArray, 0, inputByteCount);
+					inputByteArray = grownByteArray;
+				}
 			}
 		} catch (IOException ioex) {
-			try {
-				inputReader.close();
-			} catch (IOException ioex2) {
-				//don't care
+			throw new TriangleInputException(TriangleInputException.BAD_LINE, TriangleByteParser.countRows(new ByteBuffer[] { ByteBuffer.wrap(inputByteArray, 0, inputByteCount) }));
+		}
+		return ByteBuffer.wrap(inputByteArray, 0, inputByteCount);
+	}
+
+	/**
+	 * Reads the next row of the standard input (or the input file), without keeping anything but the row itself.
+	 *
+	 * @param aNodeValueIntArray where the node values of the row are stored. must be large enough for the row.
+	 * The row number of the next row is getReadRowCount() + 1 and a row holds as many nodes as its number.
+	 * @return false if the input has no more rows
+	 * @throws <code>TriangleInputException</code> if the row doesn't belong to a valid <code>Triangle</code>
+	 */
+
+	/*package*/ boolean readNextRow(int[] aNodeValueIntArray) throws TriangleInputException {
+		if(null == iInputPath) {
+			return iByteParser.readNextRow(System.in, aNodeValueIntArray);
+		}
+		final ByteBuffer[] inputBufferArray = mapInputFile();
+		if(TriangleBinaryFormat.isBinaryTriangle(inputBufferArray)) {
+			if(0 == iBinaryValueByteCount) {
+				final int[] header = TriangleBinaryFormat.readHeader(inputBufferArray);
+				iBinaryRowCount = header[0];
+				iBinaryValueByteCount = header[1];
+			}
+			if(iBinaryReadRowCount == iBinaryRowCount) {
+				return false;
 			}
-			throw new TriangleInputException(TriangleInputException.BAD_LINE, result.size());
+			TriangleBinaryFormat.readRow(inputBufferArray, iBinaryValueByteCount, ++iBinaryReadRowCount, aNodeValueIntArray);
+			return true;
 		}
-		try {
-			inputReader.close();
-		} catch (IOException ioex2) {
-			//don't care
+		return iByteParser.readNextRow(inputBufferArray, aNodeValueIntArray);
+	}
+
+	/**
+	 * @return number of rows of the input file, without parsing the node values
+	 * @throws <code>TriangleInputException</code> if the input file can't be mapped
+	 * @throws IllegalStateException when reading the standard input
+	 */
+
+	/*package*/ int countRows() throws TriangleInputException {
+		final ByteBuffer[] inputBufferArray = mapInputFile();
+		if(TriangleBinaryFormat.isBinaryTriangle(inputBufferArray)) {
+			return TriangleBinaryFormat.readHeader(inputBufferArray)[0];
 		}
-		return result;
+		return TriangleByteParser.countRows(inputBufferArray);
 	}
 
 	/**
-	 * @param aStringArrayList contains one String per Triangle row.
-	 * @return a new <code>Triangle</code> containing node values taken from aStringArrayList
-	 * @throws <code>TriangleInputException</code> if the standard input doesn't represent a valid <code>Triangle</code>
-	 * 
+	 * @return where the next row of the input file starts, for seekRow.
+	 * a binary input file doesn't need it: its rows are found from their number.
+	 * @throws IllegalStateException when reading the standard input, which can only be read once
 	 */
 
-	private Triangle makeTriangle(ArrayList<String> aStringArrayList) throws TriangleInputException {
-		// allocate a big chunk of memory for the Triangle data
-		Triangle result = new Triangle(aStringArrayList.size());
-		int rowCount = 0;
-		for(Iterator<String> iterator = aStringArrayList.iterator() ; iterator.hasNext();) {
-			// for row n, we should find n-1 spaces separating n node values.
-			String[] nodeValueStringArray = iterator.next().split(INPUT_NODE_SEPARATOR);
-			if(nodeValueStringArray.length != ++rowCount) {
-				throw new TriangleInputException(TriangleInputException.BAD_SPACING, rowCount);
-			}
-			int nodeCount = 0;
-			for(int ii = 0 ; ii < nodeValueStringArray.length ; ++ii) {
-				try {
-					// set the value of 1 node in the triangle
-					result.setNodeValue(rowCount, ++nodeCount, Integer.parseInt(nodeValueStringArray[ii]));
-				} catch (NumberFormatException nfex) {
-					throw new TriangleInputException(TriangleInputException.BAD_NUMBER, rowCount, nodeCount);
-				}
+	/*package*/ long getRowMark() throws TriangleInputException {
+		return iByteParser.getReadOffset(mapInputFile());
+	}
+
+	/**
+	 * Makes readNextRow read again (or skip to) the row that came after aReadRowCount rows
+	 *
+	 * @param aRowMark what getRowMark returned right before that row was read
+	 * @throws IllegalStateException when reading the standard input
+	 */
+
+	/*package*/ void seekRow(long aRowMark, int aReadRowCount) throws TriangleInputException {
+		final ByteBuffer[] inputBufferArray = mapInputFile();
+		if(TriangleBinaryFormat.isBinaryTriangle(inputBufferArray)) {
+			if(0 == iBinaryValueByteCount) {
+				final int[] header = TriangleBinaryFormat.readHeader(inputBufferArray);
+				iBinaryRowCount = header[0];
+				iBinaryValueByteCount = header[1];
 			}
+			iBinaryReadRowCount = aReadRowCount;
+		} else {
+			iByteParser.seekRow(inputBufferArray, aRowMark, aReadRowCount);
 		}
-		return result;
+	}
+
+	/**
+	 * @return number of rows returned by readNextRow so far
+	 */
+
+	/*package*/ int getReadRowCount() {
+		if(0 != iBinaryValueByteCount) {
+			return iBinaryReadRowCount;
+		}
+		return iByteParser.getRowCount();
 	}
 
 }
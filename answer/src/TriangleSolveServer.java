@@ -0,0 +1,166 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Resident MinTrianglePath: solves triangles sent over a local socket, on code the JIT has already warmed up.
+ *
+ * Protocol, one triangle per connection:
+ * - the client sends a whole triangle (text or binary, see TriangleBinaryFormat), then closes its output.
+ * (i.e. nc -N localhost port < triangle.txt)
+ * - the server answers what MinTrianglePath would print for it (see PathOutputProcessor, in the --output format)
+ * or the input error, then closes the connection.
+ * - a connection sending STATISTICS_REQUEST gets the cache counters instead.
+ *
+ * Responses are cached (see SolvedPathCache), so a triangle sent again is answered without being parsed.
+ * Connections are served by a fixed number of worker threads, each keeping its own
+ * ReusableTriangleSolver. Only the loopback interface is listened to.
+ */
+
+final class TriangleSolveServer {
+
+	/*package*/ final static String STATISTICS_REQUEST = "stats";
+
+	private final static int INITIAL_REQUEST_BUFFER_SIZE = 1 << 16;
+	private final static String LOG_FORMAT = "%s %s in %d ms. %s%n";
+
+	private final MinTrianglePathOptions iOptions;
+	private final SolvedPathCache iCache;
+	private final PrintStream iLog;
+	private final ThreadLocal<ReusableTriangleSolver> iSolver = new ThreadLocal<ReusableTriangleSolver>() {
+		@Override
+		protected ReusableTriangleSolver initialValue() {
+			return new ReusableTriangleSolver(iOptions);
+		}
+	};
+
+	/**
+	 * @param anOptions port, cache size, worker count, engine and engine settings
+	 * @param aLog where a line per connection goes
+	 */
+
+	/*package*/ TriangleSolveServer(MinTrianglePathOptions anOptions, PrintStream aLog) {
+		iOptions = anOptions;
+		iCache = new SolvedPathCache(anOptions.getCacheByteSize());
+		iLog = aLog;
+	}
+
+	/**
+	 * Accepts connections until the process is stopped.
+	 *
+	 * @throws IOException if the port can't be listened to
+	 */
+
+	/*package*/ void serve() throws IOException {
+		final ServerSocket serverSocket = new ServerSocket(iOptions.getServerPort(), 0, InetAddress.getLoopbackAddress());
+		final ExecutorService executor = Executors.newFixedThreadPool(iOptions.getWorkerCount());
+		iLog.println("Listening on " + serverSocket.getLocalSocketAddress());
+		try {
+			while(true) {
+				final Socket socket = serverSocket.accept();
+				executor.execute(new Runnable() {
+					public void run() {
+						handleConnection(socket);
+					}
+				});
+			}
+		} finally {
+			executor.shutdownNow();
+			serverSocket.close();
+		}
+	}
+
+	private void handleConnection(Socket aSocket) {
+		final long startTime = System.nanoTime();
+		String outcome = "failed";
+		try {
+			try {
+				final ByteBuffer request = readRequest(aSocket.getInputStream());
+				byte[] response = null;
+				if(isStatisticsRequest(request)) {
+					outcome = "statistics";
+					response = (iCache.getStatistics() + System.lineSeparator()).getBytes(StandardCharsets.US_ASCII);
+				} else {
+					final ByteBuffer key = SolvedPathCache.makeKey(request);
+					response = iCache.get(key);
+					outcome = "hit";
+					if(null == response) {
+						outcome = "miss";
+						response = solve(request);
+						iCache.put(key, response);
+					}
+				}
+				final OutputStream outputStream = aSocket.getOutputStream();
+				outputStream.write(response);
+				outputStream.flush();
+			} finally {
+				aSocket.close();
+			}
+		} catch(IOException ioex) {
+			// the client went away. nothing to answer to
+			outcome = "failed (" + ioex.getMessage() + ")";
+		}
+		iLog.printf(LOG_FORMAT, aSocket.getRemoteSocketAddress(), outcome, (System.nanoTime() - startTime) / 1000000, iCache.getStatistics());
+	}
+
+	/**
+	 * @return everything the client sent, until it closed its output
+	 */
+
+	private static ByteBuffer readRequest(InputStream anInputStream) throws IOException {
+		byte[] requestByteArray = new byte[INITIAL_REQUEST_BUFFER_SIZE];
+		int requestByteCount = 0;
+		int readByteCount = 0;
+		while(0 <= (readByteCount = anInputStream.read(requestByteArray, requestByteCount, requestByteArray.length - requestByteCount))) {
+			requestByteCount += readByteCount;
+			if(requestByteCount == requestByteArray.length) {
+				final byte[] grownByteArray = new byte[2 * requestByteArray.length];
+				System.arraycopy(requestByteArray, 0, grownByteArray, 0, requestByteCount);
+				requestByteArray = grownByteArray;
+			}
+		}
+		return ByteBuffer.wrap(requestByteArray, 0, requestByteCount);
+	}
+
+	private static boolean isStatisticsRequest(ByteBuffer aRequest) {
+		if(aRequest.remaining() > STATISTICS_REQUEST.length() + 2) {
+			return false;
+		}
+		final byte[] requestByteArray = new byte[aRequest.remaining()];
+		aRequest.duplicate().get(requestByteArray);
+		return STATISTICS_REQUEST.equals(new String(requestByteArray, StandardCharsets.US_ASCII).trim());
+	}
+
+	/**
+	 * runs the usual parse, solve, output pipeline on aRequest
+	 *
+	 * @return what MinTrianglePath would print
+	 */
+
+	private byte[] solve(ByteBuffer aRequest) {
+		final ByteArrayOutputStream responseStream = new ByteArrayOutputStream();
+		final PrintStream responsePrintStream = new PrintStream(responseStream);
+		try {
+			final ReusableTriangleSolver solver = iSolver.get();
+			final int[] path = solver.solve(new ByteBuffer[] { aRequest.duplicate() });
+			new PathOutputProcessor(responsePrintStream, iOptions.getOutputFormat()).processPath(path, solver.getNodeNumberPath());
+		} catch(TriangleInputException tiex) {
+			responsePrintStream.println(tiex.getMessage());
+		} catch(IllegalArgumentException iaex) {
+			// i.e. node values a Dijkstra frontier can't handle
+			responsePrintStream.println(iaex.getMessage());
+		}
+		responsePrintStream.flush();
+		return responseStream.toByteArray();
+	}
+
+}
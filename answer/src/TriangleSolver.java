@@ -0,0 +1,32 @@
+
+/**
+ * A TriangleSolver finds a minimal path from the root of a Triangle to one of its leafs.
+ *
+ * Implementations are allowed to keep (and reuse) buffers sized for a given row count
+ * between calls, so one instance should not be shared between threads.
+ */
+
+interface TriangleSolver {
+
+	/**
+	 * @return an int[] containing the node values of a minimal path to a leaf in aTriangle,
+	 * starting with the root value.
+	 */
+
+	int[] runAlgorithm(Triangle aTriangle);
+
+	/**
+	 * @return the second coordinate of each node of the path the last runAlgorithm returned,
+	 * starting with the root (always 1). one per row, like the node values.
+	 */
+
+	int[] getNodeNumberPath();
+
+	/**
+	 * Adds what the last runAlgorithm measured to aStatistics: at least the trace-back time,
+	 * and the engine internals if there are any.
+	 */
+
+	void reportStatistics(SolveStatistics aStatistics);
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Same bottom-up folding as DynamicProgrammingAlgorithm, written for SIMD.
+ *
+ * Each row is first copied into an int buffer (see Triangle.getRowNodeValues), then folded
+ * several nodes at a time by an IntVectorRowFolder with the Java Vector API: one node per lane,
+ * a lane-wise min of the 2 children sums, a lane-wise add of the node values, and the child choices
+ * of all the lanes come out as one bitmask, written to iIsRightChildBitSet in one go.
+ *
+ * The Vector API is an incubator module: it is only there when the JVM runs with
+ * --add-modules jdk.incubator.vector. Without it, every node is folded by the scalar loop,
+ * with the same result. getFoldingName (and --stats) tell which one ran.
+ *
+ */
+
+
+final class VectorDynamicProgrammingAlgorithm implements TriangleSolver {
+
+	private final static String VECTOR_MODULE_NAME = "jdk.incubator.vector";
+
+	/*package*/ final static String SCALAR_FOLDING_NAME = "scalar";
+
+	/**
+	 * iRowSumIntArray[ii] is the value of the minimal path from node (ii+1) of the row
+	 * being folded down to a leaf.
+	 */
+
+	private final int[] iRowSumIntArray;
+
+	/**
+	 * node values of the row being folded
+	 */
+
+	private final int[] iRowNodeValueIntArray;
+
+	/**
+	 * one bit per node, set when the minimal path from that node goes through its right child.
+	 * bits are indexed like the nodes inside Triangle: row after row, starting at the root.
+	 */
+
+	private final PackedBitSet iIsRightChildBitSet;
+
+	/**
+	 * null when the Vector API isn't available
+	 */
+
+	private final IntVectorRowFolder iVectorRowFolder;
+
+	/**
+	 * time the last runAlgorithm spent following iIsRightChildBitSet, for reportStatistics
+	 */
+
+	private long iTraceBackNanos;
+
+	/**
+	 * node numbers of the path the last runAlgorithm returned, for getNodeNumberPath
+	 */
+
+	private int[] iNodeNumberPath = new int[0];
+
+	/*package*/ VectorDynamicProgrammingAlgorithm(int aRowCount) {
+		iRowSumIntArray = new int[aRowCount];
+		iRowNodeValueIntArray = new int[aRowCount];
+		iIsRightChildBitSet = new PackedBitSet(((long)aRowCount * (aRowCount + 1)) / 2);
+		iVectorRowFolder = isVectorModulePresent() ? new IntVectorRowFolder() : null;
+	}
+
+	/**
+	 * Overwrites the content of iRowSumIntArray and iIsRightChildBitSet
+	 *
+	 * @return an int[] containing the node values of a minimal path to a leaf in aTriangle
+	 */
+
+	public int[] runAlgorithm(Triangle aTriangle) {
+		final int rowCount = aTriangle.getRowCount();
+		if(0 == rowCount) {
+			iNodeNumberPath = new int[0];
+			return new int[0];
+		}
+		// the leaf row is its own minimal path
+		aTriangle.getRowNodeValues(rowCount, iRowSumIntArray);
+		// fold every other row into the buffer, from the bottom up.
+		// row r begins at bit index r*(r-1)/2
+		for(int row = rowCount - 1 ; row > 0 ; --row) {
+			final long rowBitIndex = ((long)row * (row - 1)) / 2;
+			aTriangle.getRowNodeValues(row, iRowNodeValueIntArray);
+			int foldedNodeCount = 0;
+			if(null != iVectorRowFolder) {
+				foldedNodeCount = iVectorRowFolder.foldRow(row, iRowNodeValueIntArray, iRowSumIntArray, iIsRightChildBitSet, rowBitIndex);
+			}
+			// what the vectors left of the row, if not all of it
+			for(int ii = foldedNodeCount ; ii < row ; ++ii) {
+				final int leftSum = iRowSumIntArray[ii];
+				final int rightSum = iRowSumIntArray[ii + 1];
+				final boolean isRightChild = rightSum < leftSum;
+				iIsRightChildBitSet.set(rowBitIndex + ii, isRightChild);
+				iRowSumIntArray[ii] = iRowNodeValueIntArray[ii] + (isRightChild ? rightSum : leftSum);
+			}
+		}
+		final long traceBackStartTime = System.nanoTime();
+		iNodeNumberPath = new int[rowCount];
+		final int[] result = DynamicProgrammingAlgorithm.travelDownFromRootToLeaf(aTriangle, iIsRightChildBitSet, iNodeNumberPath);
+		iTraceBackNanos = System.nanoTime() - traceBackStartTime;
+		return result;
+	}
+
+	public int[] getNodeNumberPath() {
+		return iNodeNumberPath;
+	}
+
+	public void reportStatistics(SolveStatistics aStatistics) {
+		aStatistics.setEngine(SolverEngine.VECTOR.getCommandLineName().concat("/").concat(getFoldingName()));
+		aStatistics.addPhaseNanos(SolveStatistics.Phase.TRACE_BACK, iTraceBackNanos);
+	}
+
+	/**
+	 * @return how the rows are folded: SCALAR_FOLDING_NAME, or the vector shape (see IntVectorRowFolder.getName)
+	 */
+
+	/*package*/ String getFoldingName() {
+		return (null == iVectorRowFolder) ? SCALAR_FOLDING_NAME : iVectorRowFolder.getName();
+	}
+
+	/*package*/ static boolean isVectorModulePresent() {
+		return ModuleLayer.boot().findModule(VECTOR_MODULE_NAME).isPresent();
+	}
+
+}
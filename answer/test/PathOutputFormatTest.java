@@ -0,0 +1,205 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Every PathOutputFormat, decoded back: the path value and the entries must be the ones given to PathOutputProcessor,
+ * including values at the limits of an int, path values beyond them, and paths longer than the PathOutputBuffer.
+ */
+
+final class PathOutputFormatTest {
+
+	private final static String TEXT_PATH_PREFIX = "Minimal path is: ";
+	private final static String TEXT_PATH_SEPARATOR = " + ";
+	private final static String TEXT_PATH_VALUE_SEPARATOR = " = ";
+	private final static String TEXT_NODE_NUMBER_PREFIX = "Minimal path node numbers are: ";
+	private final static String TEXT_NODE_NUMBER_VALUE_SEPARATOR = ". Path value is: ";
+	private final static String TEXT_LEAF_PATH_VALUE_PREFIX = "Leaf path values are: ";
+	private final static String SPACE = " ";
+	private final static int BINARY_HEADER_SIZE = 3 * Integer.BYTES + Long.BYTES;
+
+	/**
+	 * enough rows for a path to go through the PathOutputBuffer several times
+	 */
+
+	private final static int LONG_PATH_ROW_COUNT = 100000;
+
+	@Test
+	/*package*/ void testSolvedPaths() {
+		for(int seed = 0 ; seed < 20 ; ++seed) {
+			final Triangle triangle = SeededTriangles.makeTriangle(1 + seed, seed, -99, 99);
+			final DynamicProgrammingAlgorithm solver = new DynamicProgrammingAlgorithm(triangle.getRowCount());
+			checkPath(solver.runAlgorithm(triangle), solver.getNodeNumberPath(), "seed " + seed);
+		}
+	}
+
+	@Test
+	/*package*/ void testLimitValues() {
+		checkPath(new int[] { 0 }, new int[] { 1 }, "zero");
+		checkPath(new int[] { Integer.MIN_VALUE }, new int[] { 1 }, "Integer.MIN_VALUE");
+		checkPath(new int[] { Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE }, new int[] { 1, 1, 1 }, "below Integer.MIN_VALUE");
+		checkPath(new int[] { Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE }, new int[] { 1, 2, 3 }, "above Integer.MAX_VALUE");
+		checkPath(new int[] { Short.MIN_VALUE - 1, Byte.MIN_VALUE, -1, 0, Byte.MAX_VALUE + 1 }, new int[] { 1, 1, 2, 2, 3 }, "mixed");
+		checkNodeNumberPath(new int[] { 1, 2, 2, 3 }, Long.MIN_VALUE, "Long.MIN_VALUE");
+		checkNodeNumberPath(new int[] { 1 }, Long.MAX_VALUE, "Long.MAX_VALUE");
+		checkLeafPathValues(new int[] { Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE }, "leaf path values");
+	}
+
+	@Test
+	/*package*/ void testLongPaths() {
+		final SplittableRandom random = new SplittableRandom(LONG_PATH_ROW_COUNT);
+		final int[] path = new int[LONG_PATH_ROW_COUNT];
+		final int[] nodeNumberPath = new int[LONG_PATH_ROW_COUNT];
+		nodeNumberPath[0] = 1;
+		for(int ii = 0 ; ii < LONG_PATH_ROW_COUNT ; ++ii) {
+			path[ii] = random.nextInt();
+			if(0 < ii) {
+				nodeNumberPath[ii] = nodeNumberPath[ii - 1] + random.nextInt(2);
+			}
+		}
+		checkPath(path, nodeNumberPath, "long path");
+		checkNodeNumberPath(nodeNumberPath, sum(path), "long node number path");
+		checkLeafPathValues(path, "many leaf path values");
+	}
+
+	@Test
+	/*package*/ void testEmptyPaths() {
+		final PathOutputFormat[] formatArray = PathOutputFormat.values();
+		for(int ii = 0 ; ii < formatArray.length ; ++ii) {
+			final ByteArrayOutputStream output = new ByteArrayOutputStream();
+			final PathOutputProcessor outputProcessor = new PathOutputProcessor(new PrintStream(output), formatArray[ii]);
+			outputProcessor.processPath(new int[0], new int[0]);
+			outputProcessor.processPath(null, null);
+			outputProcessor.processNodeNumberPath(new int[0], 0);
+			outputProcessor.processLeafPathValues(new int[0]);
+			assertEquals(0, output.size(), formatArray[ii].getCommandLineName());
+		}
+	}
+
+	/**
+	 * writes aPath with PathOutputProcessor.processPath in every format, and decodes it back
+	 */
+
+	private static void checkPath(int[] aPath, int[] aNodeNumberPath, String aDescription) {
+		final PathOutputFormat[] formatArray = PathOutputFormat.values();
+		for(int ii = 0 ; ii < formatArray.length ; ++ii) {
+			final String description = aDescription + ", " + formatArray[ii].getCommandLineName();
+			final ByteArrayOutputStream output = new ByteArrayOutputStream();
+			new PathOutputProcessor(new PrintStream(output), formatArray[ii]).processPath(aPath, aNodeNumberPath);
+			final long[] decoded = decode(formatArray[ii], output.toByteArray(), TEXT_PATH_PREFIX, TEXT_PATH_SEPARATOR, TEXT_PATH_VALUE_SEPARATOR, true);
+			assertEquals(sum(aPath), decoded[0], description + ", path value");
+			// the compact format only has the node numbers, the other ones only have the node values
+			checkEntries((PathOutputFormat.COMPACT == formatArray[ii]) ? aNodeNumberPath : aPath, decoded, description);
+		}
+	}
+
+	/**
+	 * writes aNodeNumberPath with PathOutputProcessor.processNodeNumberPath in every format, and decodes it back
+	 */
+
+	private static void checkNodeNumberPath(int[] aNodeNumberPath, long aPathValue, String aDescription) {
+		final PathOutputFormat[] formatArray = PathOutputFormat.values();
+		for(int ii = 0 ; ii < formatArray.length ; ++ii) {
+			final String description = aDescription + ", " + formatArray[ii].getCommandLineName();
+			final ByteArrayOutputStream output = new ByteArrayOutputStream();
+			new PathOutputProcessor(new PrintStream(output), formatArray[ii]).processNodeNumberPath(aNodeNumberPath, aPathValue);
+			final long[] decoded = decode(formatArray[ii], output.toByteArray(), TEXT_NODE_NUMBER_PREFIX, SPACE, TEXT_NODE_NUMBER_VALUE_SEPARATOR, true);
+			assertEquals(aPathValue, decoded[0], description + ", path value");
+			checkEntries(aNodeNumberPath, decoded, description);
+		}
+	}
+
+	/**
+	 * writes aLeafPathValues with PathOutputProcessor.processLeafPathValues in every format, and decodes them back
+	 */
+
+	private static void checkLeafPathValues(int[] aLeafPathValues, String aDescription) {
+		final PathOutputFormat[] formatArray = PathOutputFormat.values();
+		for(int ii = 0 ; ii < formatArray.length ; ++ii) {
+			final String description = aDescription + ", " + formatArray[ii].getCommandLineName();
+			final ByteArrayOutputStream output = new ByteArrayOutputStream();
+			new PathOutputProcessor(new PrintStream(output), formatArray[ii]).processLeafPathValues(aLeafPathValues);
+			final long[] decoded = decode(formatArray[ii], output.toByteArray(), TEXT_LEAF_PATH_VALUE_PREFIX, SPACE, null, false);
+			// the binary format gives leaf path values a path value of 0
+			assertEquals(0, decoded[0], description + ", path value");
+			checkEntries(aLeafPathValues, decoded, description);
+		}
+	}
+
+	private static void checkEntries(int[] anExpectedEntryArray, long[] aDecodedArray, String aDescription) {
+		final long[] expected = new long[anExpectedEntryArray.length + 1];
+		for(int ii = 0 ; ii < anExpectedEntryArray.length ; ++ii) {
+			expected[ii + 1] = anExpectedEntryArray[ii];
+		}
+		expected[0] = aDecodedArray[0];
+		assertArrayEquals(expected, aDecodedArray, aDescription + ", entries");
+	}
+
+	/**
+	 * @param aTextPrefix, aTextEntrySeparator, aTextValueSeparator what the text format puts before the entries,
+	 * between them and before the path value
+	 * @param aHasPathValue false if the text and compact formats have no path value
+	 * @return the path value (0 if there is none), then the entries of what aFormat wrote in anOutputByteArray
+	 */
+
+	private static long[] decode(PathOutputFormat aFormat, byte[] anOutputByteArray, String aTextPrefix, String aTextEntrySeparator,
+			String aTextValueSeparator, boolean aHasPathValue) {
+		if(PathOutputFormat.BINARY == aFormat) {
+			final ByteBuffer buffer = ByteBuffer.wrap(anOutputByteArray).order(PathOutputFormat.BYTE_ORDER);
+			assertEquals(PathOutputFormat.BINARY_MAGIC_NUMBER, buffer.getInt());
+			assertEquals(PathOutputFormat.BINARY_FORMAT_VERSION, buffer.getInt());
+			final long[] result = new long[buffer.getInt() + 1];
+			assertEquals(BINARY_HEADER_SIZE + (result.length - 1) * Integer.BYTES, anOutputByteArray.length);
+			result[0] = buffer.getLong();
+			for(int ii = 1 ; ii < result.length ; ++ii) {
+				result[ii] = buffer.getInt();
+			}
+			return result;
+		}
+		String text = new String(anOutputByteArray, StandardCharsets.US_ASCII);
+		assertTrue(text.endsWith(System.lineSeparator()), text);
+		text = text.substring(0, text.length() - System.lineSeparator().length());
+		String valueText = null;
+		String[] entryTextArray = null;
+		if(PathOutputFormat.TEXT == aFormat) {
+			assertTrue(text.startsWith(aTextPrefix), text);
+			text = text.substring(aTextPrefix.length());
+			if(aHasPathValue) {
+				final int valueIndex = text.lastIndexOf(aTextValueSeparator);
+				valueText = text.substring(valueIndex + aTextValueSeparator.length());
+				text = text.substring(0, valueIndex);
+			}
+			entryTextArray = text.split(aTextEntrySeparator.replace("+", "\\+"), -1);
+		} else {
+			entryTextArray = text.split(SPACE, -1);
+			if(aHasPathValue) {
+				valueText = entryTextArray[0];
+				entryTextArray = Arrays.copyOfRange(entryTextArray, 1, entryTextArray.length);
+			}
+		}
+		final long[] result = new long[entryTextArray.length + 1];
+		result[0] = (null == valueText) ? 0 : Long.parseLong(valueText);
+		for(int ii = 0 ; ii < entryTextArray.length ; ++ii) {
+			result[ii + 1] = Long.parseLong(entryTextArray[ii]);
+		}
+		return result;
+	}
+
+	private static long sum(int[] aPath) {
+		long result = 0;
+		for(int ii = 0 ; ii < aPath.length ; ++ii) {
+			result += aPath[ii];
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,125 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * The triangles the tests solve, parse and convert: random ones, always the same for a given seed,
+ * and ones made of values picked from a short list (i.e. the limits of the byte, short and int node value widths).
+ */
+
+final class SeededTriangles {
+
+	/**
+	 * node values on both sides of the limits of a byte, then of a short
+	 */
+
+	/*package*/ final static int[] BYTE_LIMIT_VALUE_INT_ARRAY = {
+		0, 1, -1, Byte.MAX_VALUE, Byte.MIN_VALUE, Byte.MAX_VALUE + 1, Byte.MIN_VALUE - 1
+	};
+
+	/*package*/ final static int[] SHORT_LIMIT_VALUE_INT_ARRAY = {
+		0, Byte.MAX_VALUE, Byte.MIN_VALUE, Short.MAX_VALUE, Short.MIN_VALUE, Short.MAX_VALUE + 1, Short.MIN_VALUE - 1
+	};
+
+	private SeededTriangles() {
+		// static methods only
+	}
+
+	/**
+	 * @return a new Triangle of aRowCount rows, with node values uniformly drawn from aMinimumNodeValue to aMaximumNodeValue (both included)
+	 */
+
+	/*package*/ static Triangle makeTriangle(int aRowCount, long aSeed, int aMinimumNodeValue, int aMaximumNodeValue) {
+		final SplittableRandom random = new SplittableRandom(aSeed);
+		final Triangle result = new Triangle(aRowCount);
+		for(int row = 1 ; row <= aRowCount ; ++row) {
+			for(int node = 1 ; node <= row ; ++node) {
+				result.setNodeValue(row, node, (int)random.nextLong(aMinimumNodeValue, (long)aMaximumNodeValue + 1));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return a new Triangle of aRowCount rows, with node values drawn from aValueIntArray
+	 */
+
+	/*package*/ static Triangle makeTriangle(int aRowCount, long aSeed, int[] aValueIntArray) {
+		final SplittableRandom random = new SplittableRandom(aSeed);
+		final Triangle result = new Triangle(aRowCount);
+		for(int row = 1 ; row <= aRowCount ; ++row) {
+			for(int node = 1 ; node <= row ; ++node) {
+				result.setNodeValue(row, node, aValueIntArray[random.nextInt(aValueIntArray.length)]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return node values as large as a path of aRowCount of them allows: no partial path sum overflows an int,
+	 * whichever engine computes it (see DijkstraAlgorithm for the A* estimate)
+	 */
+
+	/*package*/ static int[] getIntLimitValues(int aRowCount) {
+		return new int[] {
+			0, Short.MAX_VALUE + 1, Short.MIN_VALUE - 1, Integer.MAX_VALUE / aRowCount, Integer.MIN_VALUE / aRowCount
+		};
+	}
+
+	/**
+	 * @return a new Triangle of aNodeValueIntArray.length rows, aNodeValueIntArray[r-1] holding the node values of row r
+	 */
+
+	/*package*/ static Triangle makeTriangle(int[][] aNodeValueIntArray) {
+		final Triangle result = new Triangle(aNodeValueIntArray.length);
+		for(int row = 1 ; row <= aNodeValueIntArray.length ; ++row) {
+			for(int node = 1 ; node <= row ; ++node) {
+				result.setNodeValue(row, node, aNodeValueIntArray[row - 1][node - 1]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * writes aTriangle to aPath in the text format, each line ended by aLineSeparator
+	 */
+
+	/*package*/ static void writeText(Triangle aTriangle, Path aPath, String aLineSeparator) throws IOException {
+		final Writer writer = Files.newBufferedWriter(aPath, StandardCharsets.US_ASCII);
+		try {
+			for(int row = 1 ; row <= aTriangle.getRowCount() ; ++row) {
+				for(int node = 1 ; node <= row ; ++node) {
+					if(1 < node) {
+						writer.write(' ');
+					}
+					writer.write(Integer.toString(aTriangle.getNodeValue(row, node)));
+				}
+				writer.write(aLineSeparator);
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * checks that aTriangle has the rows and node values of anExpectedTriangle
+	 */
+
+	/*package*/ static void assertSameTriangle(Triangle anExpectedTriangle, Triangle aTriangle, String aDescription) {
+		assertEquals(anExpectedTriangle.getRowCount(), aTriangle.getRowCount(), aDescription + ", row count");
+		for(int row = 1 ; row <= anExpectedTriangle.getRowCount() ; ++row) {
+			for(int node = 1 ; node <= row ; ++node) {
+				// the message is only built for the first node that differs
+				if(anExpectedTriangle.getNodeValue(row, node) != aTriangle.getNodeValue(row, node)) {
+					assertEquals(anExpectedTriangle.getNodeValue(row, node), aTriangle.getNodeValue(row, node), aDescription + ", node (" + row + "," + node + ")");
+				}
+			}
+		}
+	}
+
+}
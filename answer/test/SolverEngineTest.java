@@ -0,0 +1,231 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Every engine, with every Dijkstra frontier, against DynamicProgrammingAlgorithm on the same triangles.
+ *
+ * Minimal paths aren't unique, so an engine must find a path of the triangle with the same value.
+ * The engines doing exactly what DynamicProgrammingAlgorithm does (parallel and vector) must find the very same path.
+ * The bucket frontier only takes node values from 0 to BucketQueueFrontier.MAXIMUM_NODE_VALUE, and is only given those.
+ */
+
+final class SolverEngineTest {
+
+	private final static int SEED_COUNT = 200;
+	private final static int MAXIMUM_SMALL_ROW_COUNT = 40;
+
+	/**
+	 * more than 2 grains of rows, so the parallel engine forks, and rows longer than any SIMD vector
+	 */
+
+	private final static int LARGE_ROW_COUNT = 600;
+	private final static String[] PARALLEL_ARGUMENT_ARRAY = { "--grain=128", "--threads=2" };
+
+	@TempDir
+	/*package*/ Path iTemporaryDirectory;
+
+	@Test
+	/*package*/ void testSmallUniformTriangles() throws Exception {
+		for(int seed = 0 ; seed < SEED_COUNT ; ++seed) {
+			final int rowCount = 1 + seed % MAXIMUM_SMALL_ROW_COUNT;
+			checkEngines(SeededTriangles.makeTriangle(rowCount, seed, 0, 99), "uniform 0..99, seed " + seed);
+			checkEngines(SeededTriangles.makeTriangle(rowCount, seed, 0, 3), "uniform 0..3, seed " + seed);
+		}
+	}
+
+	@Test
+	/*package*/ void testSmallNegativeTriangles() throws Exception {
+		for(int seed = 0 ; seed < SEED_COUNT ; ++seed) {
+			final int rowCount = 1 + seed % MAXIMUM_SMALL_ROW_COUNT;
+			checkEngines(SeededTriangles.makeTriangle(rowCount, seed, -99, 99), "uniform -99..99, seed " + seed);
+			checkEngines(SeededTriangles.makeTriangle(rowCount, seed, -1000000, -1), "uniform -1000000..-1, seed " + seed);
+		}
+	}
+
+	@Test
+	/*package*/ void testZeroTriangles() throws Exception {
+		for(int rowCount = 1 ; rowCount <= MAXIMUM_SMALL_ROW_COUNT ; ++rowCount) {
+			checkEngines(SeededTriangles.makeTriangle(rowCount, rowCount, 0, 0), "zeros, " + rowCount + " rows");
+			checkEngines(SeededTriangles.makeTriangle(rowCount, rowCount, new int[] { 0, -1 }), "zeros and -1, " + rowCount + " rows");
+		}
+	}
+
+	@Test
+	/*package*/ void testLimitValueTriangles() throws Exception {
+		for(int seed = 0 ; seed < SEED_COUNT ; ++seed) {
+			final int rowCount = 1 + seed % MAXIMUM_SMALL_ROW_COUNT;
+			checkEngines(SeededTriangles.makeTriangle(rowCount, seed, SeededTriangles.BYTE_LIMIT_VALUE_INT_ARRAY), "byte limits, seed " + seed);
+			checkEngines(SeededTriangles.makeTriangle(rowCount, seed, SeededTriangles.SHORT_LIMIT_VALUE_INT_ARRAY), "short limits, seed " + seed);
+			checkEngines(SeededTriangles.makeTriangle(rowCount, seed, SeededTriangles.getIntLimitValues(rowCount)), "int limits, seed " + seed);
+		}
+	}
+
+	@Test
+	/*package*/ void testIntExtremeTriangles() throws Exception {
+		checkEngines(SeededTriangles.makeTriangle(new int[][] { { Integer.MIN_VALUE } }), "Integer.MIN_VALUE root");
+		checkEngines(SeededTriangles.makeTriangle(new int[][] { { Integer.MAX_VALUE } }), "Integer.MAX_VALUE root");
+		checkEngines(SeededTriangles.makeTriangle(new int[][] { { 0 }, { Integer.MAX_VALUE, Integer.MIN_VALUE } }), "Integer.MIN_VALUE right leaf");
+		checkEngines(SeededTriangles.makeTriangle(new int[][] { { 0 }, { Integer.MIN_VALUE, Integer.MAX_VALUE } }), "Integer.MIN_VALUE left leaf");
+		checkEngines(SeededTriangles.makeTriangle(new int[][] { { -1 }, { Integer.MAX_VALUE, Integer.MAX_VALUE } }), "Integer.MAX_VALUE leaves");
+		checkEngines(SeededTriangles.makeTriangle(new int[][] { { 1 }, { Integer.MIN_VALUE + 1, Integer.MIN_VALUE + 2 } }), "Integer.MIN_VALUE leaves");
+	}
+
+	@Test
+	/*package*/ void testLargeTriangles() throws Exception {
+		checkEngines(SeededTriangles.makeTriangle(LARGE_ROW_COUNT, 1, 0, 99), "uniform 0..99, large");
+		checkEngines(SeededTriangles.makeTriangle(LARGE_ROW_COUNT, 2, 0, 65535), "uniform 0..65535, large");
+		checkEngines(SeededTriangles.makeTriangle(LARGE_ROW_COUNT, 3, -99, 99), "uniform -99..99, large");
+		checkEngines(SeededTriangles.makeTriangle(LARGE_ROW_COUNT, 4, SeededTriangles.getIntLimitValues(LARGE_ROW_COUNT)), "int limits, large");
+	}
+
+	@Test
+	/*package*/ void testOffHeapTriangle() throws Exception {
+		for(int valueByteCount = Byte.BYTES ; valueByteCount <= Integer.BYTES ; valueByteCount *= 2) {
+			final Triangle triangle = SeededTriangles.makeTriangle(LARGE_ROW_COUNT, valueByteCount, -99, 99);
+			final Triangle offHeapTriangle = new Triangle(LARGE_ROW_COUNT, valueByteCount, true);
+			for(int row = 1 ; row <= LARGE_ROW_COUNT ; ++row) {
+				for(int node = 1 ; node <= row ; ++node) {
+					offHeapTriangle.setNodeValue(row, node, triangle.getNodeValue(row, node));
+				}
+			}
+			checkEngines(offHeapTriangle, "off-heap, " + valueByteCount + " byte values");
+		}
+	}
+
+	@Test
+	/*package*/ void testStreamingSolver() throws Exception {
+		for(int seed = 0 ; seed < SEED_COUNT ; seed += 10) {
+			final int rowCount = 1 + seed % MAXIMUM_SMALL_ROW_COUNT;
+			checkStreamingSolver(SeededTriangles.makeTriangle(rowCount, seed, -99, 99), "uniform -99..99, seed " + seed);
+			checkStreamingSolver(SeededTriangles.makeTriangle(rowCount, seed, SeededTriangles.getIntLimitValues(rowCount)), "int limits, seed " + seed);
+		}
+		checkStreamingSolver(SeededTriangles.makeTriangle(LARGE_ROW_COUNT, 5, 0, 99), "uniform 0..99, large");
+	}
+
+	@Test
+	/*package*/ void testBucketFrontierRefusesNegativeValues() {
+		final Triangle triangle = SeededTriangles.makeTriangle(new int[][] { { 1 }, { -1, 2 } });
+		final TriangleSolver solver = makeSolver(new String[] { "--engine=dijkstra", "--frontier=bucket" }, triangle.getRowCount());
+		assertThrows(IllegalArgumentException.class, new Executable() {
+			public void execute() {
+				solver.runAlgorithm(triangle);
+			}
+		});
+	}
+
+	/**
+	 * solves aTriangle with every engine able to, and checks each path against the one of DynamicProgrammingAlgorithm
+	 */
+
+	private void checkEngines(Triangle aTriangle, String aDescription) {
+		final int rowCount = aTriangle.getRowCount();
+		final DynamicProgrammingAlgorithm referenceSolver = new DynamicProgrammingAlgorithm(rowCount);
+		final int[] referencePath = referenceSolver.runAlgorithm(aTriangle);
+		final int[] referenceNodeNumberPath = referenceSolver.getNodeNumberPath();
+		checkPath(aTriangle, referencePath, referenceNodeNumberPath, aDescription + ", dp");
+		final boolean isBucketAble = (0 <= aTriangle.getMinimumNodeValue()) && (BucketQueueFrontier.MAXIMUM_NODE_VALUE >= aTriangle.getMaximumNodeValue());
+		final List<String[]> argumentArrayList = makeArgumentArrays();
+		for(int ii = 0 ; ii < argumentArrayList.size() ; ++ii) {
+			final String[] argumentArray = argumentArrayList.get(ii);
+			final MinTrianglePathOptions options = new MinTrianglePathOptions(argumentArray);
+			final boolean isDijkstra = isDijkstra(options.getSolverEngine());
+			if(isBucketAble || !isDijkstra || (DijkstraFrontierType.BUCKET_QUEUE != options.getFrontierType())) {
+				final String description = aDescription + ", " + String.join(" ", argumentArray);
+				final TriangleSolver solver = options.getSolverEngine().makeSolver(rowCount, options);
+				// what a previous engine left in the triangle (i.e. Dijkstra path values) must not matter
+				aTriangle.reset(rowCount);
+				final int[] path = solver.runAlgorithm(aTriangle);
+				final int[] nodeNumberPath = solver.getNodeNumberPath();
+				checkPath(aTriangle, path, nodeNumberPath, description);
+				assertEquals(sum(referencePath), sum(path), description);
+				if(!isDijkstra) {
+					assertArrayEquals(referenceNodeNumberPath, nodeNumberPath, description);
+				}
+			}
+		}
+	}
+
+	private void checkStreamingSolver(Triangle aTriangle, String aDescription) throws Exception {
+		final Path inputPath = iTemporaryDirectory.resolve("streaming.txt");
+		SeededTriangles.writeText(aTriangle, inputPath, "\n");
+		final StreamingTriangleSolver solver = new StreamingTriangleSolver();
+		final int[] nodeNumberPath = solver.solve(new TriangleInputProcessor(inputPath));
+		final int[] path = new int[nodeNumberPath.length];
+		for(int ii = 0 ; ii < path.length ; ++ii) {
+			path[ii] = aTriangle.getNodeValue(ii + 1, nodeNumberPath[ii]);
+		}
+		checkPath(aTriangle, path, nodeNumberPath, aDescription + ", streaming");
+		final int[] referencePath = new DynamicProgrammingAlgorithm(aTriangle.getRowCount()).runAlgorithm(aTriangle);
+		assertEquals(sum(referencePath), sum(path), aDescription + ", streaming");
+		assertEquals(sum(path), solver.getPathValue(), aDescription + ", streaming path value");
+	}
+
+	/**
+	 * checks that aPath goes from the root of aTriangle to a leaf, one row at a time, through the nodes of aNodeNumberPath
+	 */
+
+	private static void checkPath(Triangle aTriangle, int[] aPath, int[] aNodeNumberPath, String aDescription) {
+		final int rowCount = aTriangle.getRowCount();
+		assertEquals(rowCount, aPath.length, aDescription);
+		assertEquals(rowCount, aNodeNumberPath.length, aDescription);
+		assertEquals(1, aNodeNumberPath[0], aDescription);
+		for(int ii = 0 ; ii < rowCount ; ++ii) {
+			if(0 < ii) {
+				final int step = aNodeNumberPath[ii] - aNodeNumberPath[ii - 1];
+				assertTrue((0 == step) || (1 == step), aDescription + ", row " + (ii + 1) + " isn't a child of the row above");
+			}
+			assertEquals(aTriangle.getNodeValue(ii + 1, aNodeNumberPath[ii]), aPath[ii], aDescription + ", row " + (ii + 1));
+		}
+	}
+
+	/**
+	 * @return the command line arguments of every engine, once per frontier for the Dijkstra engines
+	 */
+
+	private static List<String[]> makeArgumentArrays() {
+		final List<String[]> result = new ArrayList<String[]>();
+		final SolverEngine[] engineArray = SolverEngine.values();
+		for(int ii = 0 ; ii < engineArray.length ; ++ii) {
+			final String engineArgument = "--engine=" + engineArray[ii].getCommandLineName();
+			if(isDijkstra(engineArray[ii])) {
+				final DijkstraFrontierType[] frontierTypeArray = DijkstraFrontierType.values();
+				for(int jj = 0 ; jj < frontierTypeArray.length ; ++jj) {
+					result.add(new String[] { engineArgument, "--frontier=" + frontierTypeArray[jj].getCommandLineName() });
+				}
+			} else if(SolverEngine.PARALLEL_DYNAMIC_PROGRAMMING == engineArray[ii]) {
+				result.add(new String[] { engineArgument, PARALLEL_ARGUMENT_ARRAY[0], PARALLEL_ARGUMENT_ARRAY[1] });
+			} else {
+				result.add(new String[] { engineArgument });
+			}
+		}
+		return result;
+	}
+
+	private static TriangleSolver makeSolver(String[] anArgumentArray, int aRowCount) {
+		final MinTrianglePathOptions options = new MinTrianglePathOptions(anArgumentArray);
+		return options.getSolverEngine().makeSolver(aRowCount, options);
+	}
+
+	private static boolean isDijkstra(SolverEngine anEngine) {
+		return (SolverEngine.DIJKSTRA == anEngine) || (SolverEngine.A_STAR == anEngine);
+	}
+
+	private static long sum(int[] aPath) {
+		long result = 0;
+		for(int ii = 0 ; ii < aPath.length ; ++ii) {
+			result += aPath[ii];
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,119 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Triangles written by TriangleBinaryFormat.write must come back unchanged, in the narrowest value width
+ * able to hold them, whether loaded whole (on the heap or off it) or one row at a time.
+ */
+
+final class TriangleBinaryFormatTest {
+
+	private final static int ROW_COUNT = 200;
+
+	@TempDir
+	/*package*/ Path iTemporaryDirectory;
+
+	@Test
+	/*package*/ void testRoundTrips() throws Exception {
+		checkRoundTrip(SeededTriangles.makeTriangle(ROW_COUNT, 1, 0, 99), Byte.BYTES, "uniform 0..99");
+		checkRoundTrip(SeededTriangles.makeTriangle(ROW_COUNT, 2, new int[] { 0, Byte.MIN_VALUE, Byte.MAX_VALUE }), Byte.BYTES, "byte limits");
+		checkRoundTrip(SeededTriangles.makeTriangle(ROW_COUNT, 3, SeededTriangles.BYTE_LIMIT_VALUE_INT_ARRAY), Short.BYTES, "past the byte limits");
+		checkRoundTrip(SeededTriangles.makeTriangle(ROW_COUNT, 4, new int[] { 0, Short.MIN_VALUE, Short.MAX_VALUE }), Short.BYTES, "short limits");
+		checkRoundTrip(SeededTriangles.makeTriangle(ROW_COUNT, 5, SeededTriangles.SHORT_LIMIT_VALUE_INT_ARRAY), Integer.BYTES, "past the short limits");
+		checkRoundTrip(SeededTriangles.makeTriangle(ROW_COUNT, 6, Integer.MIN_VALUE, Integer.MAX_VALUE), Integer.BYTES, "int limits");
+		checkRoundTrip(SeededTriangles.makeTriangle(1, 7, 0, 0), Byte.BYTES, "single zero");
+		checkRoundTrip(new Triangle(0), Byte.BYTES, "empty");
+	}
+
+	@Test
+	/*package*/ void testTextConversion() throws Exception {
+		final Triangle triangle = SeededTriangles.makeTriangle(ROW_COUNT, 8, -1000, 1000);
+		final Path textPath = iTemporaryDirectory.resolve("triangle.txt");
+		SeededTriangles.writeText(triangle, textPath, "\n");
+		final Path binaryPath = iTemporaryDirectory.resolve("triangle.bin");
+		TriangleBinaryConverter.main(new String[] { textPath.toString(), binaryPath.toString() });
+		SeededTriangles.assertSameTriangle(triangle, new TriangleInputProcessor(binaryPath).makeTriangle(), "converted");
+	}
+
+	@Test
+	/*package*/ void testFaultyHeaders() throws Exception {
+		final Path path = iTemporaryDirectory.resolve("triangle.bin");
+		TriangleBinaryFormat.write(SeededTriangles.makeTriangle(ROW_COUNT, 9, 0, 99), path);
+		final byte[] byteArray = Files.readAllBytes(path);
+		checkFaultyInput(Arrays.copyOf(byteArray, byteArray.length - 1), "file is shorter than its header says");
+		checkFaultyInput(Arrays.copyOf(byteArray, TriangleBinaryFormat.HEADER_SIZE - 1), "no binary triangle header");
+		checkFaultyInput(withHeaderInt(byteArray, 1, TriangleBinaryFormat.FORMAT_VERSION + 1), "unknown format version " + (TriangleBinaryFormat.FORMAT_VERSION + 1));
+		checkFaultyInput(withHeaderInt(byteArray, 2, -1), "invalid row count or value width");
+		checkFaultyInput(withHeaderInt(byteArray, 3, 24), "invalid row count or value width");
+		// a row count too large for the file
+		checkFaultyInput(withHeaderInt(byteArray, 2, ROW_COUNT + 1), "file is shorter than its header says");
+	}
+
+	/**
+	 * writes aTriangle, then reads it back every way TriangleInputProcessor can
+	 */
+
+	private void checkRoundTrip(Triangle aTriangle, int anExpectedValueByteCount, String aDescription) throws Exception {
+		final Path path = iTemporaryDirectory.resolve("triangle.bin");
+		TriangleBinaryFormat.write(aTriangle, path);
+		assertEquals(TriangleBinaryFormat.HEADER_SIZE + aTriangle.getNodeCount() * anExpectedValueByteCount, Files.size(path), aDescription + ", file size");
+		final ByteBuffer[] bufferArray = new ByteBuffer[] { ByteBuffer.wrap(Files.readAllBytes(path)) };
+		assertTrue(TriangleBinaryFormat.isBinaryTriangle(bufferArray), aDescription);
+		final int[] header = TriangleBinaryFormat.readHeader(bufferArray);
+		assertEquals(aTriangle.getRowCount(), header[0], aDescription + ", row count");
+		assertEquals(anExpectedValueByteCount, header[1], aDescription + ", value width");
+		final Triangle triangle = new TriangleInputProcessor(path).makeTriangle();
+		SeededTriangles.assertSameTriangle(aTriangle, triangle, aDescription);
+		assertEquals(anExpectedValueByteCount, triangle.getValueByteCount(), aDescription + ", loaded value width");
+		SeededTriangles.assertSameTriangle(aTriangle, new TriangleInputProcessor(path, true).makeTriangle(), aDescription + ", off-heap");
+		assertEquals(aTriangle.getRowCount(), new TriangleInputProcessor(path).countRows(), aDescription + ", countRows");
+		final TriangleInputProcessor inputProcessor = new TriangleInputProcessor(path);
+		final int[] rowNodeValueIntArray = new int[Math.max(1, aTriangle.getRowCount())];
+		for(int row = 1 ; row <= aTriangle.getRowCount() ; ++row) {
+			assertTrue(inputProcessor.readNextRow(rowNodeValueIntArray), aDescription + ", row " + row);
+			for(int node = 1 ; node <= row ; ++node) {
+				if(aTriangle.getNodeValue(row, node) != rowNodeValueIntArray[node - 1]) {
+					assertEquals(aTriangle.getNodeValue(row, node), rowNodeValueIntArray[node - 1], aDescription + ", readNextRow node (" + row + "," + node + ")");
+				}
+			}
+		}
+		assertFalse(inputProcessor.readNextRow(rowNodeValueIntArray), aDescription + ", after the last row");
+	}
+
+	/**
+	 * checks that anInputByteArray, starting with the binary magic number, gives a TriangleInputException about aReason
+	 */
+
+	private void checkFaultyInput(byte[] anInputByteArray, String aReason) throws Exception {
+		final Path path = iTemporaryDirectory.resolve("faulty.bin");
+		Files.write(path, anInputByteArray);
+		final TriangleInputException inputException = assertThrows(TriangleInputException.class, new Executable() {
+			public void execute() throws Throwable {
+				new TriangleInputProcessor(path).makeTriangle();
+			}
+		}, aReason);
+		assertEquals(String.format(TriangleInputException.BAD_BINARY, aReason), inputException.getMessage());
+	}
+
+	/**
+	 * @return a copy of aByteArray with the header int number anIntIndex (from 0 for the magic number) replaced by aValue
+	 */
+
+	private static byte[] withHeaderInt(byte[] aByteArray, int anIntIndex, int aValue) {
+		final byte[] result = aByteArray.clone();
+		ByteBuffer.wrap(result).order(TriangleBinaryFormat.BYTE_ORDER).putInt(anIntIndex * Integer.BYTES, aValue);
+		return result;
+	}
+
+}
@@ -0,0 +1,199 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The text format, as TriangleInputProcessor reads it: whole (makeTriangle), one row at a time (readNextRow)
+ * and cut in chunks (ParallelTriangleParser). All three must report a faulty input with the same row and node numbers.
+ */
+
+final class TriangleInputProcessorTest {
+
+	/**
+	 * faulty inputs, each followed by the message of the TriangleInputException it must give
+	 */
+
+	private final static String[][] FAULTY_INPUT_ARRAY = {
+		{ "1\n2 x\n", "Illegal Input. Node value is not a number. Row number = 2, Node number = 2" },
+		{ "1\n2  3\n4 5 6\n", "Illegal Input. Line has unexpected number of spaces. Row number = 2" },
+		{ "1\r\n2 3\r\n4 5 99999999999\r\n", "Illegal Input. Node value is not a number. Row number = 3, Node number = 3" },
+		{ "1\n2 3 4\n", "Illegal Input. Line has unexpected number of spaces. Row number = 2" },
+		{ "1\n2 3\n4 5\n", "Illegal Input. Line has unexpected number of spaces. Row number = 3" },
+		{ "1\n2 3\n4 -5 2147483648\n", "Illegal Input. Node value is not a number. Row number = 3, Node number = 3" },
+		{ "1\n2 3\n-2147483649 5 6\n", "Illegal Input. Node value is not a number. Row number = 3, Node number = 1" },
+		{ "1\n2 3\n+ 5 6\n", "Illegal Input. Node value is not a number. Row number = 3, Node number = 1" },
+		{ "1\n2 3\n4 - 6\n", "Illegal Input. Node value is not a number. Row number = 3, Node number = 2" },
+		{ "1\n2 3\n4 5-1 6\n", "Illegal Input. Node value is not a number. Row number = 3, Node number = 2" },
+		{ "1\n2 3\n4 x y\n", "Illegal Input. Node value is not a number. Row number = 3, Node number = 2" },
+		{ "1\n2 3\n4 5 6\n7 8 9 1x0\n", "Illegal Input. Node value is not a number. Row number = 4, Node number = 4" },
+		{ "1\n\n", "Illegal Input. Line has unexpected number of spaces. Row number = 2" },
+		{ " 1\n", "Illegal Input. Line has unexpected number of spaces. Row number = 1" },
+		{ "1\n2 3\n4 5  \n", "Illegal Input. Line has unexpected number of spaces. Row number = 3" },
+		{ "1\n2 3\n4 5 6 \n7 8 9 10 11\n", "Illegal Input. Line has unexpected number of spaces. Row number = 4" },
+		{ "1\n2 3\n4 5 6\n7 8 9", "Illegal Input. Line has unexpected number of spaces. Row number = 4" },
+		{ "1\n2 3\n4 5 6\n\n", "Illegal Input. Line has unexpected number of spaces. Row number = 4" },
+	};
+
+	/**
+	 * rows of a triangle of "5" large enough to be cut in 2 chunks by ParallelTriangleParser, even with a single thread
+	 */
+
+	private final static int PARALLEL_ROW_COUNT = 3000;
+
+	@TempDir
+	/*package*/ Path iTemporaryDirectory;
+
+	@Test
+	/*package*/ void testErrorPositions() throws Exception {
+		for(int ii = 0 ; ii < FAULTY_INPUT_ARRAY.length ; ++ii) {
+			checkErrorPosition(FAULTY_INPUT_ARRAY[ii][0], FAULTY_INPUT_ARRAY[ii][1]);
+		}
+	}
+
+	@Test
+	/*package*/ void testParallelErrorPositions() throws Exception {
+		final int[] faultyRowCountArray = { PARALLEL_ROW_COUNT - 100, 1000 };
+		checkErrorPosition(makeParallelInput(faultyRowCountArray, "5x"), String.format(TriangleInputException.BAD_NUMBER, 1000, 1000));
+		checkErrorPosition(makeParallelInput(faultyRowCountArray, "5 5"), String.format(TriangleInputException.BAD_SPACING, 1000));
+		checkErrorPosition(makeParallelInput(new int[] { PARALLEL_ROW_COUNT - 100 }, "5x"),
+				String.format(TriangleInputException.BAD_NUMBER, PARALLEL_ROW_COUNT - 100, PARALLEL_ROW_COUNT - 100));
+	}
+
+	@Test
+	/*package*/ void testParallelParse() throws Exception {
+		final Triangle expectedTriangle = SeededTriangles.makeTriangle(PARALLEL_ROW_COUNT, 7, SeededTriangles.SHORT_LIMIT_VALUE_INT_ARRAY);
+		final Path inputPath = iTemporaryDirectory.resolve("parallel.txt");
+		SeededTriangles.writeText(expectedTriangle, inputPath, "\n");
+		final ParallelTriangleParser parser = new ParallelTriangleParser(new ByteBuffer[] { ByteBuffer.wrap(Files.readAllBytes(inputPath)) });
+		assertEquals(PARALLEL_ROW_COUNT, parser.getRowCount());
+		assertEquals(Integer.BYTES, parser.getValueByteCount());
+		final Triangle triangle = new Triangle(parser.getRowCount(), parser.getValueByteCount(), false);
+		parser.fillTriangle(triangle);
+		SeededTriangles.assertSameTriangle(expectedTriangle, triangle, "parallel parse");
+	}
+
+	@Test
+	/*package*/ void testLimitValues() throws Exception {
+		final Triangle triangle = makeTriangle("-2147483648\n2147483647 -128\n127 128 -129\n32767 32768 -32768 -32769\n+5 -0 007 0 -1\n");
+		final int[][] expectedValueIntArray = {
+			{ Integer.MIN_VALUE },
+			{ Integer.MAX_VALUE, Byte.MIN_VALUE },
+			{ Byte.MAX_VALUE, Byte.MAX_VALUE + 1, Byte.MIN_VALUE - 1 },
+			{ Short.MAX_VALUE, Short.MAX_VALUE + 1, Short.MIN_VALUE, Short.MIN_VALUE - 1 },
+			{ 5, 0, 7, 0, -1 },
+		};
+		SeededTriangles.assertSameTriangle(SeededTriangles.makeTriangle(expectedValueIntArray), triangle, "limit values");
+	}
+
+	@Test
+	/*package*/ void testValueWidths() throws Exception {
+		// the width comes from the longest token: up to 2 characters always fit in a byte, up to 4 in a short
+		assertEquals(Byte.BYTES, makeTriangle("-9\n99 0\n").getValueByteCount());
+		assertEquals(Short.BYTES, makeTriangle("-99\n0 0\n").getValueByteCount());
+		assertEquals(Short.BYTES, makeTriangle("9999\n-999 0\n").getValueByteCount());
+		assertEquals(Integer.BYTES, makeTriangle("10000\n0 0\n").getValueByteCount());
+		assertEquals(Integer.BYTES, makeTriangle("0\n0 -9999\n").getValueByteCount());
+	}
+
+	@Test
+	/*package*/ void testLineSeparators() throws Exception {
+		final String[] lineSeparatorArray = { "\n", "\r\n", "\r" };
+		final Triangle expectedTriangle = SeededTriangles.makeTriangle(30, 11, -99, 99);
+		for(int ii = 0 ; ii < lineSeparatorArray.length ; ++ii) {
+			final Path inputPath = iTemporaryDirectory.resolve("separator" + ii + ".txt");
+			SeededTriangles.writeText(expectedTriangle, inputPath, lineSeparatorArray[ii]);
+			SeededTriangles.assertSameTriangle(expectedTriangle, new TriangleInputProcessor(inputPath).makeTriangle(), "separator " + ii);
+			checkRows(expectedTriangle, new TriangleInputProcessor(inputPath), "separator " + ii + ", row by row");
+		}
+		// the last line doesn't need to end
+		final Path inputPath = iTemporaryDirectory.resolve("unterminated.txt");
+		Files.write(inputPath, "1\n2 3\n4 5 6".getBytes(StandardCharsets.US_ASCII));
+		SeededTriangles.assertSameTriangle(SeededTriangles.makeTriangle(new int[][] { { 1 }, { 2, 3 }, { 4, 5, 6 } }),
+				new TriangleInputProcessor(inputPath).makeTriangle(), "unterminated last line");
+	}
+
+	/**
+	 * checks that anInput gives a TriangleInputException with anExpectedMessage, however it is parsed
+	 */
+
+	private void checkErrorPosition(String anInput, String anExpectedMessage) throws Exception {
+		final Path inputPath = iTemporaryDirectory.resolve("faulty.txt");
+		final byte[] inputByteArray = anInput.getBytes(StandardCharsets.US_ASCII);
+		Files.write(inputPath, inputByteArray);
+		final String description = (anInput.length() < 40) ? anInput : anExpectedMessage;
+		assertEquals(anExpectedMessage, assertThrows(TriangleInputException.class, new Executable() {
+			public void execute() throws Throwable {
+				new TriangleInputProcessor(inputPath).makeTriangle();
+			}
+		}, description).getMessage(), description + ", makeTriangle");
+		assertEquals(anExpectedMessage, assertThrows(TriangleInputException.class, new Executable() {
+			public void execute() throws Throwable {
+				final TriangleInputProcessor inputProcessor = new TriangleInputProcessor(inputPath);
+				final int[] rowNodeValueIntArray = new int[inputProcessor.countRows() + 1];
+				while(inputProcessor.readNextRow(rowNodeValueIntArray)) {
+					// nothing to keep
+				}
+			}
+		}, description).getMessage(), description + ", readNextRow");
+		assertEquals(anExpectedMessage, assertThrows(TriangleInputException.class, new Executable() {
+			public void execute() throws Throwable {
+				final ParallelTriangleParser parser = new ParallelTriangleParser(new ByteBuffer[] { ByteBuffer.wrap(inputByteArray) });
+				parser.fillTriangle(new Triangle(parser.getRowCount(), parser.getValueByteCount(), false));
+			}
+		}, description).getMessage(), description + ", ParallelTriangleParser");
+	}
+
+	/**
+	 * checks that readNextRow gives the rows of anExpectedTriangle, then nothing
+	 */
+
+	private static void checkRows(Triangle anExpectedTriangle, TriangleInputProcessor anInputProcessor, String aDescription) throws Exception {
+		final int rowCount = anExpectedTriangle.getRowCount();
+		final int[] rowNodeValueIntArray = new int[rowCount];
+		for(int row = 1 ; row <= rowCount ; ++row) {
+			assertTrue(anInputProcessor.readNextRow(rowNodeValueIntArray), aDescription + ", row " + row);
+			for(int node = 1 ; node <= row ; ++node) {
+				assertEquals(anExpectedTriangle.getNodeValue(row, node), rowNodeValueIntArray[node - 1], aDescription + ", node (" + row + "," + node + ")");
+			}
+		}
+		assertFalse(anInputProcessor.readNextRow(rowNodeValueIntArray), aDescription + ", after the last row");
+		assertEquals(rowCount, anInputProcessor.getReadRowCount(), aDescription);
+	}
+
+	/**
+	 * @return the text of a PARALLEL_ROW_COUNT rows triangle of "5", with the last node of each row of aFaultyRowCountArray
+	 * replaced by aFaultyToken
+	 */
+
+	private static String makeParallelInput(int[] aFaultyRowCountArray, String aFaultyToken) {
+		final StringBuilder result = new StringBuilder(PARALLEL_ROW_COUNT * (PARALLEL_ROW_COUNT + 1));
+		for(int row = 1 ; row <= PARALLEL_ROW_COUNT ; ++row) {
+			for(int node = 1 ; node < row ; ++node) {
+				result.append("5 ");
+			}
+			boolean isFaultyRow = false;
+			for(int ii = 0 ; ii < aFaultyRowCountArray.length ; ++ii) {
+				isFaultyRow |= (aFaultyRowCountArray[ii] == row);
+			}
+			result.append(isFaultyRow ? aFaultyToken : "5").append('\n');
+		}
+		return result.toString();
+	}
+
+	private Triangle makeTriangle(String anInput) throws Exception {
+		final Path inputPath = iTemporaryDirectory.resolve("triangle.txt");
+		Files.write(inputPath, anInput.getBytes(StandardCharsets.US_ASCII));
+		return new TriangleInputProcessor(inputPath).makeTriangle();
+	}
+
+}
@@ -0,0 +1,226 @@
+package benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The classes of answer/src (and test/src) live in the default package, which can't be imported,
+ * while JMH refuses benchmarks in the default package.
+ *
+ * AnswerAccess reaches the package-private classes by reflection, once, and keeps method handles.
+ * Calls through a static final MethodHandle get inlined by the JIT like direct calls,
+ * so the benchmarks measure the code under test and not the reflection.
+ */
+
+final class AnswerAccess {
+
+	/**
+	 * the seed every benchmark input is generated with, so all runs measure the same triangles
+	 */
+
+	/*package*/ final static long TRIANGLE_SEED = 20110101L;
+
+	private final static MethodHandle NEW_INPUT_PROCESSOR = findConstructor("TriangleInputProcessor", Path.class);
+	private final static MethodHandle MAKE_TRIANGLE = findMethod("TriangleInputProcessor", "makeTriangle");
+	private final static MethodHandle RESET_TRIANGLE = findMethod("Triangle", "reset", int.class);
+	private final static MethodHandle GET_ROW_COUNT = findMethod("Triangle", "getRowCount");
+	private final static MethodHandle NEW_OPTIONS = findConstructor("MinTrianglePathOptions", String[].class);
+	private final static MethodHandle GET_SOLVER_ENGINE = findMethod("MinTrianglePathOptions", "getSolverEngine");
+	private final static MethodHandle MAKE_SOLVER = findMethod("SolverEngine", "makeSolver", int.class, findClass("MinTrianglePathOptions"));
+	private final static MethodHandle RUN_ALGORITHM = findMethod("TriangleSolver", "runAlgorithm", findClass("Triangle"));
+	private final static MethodHandle GET_NODE_NUMBER_PATH = findMethod("TriangleSolver", "getNodeNumberPath");
+	private final static MethodHandle NEW_STREAMING_SOLVER = findConstructor("StreamingTriangleSolver");
+	private final static MethodHandle SOLVE_STREAMING = findMethod("StreamingTriangleSolver", "solve", findClass("TriangleInputProcessor"));
+	private final static MethodHandle NEW_OUTPUT_PROCESSOR = findConstructor("PathOutputProcessor", PrintStream.class);
+	private final static MethodHandle PROCESS_PATH = findMethod("PathOutputProcessor", "processPath", int[].class, int[].class);
+	private final static MethodHandle NEW_INCREMENTAL_SOLVER = findConstructor("IncrementalTriangleSolver", findClass("Triangle"));
+	private final static MethodHandle SET_INCREMENTAL_NODE_VALUE = findMethod("IncrementalTriangleSolver", "setNodeValue", int.class, int.class, int.class);
+	private final static MethodHandle GET_INCREMENTAL_NODE_VALUE = findMethod("IncrementalTriangleSolver", "getNodeValue", int.class, int.class);
+	private final static MethodHandle GET_INCREMENTAL_MINIMAL_PATH = findMethod("IncrementalTriangleSolver", "getMinimalPath");
+	private final static MethodHandle GENERATE = findMethod("GeonomicsTriangleGenerator", "generate", int.class, int.class, long.class, OutputStream.class);
+
+	private AnswerAccess() {
+		// static methods only
+	}
+
+	/**
+	 * @return a new temporary file holding a triangle generated by GeonomicsTriangleGenerator with TRIANGLE_SEED
+	 */
+
+	/*package*/ static Path writeTriangle(int aRowCount, int aMaxNodeValue) throws Throwable {
+		final Path result = Files.createTempFile("triangle-" + aRowCount + "-" + aMaxNodeValue + "-", ".txt");
+		final OutputStream output = Files.newOutputStream(result);
+		try {
+			GENERATE.invokeExact(aRowCount, aMaxNodeValue, TRIANGLE_SEED, output);
+		} finally {
+			output.close();
+		}
+		return result;
+	}
+
+	/**
+	 * @return new TriangleInputProcessor(anInputPath)
+	 */
+
+	/*package*/ static Object newInputProcessor(Path anInputPath) throws Throwable {
+		return (Object)NEW_INPUT_PROCESSOR.invokeExact(anInputPath);
+	}
+
+	/**
+	 * @return anInputProcessor.makeTriangle()
+	 */
+
+	/*package*/ static Object makeTriangle(Object anInputProcessor) throws Throwable {
+		return (Object)MAKE_TRIANGLE.invokeExact(anInputProcessor);
+	}
+
+	/**
+	 * aTriangle.reset(aTriangle.getRowCount()): forgets what a previous run left in aTriangle (i.e. Dijkstra path values)
+	 */
+
+	/*package*/ static void resetTriangle(Object aTriangle) throws Throwable {
+		RESET_TRIANGLE.invokeExact(aTriangle, (int)GET_ROW_COUNT.invokeExact(aTriangle));
+	}
+
+	/*package*/ static int getRowCount(Object aTriangle) throws Throwable {
+		return (int)GET_ROW_COUNT.invokeExact(aTriangle);
+	}
+
+	/**
+	 * @param anArgumentArray MinTrianglePath command line options picking the engine and its settings
+	 * @return a new TriangleSolver for triangles of up to aRowCount rows
+	 */
+
+	/*package*/ static Object makeSolver(int aRowCount, String[] anArgumentArray) throws Throwable {
+		final Object options = (Object)NEW_OPTIONS.invokeExact(anArgumentArray);
+		return (Object)MAKE_SOLVER.invokeExact((Object)GET_SOLVER_ENGINE.invokeExact(options), aRowCount, options);
+	}
+
+	/**
+	 * @return aSolver.runAlgorithm(aTriangle)
+	 */
+
+	/*package*/ static int[] runAlgorithm(Object aSolver, Object aTriangle) throws Throwable {
+		return (int[])RUN_ALGORITHM.invokeExact(aSolver, aTriangle);
+	}
+
+	/**
+	 * @return aSolver.getNodeNumberPath()
+	 */
+
+	/*package*/ static int[] getNodeNumberPath(Object aSolver) throws Throwable {
+		return (int[])GET_NODE_NUMBER_PATH.invokeExact(aSolver);
+	}
+
+	/**
+	 * @return new StreamingTriangleSolver().solve(anInputProcessor)
+	 */
+
+	/*package*/ static int[] solveStreaming(Object anInputProcessor) throws Throwable {
+		return (int[])SOLVE_STREAMING.invokeExact((Object)NEW_STREAMING_SOLVER.invokeExact(), anInputProcessor);
+	}
+
+	/**
+	 * @return new PathOutputProcessor(anOutput)
+	 */
+
+	/*package*/ static Object newOutputProcessor(PrintStream anOutput) throws Throwable {
+		return (Object)NEW_OUTPUT_PROCESSOR.invokeExact(anOutput);
+	}
+
+	/**
+	 * anOutputProcessor.processPath(aPath, aNodeNumberPath)
+	 */
+
+	/*package*/ static void processPath(Object anOutputProcessor, int[] aPath, int[] aNodeNumberPath) throws Throwable {
+		PROCESS_PATH.invokeExact(anOutputProcessor, aPath, aNodeNumberPath);
+	}
+
+	/**
+	 * @return new IncrementalTriangleSolver(aTriangle)
+	 */
+
+	/*package*/ static Object newIncrementalSolver(Object aTriangle) throws Throwable {
+		return (Object)NEW_INCREMENTAL_SOLVER.invokeExact(aTriangle);
+	}
+
+	/*package*/ static void setNodeValue(Object anIncrementalSolver, int aCoordinateRow, int aCoordinateNode, int aNodeValue) throws Throwable {
+		SET_INCREMENTAL_NODE_VALUE.invokeExact(anIncrementalSolver, aCoordinateRow, aCoordinateNode, aNodeValue);
+	}
+
+	/*package*/ static int getNodeValue(Object anIncrementalSolver, int aCoordinateRow, int aCoordinateNode) throws Throwable {
+		return (int)GET_INCREMENTAL_NODE_VALUE.invokeExact(anIncrementalSolver, aCoordinateRow, aCoordinateNode);
+	}
+
+	/**
+	 * @return anIncrementalSolver.getMinimalPath()
+	 */
+
+	/*package*/ static int[] getMinimalPath(Object anIncrementalSolver) throws Throwable {
+		return (int[])GET_INCREMENTAL_MINIMAL_PATH.invokeExact(anIncrementalSolver);
+	}
+
+	private static Class<?> findClass(String aClassName) {
+		try {
+			return Class.forName(aClassName);
+		} catch (ClassNotFoundException cnfex) {
+			throw new IllegalStateException(cnfex);
+		}
+	}
+
+	/**
+	 * @return a handle on a constructor. default package classes become Object, in the parameters and in the return type.
+	 */
+
+	private static MethodHandle findConstructor(String aClassName, Class<?>... aParameterClassArray) {
+		try {
+			final Constructor<?> constructor = findClass(aClassName).getDeclaredConstructor(aParameterClassArray);
+			constructor.setAccessible(true);
+			final MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor);
+			return handle.asType(eraseDefaultPackageClasses(handle.type()));
+		} catch (ReflectiveOperationException roex) {
+			throw new IllegalStateException(roex);
+		}
+	}
+
+	/**
+	 * @return a handle on a method, static or not. default package classes become Object,
+	 * in the parameters and in the return type. the receiver, if any, comes first.
+	 */
+
+	private static MethodHandle findMethod(String aClassName, String aMethodName, Class<?>... aParameterClassArray) {
+		try {
+			final Method method = findClass(aClassName).getDeclaredMethod(aMethodName, aParameterClassArray);
+			method.setAccessible(true);
+			final MethodHandle handle = MethodHandles.lookup().unreflect(method);
+			return handle.asType(eraseDefaultPackageClasses(handle.type()));
+		} catch (ReflectiveOperationException roex) {
+			throw new IllegalStateException(roex);
+		}
+	}
+
+	private static MethodType eraseDefaultPackageClasses(MethodType aMethodType) {
+		MethodType result = aMethodType;
+		for(int ii = 0 ; ii < result.parameterCount() ; ++ii) {
+			if(isInDefaultPackage(result.parameterType(ii))) {
+				result = result.changeParameterType(ii, Object.class);
+			}
+		}
+		if(isInDefaultPackage(result.returnType())) {
+			result = result.changeReturnType(Object.class);
+		}
+		return result;
+	}
+
+	private static boolean isInDefaultPackage(Class<?> aClass) {
+		return !aClass.isPrimitive() && !aClass.isArray() && (-1 == aClass.getName().indexOf('.'));
+	}
+
+}
@@ -0,0 +1,72 @@
+package benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * IncrementalTriangleSolver: a few node values change, then the minimal path is asked for again.
+ * Compare with SolveBenchmark (engine dp), which is what solving from scratch costs.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IncrementalSolveBenchmark {
+
+	@Param({ "500", "2000" })
+	public int iRowCount;
+
+	@Param({ "99" })
+	public int iMaxNodeValue;
+
+	/**
+	 * node values changed between two queries
+	 */
+
+	@Param({ "1", "10" })
+	public int iChangeCount;
+
+	private Object iSolver;
+	private Random iRandom;
+
+	@Setup
+	public void solveInput() throws Throwable {
+		final Path inputPath = AnswerAccess.writeTriangle(iRowCount, iMaxNodeValue);
+		try {
+			iSolver = AnswerAccess.newIncrementalSolver(AnswerAccess.makeTriangle(AnswerAccess.newInputProcessor(inputPath)));
+		} finally {
+			Files.delete(inputPath);
+		}
+		AnswerAccess.getMinimalPath(iSolver);
+		iRandom = new Random(AnswerAccess.TRIANGLE_SEED);
+	}
+
+	@Benchmark
+	public int[] changeThenSolve() throws Throwable {
+		for(int ii = 0 ; ii < iChangeCount ; ++ii) {
+			final int row = 1 + iRandom.nextInt(iRowCount);
+			final int node = 1 + iRandom.nextInt(row);
+			// never the same value again, so every change is a real one
+			AnswerAccess.setNodeValue(iSolver, row, node, (AnswerAccess.getNodeValue(iSolver, row, node) + 1 + iRandom.nextInt(iMaxNodeValue)) % (iMaxNodeValue + 1));
+		}
+		return AnswerAccess.getMinimalPath(iSolver);
+	}
+
+}
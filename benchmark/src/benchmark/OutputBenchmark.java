@@ -0,0 +1,73 @@
+package benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PathOutputProcessor.processPath on a minimal path, written to an output stream that drops everything,
+ * so only the formatting is measured and not the terminal.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutputBenchmark {
+
+	@Param({ "100", "500", "2000" })
+	public int iRowCount;
+
+	@Param({ "9", "99999" })
+	public int iMaxNodeValue;
+
+	private int[] iPath;
+	private int[] iNodeNumberPath;
+	private Object iOutputProcessor;
+
+	@Setup
+	public void solveInput() throws Throwable {
+		final Path inputPath = AnswerAccess.writeTriangle(iRowCount, iMaxNodeValue);
+		try {
+			final Object triangle = AnswerAccess.makeTriangle(AnswerAccess.newInputProcessor(inputPath));
+			final Object solver = AnswerAccess.makeSolver(iRowCount, new String[] { "--engine=dp" });
+			iPath = AnswerAccess.runAlgorithm(solver, triangle);
+			iNodeNumberPath = AnswerAccess.getNodeNumberPath(solver);
+		} finally {
+			Files.delete(inputPath);
+		}
+		iOutputProcessor = AnswerAccess.newOutputProcessor(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int aByte) {
+				// dropped
+			}
+
+			@Override
+			public void write(byte[] aByteArray, int anOffset, int aLength) {
+				// dropped
+			}
+		}));
+	}
+
+	@Benchmark
+	public void processPath() throws Throwable {
+		AnswerAccess.processPath(iOutputProcessor, iPath, iNodeNumberPath);
+	}
+
+}
@@ -0,0 +1,79 @@
+package benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * TriangleSolver.runAlgorithm of every engine (and every Dijkstra frontier) on an already parsed Triangle,
+ * for a few sizes and node value ranges.
+ *
+ * The vector engine runs with the Vector API module, so it folds rows with SIMD rather than its scalar fallback.
+ *
+ * The solver is made once per trial, as MinTrianglePath would make it. The Triangle is reset before
+ * every invocation, since Dijkstra leaves its path values in it.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class SolveBenchmark {
+
+	/**
+	 * engine, then the Dijkstra frontier if any, as in --engine=dijkstra --frontier=heap
+	 */
+
+	@Param({ "dijkstra-sorted", "dijkstra-heap", "dijkstra-heap4", "dijkstra-bucket", "astar-heap", "astar-bucket", "dp", "parallel", "vector" })
+	public String iEngine;
+
+	@Param({ "100", "500", "2000" })
+	public int iRowCount;
+
+	@Param({ "9", "99", "99999" })
+	public int iMaxNodeValue;
+
+	private Object iTriangle;
+	private Object iSolver;
+
+	@Setup
+	public void makeTriangle() throws Throwable {
+		final Path inputPath = AnswerAccess.writeTriangle(iRowCount, iMaxNodeValue);
+		try {
+			iTriangle = AnswerAccess.makeTriangle(AnswerAccess.newInputProcessor(inputPath));
+		} finally {
+			Files.delete(inputPath);
+		}
+		final String[] engineArray = iEngine.split("-");
+		final String[] argumentArray = (1 == engineArray.length)
+				? new String[] { "--engine=" + engineArray[0] }
+				: new String[] { "--engine=" + engineArray[0], "--frontier=" + engineArray[1] };
+		iSolver = AnswerAccess.makeSolver(AnswerAccess.getRowCount(iTriangle), argumentArray);
+	}
+
+	@Setup(Level.Invocation)
+	public void resetTriangle() throws Throwable {
+		AnswerAccess.resetTriangle(iTriangle);
+	}
+
+	@Benchmark
+	public int[] solve() throws Throwable {
+		return AnswerAccess.runAlgorithm(iSolver, iTriangle);
+	}
+
+}
@@ -0,0 +1,56 @@
+package benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * StreamingTriangleSolver from the file to the path: parsing and solving can't be told apart there,
+ * so compare it with ParseBenchmark plus SolveBenchmark.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamingSolveBenchmark {
+
+	@Param({ "100", "500", "2000" })
+	public int iRowCount;
+
+	@Param({ "9", "99", "99999" })
+	public int iMaxNodeValue;
+
+	private Path iInputPath;
+
+	@Setup
+	public void writeInput() throws Throwable {
+		iInputPath = AnswerAccess.writeTriangle(iRowCount, iMaxNodeValue);
+	}
+
+	@TearDown
+	public void deleteInput() throws Exception {
+		Files.delete(iInputPath);
+	}
+
+	@Benchmark
+	public int[] solve() throws Throwable {
+		return AnswerAccess.solveStreaming(AnswerAccess.newInputProcessor(iInputPath));
+	}
+
+}
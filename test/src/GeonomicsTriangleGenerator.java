@@ -1,35 +1,278 @@
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes a random triangle, as text or in the binary triangle format, to the standard output.
+ *
+ * Rows are generated in blocks of about BLOCK_NODE_COUNT nodes, each block with its own SplittableRandom
+ * split from the seed in block order. Blocks are encoded in parallel into byte arrays and written in order,
+ * so the same seed always gives the same triangle, whatever the thread count.
+ */
 
 public class GeonomicsTriangleGenerator {
 
-	private final static int EXPECTED_ARGUMENT_COUNT = 2;
+	private final static int MINIMUM_ARGUMENT_COUNT = 2;
+	private final static int SEEDED_ARGUMENT_COUNT = 3;
+
+	private final static String OPTION_PREFIX = "--";
+	private final static String DISTRIBUTION_OPTION = "--distribution=";
+	private final static String THREADS_OPTION = "--threads=";
+	private final static String BINARY_OPTION = "--binary";
+
+	private final static int BLOCK_NODE_COUNT = 1 << 20;
+
+	/**
+	 * blocks encoded but not written yet, per thread
+	 */
+
+	private final static int BLOCKS_IN_FLIGHT_PER_THREAD = 2;
+
+	/**
+	 * the layout of TriangleBinaryFormat (see answer/src): little endian, a 16 bytes header
+	 * (magic number "MTPB", format version, row count, value width in bits) then the node values row after row.
+	 */
+
+	private final static int BINARY_MAGIC_NUMBER = 0x4250544D;
+	private final static int BINARY_FORMAT_VERSION = 1;
+	private final static int BINARY_HEADER_SIZE = 4 * Integer.BYTES;
+	private final static ByteOrder BINARY_BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+	private final int iRowCount;
+	private final int iMaxNodeValue;
+	private final long iSeed;
+	private final TriangleValueDistribution iDistribution;
+	private final boolean isBinary;
+	private final int iThreadCount;
 
 	public static void main(String[] args) {
 		boolean isPrintUsage = true;
-		if(EXPECTED_ARGUMENT_COUNT == args.length) {
-			int rowCount = 0;
-			int maxNodeValue = 0;
-			try {
-				rowCount = Integer.parseInt(args[0]);
-				maxNodeValue = Integer.parseInt(args[1]);
-			} catch (NumberFormatException nfex) {
-				nfex.printStackTrace();
-			}
-			if((0 < rowCount) && (0 < maxNodeValue)) {
-				isPrintUsage = false;
-				for(int ii = 0 ; ii < rowCount ; ++ii) {
-					for (int jj = 0 ; jj < ii ; ++jj) {
-						System.out.print(Math.round(Math.random() * maxNodeValue));
-						System.out.print(" ");
-					}
-					System.out.println(Math.round(Math.random() * maxNodeValue));
+		int positionalArgumentCount = 0;
+		int rowCount = 0;
+		int maxNodeValue = 0;
+		Long seed = null;
+		TriangleValueDistribution distribution = TriangleValueDistribution.UNIFORM;
+		boolean isBinaryOutput = false;
+		int threadCount = Runtime.getRuntime().availableProcessors();
+		try {
+			for(int ii = 0 ; ii < args.length ; ++ii) {
+				final String argument = args[ii];
+				if(argument.startsWith(DISTRIBUTION_OPTION)) {
+					distribution = TriangleValueDistribution.fromCommandLineName(argument.substring(DISTRIBUTION_OPTION.length()));
+				} else if(argument.startsWith(THREADS_OPTION)) {
+					threadCount = Integer.parseInt(argument.substring(THREADS_OPTION.length()));
+				} else if(argument.equals(BINARY_OPTION)) {
+					isBinaryOutput = true;
+				} else if(argument.startsWith(OPTION_PREFIX)) {
+					distribution = null;
+				} else if(0 == positionalArgumentCount) {
+					rowCount = Integer.parseInt(argument);
+					++positionalArgumentCount;
+				} else if(1 == positionalArgumentCount) {
+					maxNodeValue = Integer.parseInt(argument);
+					++positionalArgumentCount;
+				} else if(2 == positionalArgumentCount) {
+					seed = Long.valueOf(argument);
+					++positionalArgumentCount;
+				} else {
+					++positionalArgumentCount;
 				}
 			}
+		} catch (NumberFormatException nfex) {
+			nfex.printStackTrace();
+			positionalArgumentCount = 0;
+		}
+		if((MINIMUM_ARGUMENT_COUNT <= positionalArgumentCount) && (SEEDED_ARGUMENT_COUNT >= positionalArgumentCount)
+				&& (0 < rowCount) && (0 < maxNodeValue) && (null != distribution) && (0 < threadCount)) {
+			isPrintUsage = false;
+			final long seedValue = (null == seed) ? new SplittableRandom().nextLong() : seed.longValue();
+			final OutputStream output = new FileOutputStream(FileDescriptor.out);
+			try {
+				new GeonomicsTriangleGenerator(rowCount, maxNodeValue, seedValue, distribution, isBinaryOutput, threadCount).generate(output);
+				output.flush();
+			} catch (IOException ioex) {
+				ioex.printStackTrace();
+			}
 		}
 		if (isPrintUsage) {
-			System.out.println("Usage: java GeonomicsTriangleGenerator <rowCount> <maxNodeValue>");
+			System.out.println("Usage: java GeonomicsTriangleGenerator <rowCount> <maxNodeValue> [seed] [options]");
 			System.out.println("<rowCount> mandatory, strictly positive integer");
 			System.out.println("<maxNodeValue> mandatory, strictly positive integer");
+			System.out.println("[seed] optional, long. the same seed always generates the same triangle, whatever the thread count");
+			System.out.println("--distribution=<name> optional, one of: uniform skewed adversarial. default is uniform");
+			System.out.println("    skewed makes small values much more frequent. adversarial puts 0 or 1 above the leaves and maxNodeValue on them");
+			System.out.println("--binary optional, write the binary triangle format (see TriangleBinaryConverter) instead of text");
+			System.out.println("--threads=<thread count> optional, number of threads encoding rows. default is the number of processors");
+		}
+	}
+
+	/**
+	 * writes a text triangle of aRowCount rows to anOutput, with node values uniformly drawn from 0 to aMaxNodeValue.
+	 * used by the benchmarks to generate their input.
+	 */
+
+	public static void generate(int aRowCount, int aMaxNodeValue, long aSeed, OutputStream anOutput) throws IOException {
+		new GeonomicsTriangleGenerator(aRowCount, aMaxNodeValue, aSeed, TriangleValueDistribution.UNIFORM, false,
+				Runtime.getRuntime().availableProcessors()).generate(anOutput);
+	}
+
+	/**
+	 * @param aSeed the same seed always gives the same triangle
+	 * @param aIsBinary true for the binary triangle format, false for text
+	 * @param aThreadCount number of threads encoding the rows
+	 */
+
+	/*package*/ GeonomicsTriangleGenerator(int aRowCount, int aMaxNodeValue, long aSeed, TriangleValueDistribution aDistribution,
+			boolean aIsBinary, int aThreadCount) {
+		iRowCount = aRowCount;
+		iMaxNodeValue = aMaxNodeValue;
+		iSeed = aSeed;
+		iDistribution = aDistribution;
+		isBinary = aIsBinary;
+		iThreadCount = aThreadCount;
+	}
+
+	/**
+	 * writes the whole triangle to anOutput, which is left open
+	 */
+
+	/*package*/ void generate(OutputStream anOutput) throws IOException {
+		if(isBinary) {
+			anOutput.write(encodeBinaryHeader());
+		}
+		final SplittableRandom seedRandom = new SplittableRandom(iSeed);
+		final ArrayDeque<Future<byte[]>> pendingBlocks = new ArrayDeque<Future<byte[]>>();
+		final ExecutorService executor = Executors.newFixedThreadPool(iThreadCount);
+		try {
+			int firstRowCount = 1;
+			while(firstRowCount <= iRowCount) {
+				// block boundaries only depend on the row lengths, so the random streams don't depend on the thread count
+				int lastRowCount = firstRowCount;
+				long blockNodeCount = firstRowCount;
+				while((lastRowCount < iRowCount) && (blockNodeCount < BLOCK_NODE_COUNT)) {
+					blockNodeCount += ++lastRowCount;
+				}
+				final int blockFirstRowCount = firstRowCount;
+				final int blockLastRowCount = lastRowCount;
+				final SplittableRandom blockRandom = seedRandom.split();
+				if(pendingBlocks.size() >= BLOCKS_IN_FLIGHT_PER_THREAD * iThreadCount) {
+					anOutput.write(getBlock(pendingBlocks.removeFirst()));
+				}
+				pendingBlocks.addLast(executor.submit(new Callable<byte[]>() {
+					public byte[] call() {
+						return encodeBlock(blockFirstRowCount, blockLastRowCount, blockRandom);
+					}
+				}));
+				firstRowCount = lastRowCount + 1;
+			}
+			while(!pendingBlocks.isEmpty()) {
+				anOutput.write(getBlock(pendingBlocks.removeFirst()));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static byte[] getBlock(Future<byte[]> aBlock) throws IOException {
+		try {
+			return aBlock.get();
+		} catch (InterruptedException iex) {
+			Thread.currentThread().interrupt();
+			throw new IOException(iex);
+		} catch (ExecutionException eex) {
+			throw new IOException(eex.getCause());
+		}
+	}
+
+	/**
+	 * @return the rows from aFirstRowCount to aLastRowCount (both included), encoded the way the output needs them
+	 */
+
+	private byte[] encodeBlock(int aFirstRowCount, int aLastRowCount, SplittableRandom aRandom) {
+		final long nodeCount = (((long)aLastRowCount * (aLastRowCount + 1)) - ((long)aFirstRowCount * (aFirstRowCount - 1))) / 2;
+		if(isBinary) {
+			final int valueByteCount = getBinaryValueByteCount();
+			final ByteBuffer buffer = ByteBuffer.allocate((int)(nodeCount * valueByteCount)).order(BINARY_BYTE_ORDER);
+			for(int ii = aFirstRowCount ; ii <= aLastRowCount ; ++ii) {
+				for(int jj = 0 ; jj < ii ; ++jj) {
+					final int nodeValue = iDistribution.nextNodeValue(aRandom, iMaxNodeValue, ii, iRowCount);
+					if(Byte.BYTES == valueByteCount) {
+						buffer.put((byte)nodeValue);
+					} else if(Short.BYTES == valueByteCount) {
+						buffer.putShort((short)nodeValue);
+					} else {
+						buffer.putInt(nodeValue);
+					}
+				}
+			}
+			return buffer.array();
+		}
+		// a separator or a line end after every node value
+		final byte[] textByteArray = new byte[(int)(nodeCount * (getDecimalDigitCount(iMaxNodeValue) + 1))];
+		int textByteCount = 0;
+		for(int ii = aFirstRowCount ; ii <= aLastRowCount ; ++ii) {
+			for(int jj = 0 ; jj < ii ; ++jj) {
+				textByteCount = writeDecimal(textByteArray, textByteCount, iDistribution.nextNodeValue(aRandom, iMaxNodeValue, ii, iRowCount));
+				textByteArray[textByteCount++] = (byte)((jj < ii - 1) ? ' ' : '\n');
+			}
+		}
+		final byte[] result = new byte[textByteCount];
+		System.arraycopy(textByteArray, 0, result, 0, textByteCount);
+		return result;
+	}
+
+	private byte[] encodeBinaryHeader() {
+		final ByteBuffer buffer = ByteBuffer.allocate(BINARY_HEADER_SIZE).order(BINARY_BYTE_ORDER);
+		buffer.putInt(BINARY_MAGIC_NUMBER);
+		buffer.putInt(BINARY_FORMAT_VERSION);
+		buffer.putInt(iRowCount);
+		buffer.putInt(getBinaryValueByteCount() * Byte.SIZE);
+		return buffer.array();
+	}
+
+	/**
+	 * @return the narrowest binary value width (1, 2 or 4 bytes) holding every value from 0 to iMaxNodeValue
+	 */
+
+	private int getBinaryValueByteCount() {
+		if(Byte.MAX_VALUE >= iMaxNodeValue) {
+			return Byte.BYTES;
+		}
+		return (Short.MAX_VALUE >= iMaxNodeValue) ? Short.BYTES : Integer.BYTES;
+	}
+
+	private static int getDecimalDigitCount(int aNonNegativeValue) {
+		int result = 1;
+		for(int value = aNonNegativeValue ; 10 <= value ; value /= 10) {
+			++result;
+		}
+		return result;
+	}
+
+	/**
+	 * writes aNonNegativeValue in decimal into aByteArray at anOffset
+	 *
+	 * @return the offset right after the last digit
+	 */
+
+	private static int writeDecimal(byte[] aByteArray, int anOffset, int aNonNegativeValue) {
+		final int digitCount = getDecimalDigitCount(aNonNegativeValue);
+		int value = aNonNegativeValue;
+		for(int ii = anOffset + digitCount - 1 ; ii >= anOffset ; --ii) {
+			aByteArray[ii] = (byte)('0' + (value % 10));
+			value /= 10;
 		}
+		return anOffset + digitCount;
 	}
 
 }
@@ -0,0 +1,78 @@
+import java.util.SplittableRandom;
+
+/**
+ * How GeonomicsTriangleGenerator draws node values, each with the name used to pick it on the command line.
+ * All of them stay between 0 and the maximum node value.
+ */
+
+enum TriangleValueDistribution {
+
+	/**
+	 * every value from 0 to the maximum is as likely
+	 */
+
+	UNIFORM("uniform") {
+		/*package*/ int nextNodeValue(SplittableRandom aRandom, int aMaxNodeValue, int aRowCount, int aTriangleRowCount) {
+			return (int)aRandom.nextLong(aMaxNodeValue + 1L);
+		}
+	},
+
+	/**
+	 * small values are much more frequent than large ones: the maximum times the cube of a uniform number from 0 to 1
+	 */
+
+	SKEWED("skewed") {
+		/*package*/ int nextNodeValue(SplittableRandom aRandom, int aMaxNodeValue, int aRowCount, int aTriangleRowCount) {
+			final double uniform = aRandom.nextDouble();
+			return (int)Math.min(aMaxNodeValue, (long)((aMaxNodeValue + 1L) * uniform * uniform * uniform));
+		}
+	},
+
+	/**
+	 * 0 or 1 above the leaves, the maximum on the leaves. Every path looks as cheap as the others until the last row,
+	 * so once the maximum is at least the row count Dijkstra finalizes every node above the leaves before reaching one.
+	 */
+
+	ADVERSARIAL("adversarial") {
+		/*package*/ int nextNodeValue(SplittableRandom aRandom, int aMaxNodeValue, int aRowCount, int aTriangleRowCount) {
+			if(aRowCount == aTriangleRowCount) {
+				return aMaxNodeValue;
+			}
+			return Math.min(aMaxNodeValue, aRandom.nextInt(2));
+		}
+	};
+
+	private final String iCommandLineName;
+
+	private TriangleValueDistribution(String aCommandLineName) {
+		iCommandLineName = aCommandLineName;
+	}
+
+	/*package*/ String getCommandLineName() {
+		return iCommandLineName;
+	}
+
+	/**
+	 * @param aRowCount row number of the node, from 1 for the root
+	 * @param aTriangleRowCount number of rows of the triangle
+	 * @return the value of the next node, from 0 to aMaxNodeValue
+	 */
+
+	/*package*/ abstract int nextNodeValue(SplittableRandom aRandom, int aMaxNodeValue, int aRowCount, int aTriangleRowCount);
+
+	/**
+	 * @return the TriangleValueDistribution called aCommandLineName, or null if there is no such distribution
+	 */
+
+	/*package*/ static TriangleValueDistribution fromCommandLineName(String aCommandLineName) {
+		TriangleValueDistribution result = null;
+		final TriangleValueDistribution[] distributionArray = values();
+		for(int ii = 0 ; null == result && ii < distributionArray.length ; ++ii) {
+			if(distributionArray[ii].iCommandLineName.equals(aCommandLineName)) {
+				result = distributionArray[ii];
+			}
+		}
+		return result;
+	}
+
+}